@@ -30,8 +30,11 @@ import org.openjdk.jextract.impl.ClangException;
 import org.openjdk.jextract.impl.CommandLine;
 import org.openjdk.jextract.impl.IncludeHelper;
 import org.openjdk.jextract.impl.CodeGenerator;
+import org.openjdk.jextract.impl.ParseCache;
+import org.openjdk.jextract.impl.ParseSession;
 import org.openjdk.jextract.impl.Parser;
 import org.openjdk.jextract.impl.Options;
+import org.openjdk.jextract.impl.TreeSerializer;
 import org.openjdk.jextract.impl.Writer;
 
 import javax.tools.JavaFileObject;
@@ -51,6 +54,7 @@ import java.util.List;
 import java.util.Locale;
 import java.util.Optional;
 import java.util.ResourceBundle;
+import java.util.function.Consumer;
 import java.util.logging.Level;
 import java.util.logging.LogManager;
 import java.util.logging.Logger;
@@ -75,6 +79,8 @@ public final class JextractTool {
 
     public static final boolean DEBUG = true;//Boolean.getBoolean("jextract.debug");
     public static final Optional<Path> PLATFORM_INCLUDE_PATH = inferPlatformIncludePath();
+    // by default, multiple headers are parsed together, as a single translation unit
+    private static final int PARSE_THREADS = Integer.getInteger("jextract.parse.threads", 1);
 
     // error codes
     private static final int SUCCESS       = 0;
@@ -84,6 +90,16 @@ public final class JextractTool {
     private static final int RUNTIME_ERROR = 4;
     private static final int OUTPUT_ERROR  = 5;
 
+    // keeps translation units alive across runs (null, unless used from a tool provider)
+    private final ParseSession session;
+
+    private JextractTool() {
+        this(null);
+    }
+
+    private JextractTool(ParseSession session) {
+        this.session = session;
+    }
 
     private static String format(String msgId, Object... args) {
         return new MessageFormat(MESSAGES_BUNDLE.getString(msgId)).format(args);
@@ -109,8 +125,25 @@ public final class JextractTool {
      * @return a toplevel declaration.
      */
     public static Declaration.Scoped parse(List<Path> headers, String... parserOptions) {
+        return parse(headers, PARSE_THREADS, parserOptions);
+    }
+
+    /**
+     * Parse input files into a toplevel declaration with given options, using up to the given number
+     * of threads. If more than one thread is used, each input file is parsed on its own, and the resulting
+     * declarations are merged; in this case, an input file cannot depend on declarations or macros that
+     * are only provided by some other input file.
+     * @param parseThreads the maximum number of input files to be parsed concurrently.
+     * @param parserOptions options to be passed to the parser.
+     * @return a toplevel declaration.
+     */
+    public static Declaration.Scoped parse(List<Path> headers, int parseThreads, String... parserOptions) {
+        List<String> args = Stream.of(parserOptions).collect(Collectors.toList());
+        if (headers.size() > 1 && parseThreads > 1) {
+            return Parser.parse(headers, args, parseThreads);
+        }
         Path source = headers.size() > 1? generateTmpSource(headers) : headers.iterator().next();
-        return new Parser().parse(source, Stream.of(parserOptions).collect(Collectors.toList()));
+        return new Parser().parse(source, args);
     }
 
     public static List<JavaFileObject> generate(Declaration.Scoped decl, String headerName,
@@ -120,8 +153,10 @@ public final class JextractTool {
 
     private static List<JavaFileObject> generateInternal(Declaration.Scoped decl, String headerName,
                                                          String targetPkg, IncludeHelper includeHelper,
-                                                         List<String> libNames) {
-        return List.of(CodeGenerator.generate(decl, headerName, targetPkg, includeHelper, libNames));
+                                                         List<String> libNames, Map<String, Boolean> criticalFunctions,
+                                                         boolean classFiles, Consumer<JavaFileObject> sink) {
+        return List.of(CodeGenerator.generate(decl, headerName, targetPkg, includeHelper, libNames,
+                criticalFunctions, classFiles, sink));
     }
 
     /**
@@ -131,8 +166,21 @@ public final class JextractTool {
      * @param files the {@link JavaFileObject} instances to be written.
      */
     public static void write(Path dest, boolean compileSources, List<JavaFileObject> files) throws UncheckedIOException {
+        write(dest, compileSources, false, files);
+    }
+
+    /**
+     * Write resulting {@link JavaFileObject} instances into specified destination path.
+     * @param dest the destination path.
+     * @param compileSources whether to compile .java sources or not
+     * @param incremental whether to only write the files that changed, and to delete the files generated
+     *                    by a previous incremental write which are no longer generated.
+     * @param files the {@link JavaFileObject} instances to be written.
+     */
+    public static void write(Path dest, boolean compileSources, boolean incremental,
+                             List<JavaFileObject> files) throws UncheckedIOException {
         try {
-            new Writer(dest, files).writeAll(compileSources);
+            new Writer(dest, files, incremental).writeAll(compileSources);
         } catch (IOException ex) {
             throw new UncheckedIOException(ex);
         }
@@ -342,6 +390,8 @@ public final class JextractTool {
         }
 
         OptionParser parser = new OptionParser();
+        parser.accepts("--critical-function", format("help.critical-function"), true);
+        parser.accepts("--critical-function-heap", format("help.critical-function-heap"), true);
         parser.accepts("-D", List.of("--define-macro"), format("help.D"), true);
         parser.accepts("--dump-includes", format("help.dump-includes"), true);
         for (IncludeHelper.IncludeKind includeKind : IncludeHelper.IncludeKind.values()) {
@@ -350,8 +400,12 @@ public final class JextractTool {
         parser.accepts("-h", List.of("-?", "--help"), format("help.h"), false);
         parser.accepts("--header-class-name", format("help.header-class-name"), true);
         parser.accepts("-I", List.of("--include-dir"), format("help.I"), true);
+        parser.accepts("--incremental", format("help.incremental"), false);
         parser.accepts("-l", List.of("--library"), format("help.l"), true);
+        parser.accepts("--load-tree", format("help.load-tree"), true);
         parser.accepts("--output", format("help.output"), true);
+        parser.accepts("--parse-cache", format("help.parse-cache"), true);
+        parser.accepts("--save-tree", format("help.save-tree"), true);
         parser.accepts("--source", format("help.source"), false);
         parser.accepts("-t", List.of("--target-package"), format("help.t"), true);
         parser.accepts("--version", format("help.version"), false);
@@ -378,7 +432,19 @@ public final class JextractTool {
             return printHelp(SUCCESS);
         }
 
-        if (optionSet.nonOptionArguments().size() != 1) {
+        if (optionSet.has("--load-tree")) {
+            // a saved declaration tree replaces the header file, and no parsing takes place
+            if (!optionSet.nonOptionArguments().isEmpty()) {
+                printOptionError(format("load.tree.header.file"));
+                return OPTION_ERROR;
+            }
+            for (String option : List.of("-I", "-D", "--parse-cache", "--save-tree")) {
+                if (optionSet.has(option)) {
+                    printOptionError(format("load.tree.invalid.option", option));
+                    return OPTION_ERROR;
+                }
+            }
+        } else if (optionSet.nonOptionArguments().size() != 1) {
             printOptionError("Expected 1 header file, not " + optionSet.nonOptionArguments().size());
             return OPTION_ERROR;
         }
@@ -399,6 +465,14 @@ public final class JextractTool {
             optionSet.valuesOf("-D").forEach(p -> builder.addClangArg("-D" + p));
         }
 
+        if (optionSet.has("--critical-function")) {
+            optionSet.valuesOf("--critical-function").forEach(f -> builder.addCriticalFunction(f, false));
+        }
+
+        if (optionSet.has("--critical-function-heap")) {
+            optionSet.valuesOf("--critical-function-heap").forEach(f -> builder.addCriticalFunction(f, true));
+        }
+
         if (optionSet.has("-I")) {
             optionSet.valuesOf("-I").forEach(p -> builder.addClangArg("-I" + p));
         }
@@ -437,6 +511,22 @@ public final class JextractTool {
         if (optionSet.has("--source")) {
             builder.setGenerateSource();
         }
+
+        if (optionSet.has("--incremental")) {
+            builder.setIncremental();
+        }
+
+        if (optionSet.has("--parse-cache")) {
+            builder.setParseCacheDir(optionSet.valueOf("--parse-cache"));
+        }
+
+        if (optionSet.has("--save-tree")) {
+            builder.setSaveTreeFile(optionSet.valueOf("--save-tree"));
+        }
+
+        if (optionSet.has("--load-tree")) {
+            builder.setLoadTreeFile(optionSet.valueOf("--load-tree"));
+        }
         boolean librariesSpecified = optionSet.has("-l");
         if (librariesSpecified) {
             for (String lib : optionSet.valuesOf("-l")) {
@@ -459,19 +549,60 @@ public final class JextractTool {
 
         Options options = builder.build();
 
-        Path header = Paths.get(optionSet.nonOptionArguments().get(0));
-        if (!Files.isReadable(header)) {
-            LOGGER.log(Level.SEVERE, format("cannot.read.header.file", header));
-            return INPUT_ERROR;
-        }
-        if (!(Files.isRegularFile(header))) {
-            LOGGER.log(Level.SEVERE, format("not.a.file", header));
-            return INPUT_ERROR;
+        Path header = null;
+        TreeSerializer.Tree savedTree = null;
+        if (options.loadTreeFile != null) {
+            try {
+                savedTree = TreeSerializer.load(Path.of(options.loadTreeFile));
+            } catch (IOException ex) {
+                LOGGER.log(Level.SEVERE, format("cannot.read.tree.file", options.loadTreeFile, ex.getMessage()));
+                return INPUT_ERROR;
+            }
+        } else {
+            header = Paths.get(optionSet.nonOptionArguments().get(0));
+            if (!Files.isReadable(header)) {
+                LOGGER.log(Level.SEVERE, format("cannot.read.header.file", header));
+                return INPUT_ERROR;
+            }
+            if (!(Files.isRegularFile(header))) {
+                LOGGER.log(Level.SEVERE, format("not.a.file", header));
+                return INPUT_ERROR;
+            }
         }
 
+        Writer writer = new Writer(Path.of(options.outputDir), List.of(), options.incremental);
+        // generated sources are written as soon as they are ready, instead of being kept in memory;
+        // compiled bindings cannot be streamed, as javac needs all the sources
+        boolean streamSources = options.source && options.includeHelper.dumpIncludesFile == null;
         List<JavaFileObject> files = null;
         try {
-            Declaration.Scoped toplevel = parse(List.of(header), options.clangArgs.toArray(new String[0]));
+            Declaration.Scoped toplevel;
+            String defaultHeaderName;
+            if (savedTree != null) {
+                toplevel = savedTree.toplevel();
+                defaultHeaderName = savedTree.headerName();
+            } else {
+                // a saved tree can be used with different filters, so it must contain all the declarations
+                IncludeHelper parserIncludeHelper = options.saveTreeFile != null ? null : options.includeHelper;
+                if (session != null) {
+                    toplevel = session.parse(header, options.clangArgs, parserIncludeHelper);
+                } else {
+                    ParseCache cache = options.parseCacheDir != null ?
+                            new ParseCache(Path.of(options.parseCacheDir)) : null;
+                    toplevel = new Parser(cache, parserIncludeHelper).parse(header, options.clangArgs);
+                }
+                defaultHeaderName = header.getFileName().toString();
+            }
+
+            if (options.saveTreeFile != null) {
+                try {
+                    TreeSerializer.save(Path.of(options.saveTreeFile),
+                            new TreeSerializer.Tree(defaultHeaderName, toplevel));
+                } catch (IOException ex) {
+                    LOGGER.log(Level.SEVERE, format("cannot.write.tree.file", options.saveTreeFile, ex.getMessage()));
+                    return OUTPUT_ERROR;
+                }
+            }
 
             if (JextractTool.DEBUG) {
                 System.out.println(toplevel);
@@ -479,14 +610,19 @@ public final class JextractTool {
 
             String headerName = optionSet.has("--header-class-name") ?
                 optionSet.valueOf("--header-class-name") :
-                header.getFileName().toString();
+                defaultHeaderName;
 
             files = generateInternal(
                 toplevel, headerName,
-                options.targetPackage, options.includeHelper, options.libraryNames);
+                options.targetPackage, options.includeHelper, options.libraryNames, options.criticalFunctions,
+                !options.source,
+                streamSources ? writer::writeSourceFile : null);
         } catch (ClangException ce) {
             LOGGER.log(Level.SEVERE, ce.getMessage(), ce);
             return CLANG_ERROR;
+        } catch (UncheckedIOException uioe) {
+            LOGGER.log(Level.SEVERE, uioe.getMessage(), uioe);
+            return OUTPUT_ERROR;
         } catch (RuntimeException re) {
             LOGGER.log(Level.SEVERE, re.getMessage(), re);
             return RUNTIME_ERROR;
@@ -496,11 +632,11 @@ public final class JextractTool {
             if (options.includeHelper.dumpIncludesFile != null) {
                 options.includeHelper.dumpIncludes();
             } else {
-                Path output = Path.of(options.outputDir);
-                write(output, !options.source, files);
+                writer.addFiles(files);
+                writer.writeAll(!options.source);
             }
-        } catch (UncheckedIOException uioe) {
-            LOGGER.log(Level.SEVERE, uioe.getMessage(), uioe);
+        } catch (IOException | UncheckedIOException ex) {
+            LOGGER.log(Level.SEVERE, ex.getMessage(), ex);
             return OUTPUT_ERROR;
         } catch (RuntimeException re) {
             LOGGER.log(Level.SEVERE, re.getMessage(), re);
@@ -513,8 +649,26 @@ public final class JextractTool {
     /**
      * ToolProvider implementation for jextract tool.
      */
-    public static class JextractToolProvider implements ToolProvider {
-        public JextractToolProvider() {}
+    public static class JextractToolProvider implements ToolProvider, AutoCloseable {
+        // by default, the parsed translation units are discarded at the end of each run
+        private static final boolean PARSE_SESSION = Boolean.getBoolean("jextract.parse.session");
+
+        private final ParseSession session;
+
+        public JextractToolProvider() {
+            this(PARSE_SESSION);
+        }
+
+        /**
+         * Creates a new tool provider. If {@code keepParsed} is set, the translation units parsed by this
+         * tool provider are kept alive across runs. Subsequent runs on the same header (and with the same
+         * clang options) then only reparse the header if some of the files it includes have changed.
+         * In that case, the tool provider should be closed when no longer in use.
+         * @param keepParsed whether parsed translation units should be kept alive across runs.
+         */
+        public JextractToolProvider(boolean keepParsed) {
+            this.session = keepParsed ? new ParseSession() : null;
+        }
 
         @Override
         public String name() {
@@ -523,9 +677,19 @@ public final class JextractTool {
 
         @Override
         public int run(PrintWriter out, PrintWriter err, String... args) {
-            JextractTool instance = new JextractTool();
+            JextractTool instance = new JextractTool(session);
             return instance.run(args);
         }
+
+        /**
+         * Releases the translation units kept alive by this tool provider, if any.
+         */
+        @Override
+        public void close() {
+            if (session != null) {
+                session.close();
+            }
+        }
     }
 
     private static Optional<Path> inferPlatformIncludePath() {
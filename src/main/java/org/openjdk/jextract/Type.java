@@ -26,6 +26,7 @@
 
 package org.openjdk.jextract;
 
+import org.openjdk.jextract.impl.DeclarationImpl;
 import org.openjdk.jextract.impl.TypeImpl;
 import org.openjdk.jextract.impl.TypeImpl.ErronrousTypeImpl;
 
@@ -379,7 +380,7 @@ public interface Type {
      * @return the {@code void} type.
      */
     static Type.Primitive void_() {
-        return new TypeImpl.PrimitiveImpl(Type.Primitive.Kind.Void);
+        return TypeImpl.PrimitiveImpl.of(Type.Primitive.Kind.Void);
     }
 
     /**
@@ -388,7 +389,7 @@ public interface Type {
      * @return a new primitive type with given kind.
      */
     static Type.Primitive primitive(Type.Primitive.Kind kind) {
-        return new TypeImpl.PrimitiveImpl(kind);
+        return TypeImpl.PrimitiveImpl.of(kind);
     }
 
     /**
@@ -398,7 +399,7 @@ public interface Type {
      * @return a new qualified type with given name and underlying type.
      */
     static Type.Delegated qualified(Type.Delegated.Kind kind, Type type) {
-        return new TypeImpl.QualifiedImpl(kind, type);
+        return TypeImpl.QualifiedImpl.of(kind, type);
     }
 
     /**
@@ -416,7 +417,7 @@ public interface Type {
      * @return a new pointer type with no associated pointee information.
      */
     static Type.Delegated pointer() {
-        return new TypeImpl.PointerImpl(() -> new TypeImpl.PrimitiveImpl(Type.Primitive.Kind.Void));
+        return TypeImpl.PointerImpl.of(TypeImpl.PrimitiveImpl.of(Type.Primitive.Kind.Void));
     }
 
     /**
@@ -425,7 +426,7 @@ public interface Type {
      * @return a new pointer type with given pointee type.
      */
     static Type.Delegated pointer(Type pointee) {
-        return new TypeImpl.PointerImpl(() -> pointee);
+        return TypeImpl.PointerImpl.of(pointee);
     }
 
     /**
@@ -454,7 +455,9 @@ public interface Type {
      * @return  a new declared type with given foreign declaration.
      */
     static Type.Declared declared(Declaration.Scoped tree) {
-        return new TypeImpl.DeclaredImpl(tree);
+        return tree instanceof DeclarationImpl.ScopedImpl scoped ?
+                scoped.declaredType() :
+                new TypeImpl.DeclaredImpl(tree);
     }
 
     /**
@@ -33,20 +33,22 @@ import org.openjdk.jextract.clang.libclang.CXCursor;
 import org.openjdk.jextract.clang.libclang.CXCursorVisitor;
 import org.openjdk.jextract.clang.libclang.Index_h;
 
-import java.lang.foreign.SegmentAllocator;
+import java.lang.foreign.MemoryLayout;
+import java.lang.foreign.ValueLayout;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
 import java.util.Objects;
 import java.util.function.Consumer;
 import java.util.function.Predicate;
 
-import static org.openjdk.jextract.clang.libclang.Index_h.C_CHAR;
-
 public final class Cursor extends ClangDisposable.Owned {
 
     private final int kind;
 
     Cursor(MemorySegment segment, ClangDisposable owner) {
         super(segment, owner);
-        kind = Index_h.clang_getCursorKind(segment);
+        // same as clang_getCursorKind, without the downcall
+        kind = CXCursor.kind$get(segment);
     }
 
     public boolean isDeclaration() {
@@ -54,6 +56,10 @@ public final class Cursor extends ClangDisposable.Owned {
     }
 
     public boolean isPreprocessing() {
+        return isPreprocessing(kind);
+    }
+
+    public static boolean isPreprocessing(int kind) {
         return Index_h.clang_isPreprocessing(kind) != 0;
     }
 
@@ -65,7 +71,11 @@ public final class Cursor extends ClangDisposable.Owned {
         return Index_h.clang_isCursorDefinition(segment) != 0;
     }
 
-    public boolean isAttribute() { return Index_h.clang_isAttribute(kind) != 0; }
+    public boolean isAttribute() { return isAttribute(kind); }
+
+    public static boolean isAttribute(int kind) {
+        return Index_h.clang_isAttribute(kind) != 0;
+    }
 
     public boolean isAnonymousStruct() {
         return Index_h.clang_Cursor_isAnonymousRecordDecl(segment) != 0;
@@ -130,14 +140,21 @@ public final class Cursor extends ClangDisposable.Owned {
 
     public SourceLocation getSourceLocation() {
         MemorySegment loc = Index_h.clang_getCursorLocation(owner, segment);
-        try (Arena arena = Arena.ofConfined()) {
-            if (Index_h.clang_equalLocations(loc, Index_h.clang_getNullLocation(arena)) != 0) {
-                return null;
-            }
+        if (SourceLocation.isNull(loc)) {
+            return null;
         }
         return new SourceLocation(loc, owner);
     }
 
+    /**
+     * {@return the file location of this cursor, or {@code null} if this cursor has no location}
+     * Unlike {@code getSourceLocation().getFileLocation()}, this method allocates no native memory, and
+     * computes the name of a given file only once per translation unit.
+     */
+    public FileLocation fileLocation() {
+        return SourceLocation.fileLocation(segment, (TranslationUnit)owner);
+    }
+
     public SourceRange getExtent() {
         MemorySegment range = Index_h.clang_getCursorExtent(owner, segment);
         if (Index_h.clang_Range_isNull(range) != 0) {
@@ -198,82 +215,130 @@ public final class Cursor extends ClangDisposable.Owned {
     }
 
     public void forEach(Consumer<Cursor> action) {
-        CursorChildren.forEach(this, action);
+        try (Children children = children()) {
+            for (int i = 0; i < children.size(); i++) {
+                action.accept(children.get(i));
+            }
+        }
     }
 
     public void forEachShortCircuit(Predicate<Cursor> action) {
-        CursorChildren.forEachShortCircuit(this, action);
+        try (Children children = children()) {
+            for (int i = 0; i < children.size(); i++) {
+                if (!action.test(children.get(i))) {
+                    break;
+                }
+            }
+        }
+    }
+
+    /**
+     * {@return the children of this cursor} The children are collected eagerly, in a single visit.
+     */
+    public Children children() {
+        return Children.of(this);
     }
 
     /**
-     * We run the visitor action inside the upcall, so that we do not have to worry about
-     * having to copy cursors into separate off-heap storage. To do this, we have to setup
-     * some context for the upcall, so that the upcall code can call the "correct" user-defined visitor action.
-     * Note: exceptions must be delayed until after the upcall has returned; this is necessary as upcalls
-     * cannot throw (if they do, they cause a JVM crash).
+     * The children of a cursor, stored in an off-heap array. The upcall used to visit the children only copies
+     * each child cursor into the array; the children can then be inspected (e.g. by kind) and iterated without
+     * running any code inside the upcall, and without having to create a {@code Cursor} for each of them.
+     * Child cursors are backed by the array, so they must not be used after the children have been closed.
      */
-    private static class CursorChildren {
+    public static final class Children implements Iterable<Cursor>, AutoCloseable {
+        private final Arena arena;
+        private final MemorySegment cursors;
+        private final int size;
+        private final ClangDisposable owner;
+
+        private Children(Arena arena, MemorySegment cursors, int size, ClangDisposable owner) {
+            this.arena = arena;
+            this.cursors = cursors;
+            this.size = size;
+            this.owner = owner;
+        }
 
-        static class Context {
-            private final Predicate<Cursor> action;
-            private final ClangDisposable owner;
-            private RuntimeException exception;
+        public int size() {
+            return size;
+        }
 
-            Context(Predicate<Cursor> action, ClangDisposable owner) {
-                this.action = action;
-                this.owner = owner;
-            }
+        /**
+         * {@return the kind of the child cursor at the given index} (see {@link Cursor#kind0()})
+         */
+        public int kind(int index) {
+            Objects.checkIndex(index, size);
+            return CXCursor.kind$get(cursors, index);
+        }
+
+        public Cursor get(int index) {
+            Objects.checkIndex(index, size);
+            return new Cursor(cursors.asSlice(index * CXCursor.sizeof(), CXCursor.$LAYOUT()), owner);
+        }
 
-            boolean visit(MemorySegment segment) {
-                // Note: the session of this cursor is smaller than that of the translation unit
-                // this is because the cursor will be destroyed when the upcall ends. This means
-                // that the cursor passed by the visitor must NOT be leaked into a field and accessed
-                // at a later time (or the liveness check will fail with IllegalStateException).
-                try {
-                    // run the visitor action
-                    return action.test(new Cursor(segment, owner));
-                } catch (RuntimeException ex) {
-                    // if we fail, record the exception, and return false to stop the visit
-                    exception = ex;
-                    return false;
+        @Override
+        public Iterator<Cursor> iterator() {
+            return new Iterator<>() {
+                int next = 0;
+
+                @Override
+                public boolean hasNext() {
+                    return next < size;
                 }
-            }
 
-            void handleExceptions() {
-                if (exception != null) {
-                    throw exception;
+                @Override
+                public Cursor next() {
+                    if (!hasNext()) {
+                        throw new NoSuchElementException();
+                    }
+                    return get(next++);
                 }
-            }
+            };
         }
 
-        static Context pendingContext = null;
-
-        private static final MemorySegment callback = CXCursorVisitor.allocate((c, p, d) -> {
-            if (pendingContext.visit(c)) {
-                return Index_h.CXChildVisit_Continue();
-            } else {
-                return Index_h.CXChildVisit_Break();
-            }
-        }, Arena.global());
+        @Override
+        public void close() {
+            arena.close();
+        }
 
-        static void forEach(Cursor c, Consumer<Cursor> op) {
-            forEachShortCircuit(c, decl -> {
-                op.accept(decl);
-                return true;
-            });
+        static Children of(Cursor parent) {
+            Collector collector = COLLECTOR.get();
+            collector.count = 0;
+            Index_h.clang_visitChildren(parent.segment, COLLECT, MemorySegment.NULL);
+            Arena arena = Arena.ofConfined();
+            long bytes = collector.count * CXCursor.sizeof();
+            MemorySegment cursors = arena.allocate(bytes, CXCursor.$LAYOUT().byteAlignment());
+            MemorySegment.copy(collector.buffer, 0, cursors, 0, bytes);
+            return new Children(arena, cursors, collector.count, parent.owner);
         }
 
-        synchronized static void forEachShortCircuit(Cursor c, Predicate<Cursor> op) {
-            // everything is confined, no need to synchronize
-            Context prevContext = pendingContext;
-            try {
-                pendingContext = new Context(op, c.owner);
-                Index_h.clang_visitChildren(c.segment, callback, MemorySegment.NULL);
-                pendingContext.handleExceptions();
-            } finally {
-                pendingContext = prevContext;
+        /*
+         * Accumulates the cursors seen during a visit. A collector can be reused by nested visits, as no
+         * other visit can take place while the upcall is running. Note: the upcall must not throw, as that
+         * would crash the JVM, so it should only do the bare minimum.
+         */
+        private static final class Collector {
+            MemorySegment buffer = MemorySegment.ofArray(new long[64 * (int)(CXCursor.sizeof() / Long.BYTES)]);
+            int count;
+
+            void add(MemorySegment cursor) {
+                long offset = count * CXCursor.sizeof();
+                if (offset + CXCursor.sizeof() > buffer.byteSize()) {
+                    MemorySegment newBuffer = MemorySegment.ofArray(new long[(int)(buffer.byteSize() * 2 / Long.BYTES)]);
+                    newBuffer.copyFrom(buffer);
+                    buffer = newBuffer;
+                }
+                MemorySegment.copy(cursor, 0, buffer, offset, CXCursor.sizeof());
+                count++;
             }
         }
+
+        // translation units can be parsed concurrently, so collectors are per thread
+        private static final ThreadLocal<Collector> COLLECTOR = ThreadLocal.withInitial(Collector::new);
+
+        private static final MemorySegment COLLECT = CXCursorVisitor.allocate((c, p, d) -> {
+            COLLECTOR.get().add(c);
+            return Index_h.CXChildVisit_Continue();
+        }, Arena.global());
     }
 
     public String getMangling() {
@@ -304,44 +369,66 @@ public final class Cursor extends ClangDisposable.Owned {
         return new Key(this);
     }
 
+    /*
+     * The fields compared by clang_equalCursors: the kind, and the three data pointers. The second
+     * data pointer of a declaration cursor is ignored (it only says whether the cursor is the first
+     * in its declaration group).
+     */
+    private static final long DATA_OFFSET = CXCursor.$LAYOUT().byteOffset(MemoryLayout.PathElement.groupElement("data"));
+
+    long data(int index) {
+        if (index == 1 && isDeclarationKind(kind)) {
+            return 0L;
+        }
+        return segment.get(ValueLayout.JAVA_LONG, DATA_OFFSET + index * ValueLayout.ADDRESS.byteSize());
+    }
+
+    // same as clang_isDeclaration, without the downcall
+    private static boolean isDeclarationKind(int kind) {
+        return (kind >= Index_h.CXCursor_FirstDecl() && kind <= Index_h.CXCursor_LastDecl()) ||
+                (kind >= Index_h.CXCursor_FirstExtraDecl() && kind <= Index_h.CXCursor_LastExtraDecl());
+    }
+
     /**
      * A key that can be used for cursor comparisons. This avoids the problem of comparing cursors
-     * which are already closed, and also optimizes the use of the underlying 'clang_equalCursors' function,
-     * to avoid unnecessary off-heap allocation. This is required by the deduplication logic in TreeMaker.
+     * which are already closed. Two keys are equal if their cursors are equal according to
+     * 'clang_equalCursors', but keys are compared in Java, without calling into libclang.
+     * This is required by the deduplication logic in TreeMaker.
      */
-    public static class Key {
+    public static final class Key {
 
-        final String spelling;
-        final CursorKind kind;
-        final MemorySegment payload;
+        final int kind;
+        final long data0;
+        final long data1;
+        final long data2;
 
         private Key(Cursor cursor) {
-            spelling = cursor.spelling();
-            kind = cursor.kind();
-            payload = MemorySegment.ofArray(new byte[(int)CXCursor.$LAYOUT().byteSize()]);
-            payload.copyFrom(cursor.segment);
+            kind = cursor.kind;
+            data0 = cursor.data(0);
+            data1 = cursor.data(1);
+            data2 = cursor.data(2);
         }
 
         @Override
         public boolean equals(Object obj) {
-            if (!(obj instanceof Key key)) return false;
-            if (kind != key.kind) return false;
-            if (!spelling.equals(key.spelling)) return false;
-            // slow path
-            SegmentAllocator allocator = SegmentAllocator.slicingAllocator(COMPARISON_SEGMENT);
-            return Index_h.clang_equalCursors(toSegment(allocator), key.toSegment(allocator)) != 0;
+            return obj instanceof Key key &&
+                    kind == key.kind && data0 == key.data0 &&
+                    data1 == key.data1 && data2 == key.data2;
         }
 
         @Override
         public int hashCode() {
-            return Objects.hash(kind, spelling);
+            return hash(kind, data0, data1, data2);
         }
 
-        private MemorySegment toSegment(SegmentAllocator allocator) {
-            return allocator.allocateFrom(C_CHAR, payload,
-                                          C_CHAR, 0, CXCursor.$LAYOUT().byteSize());
+        static int hash(int kind, long data0, long data1, long data2) {
+            long h = kind;
+            h = h * 31 + data0;
+            h = h * 31 + data1;
+            h = h * 31 + data2;
+            // spread the bits of the (aligned) pointers
+            h *= 0x9E3779B97F4A7C15L;
+            return (int)(h ^ (h >>> 32));
         }
-
-        private static final MemorySegment COMPARISON_SEGMENT = Arena.ofAuto().allocate(CXCursor.$LAYOUT(), 2);
     }
 }
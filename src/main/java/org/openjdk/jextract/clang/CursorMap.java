@@ -0,0 +1,129 @@
+/*
+ *  Copyright (c) 2024, Oracle and/or its affiliates. All rights reserved.
+ *  DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ *  This code is free software; you can redistribute it and/or modify it
+ *  under the terms of the GNU General Public License version 2 only, as
+ *  published by the Free Software Foundation.  Oracle designates this
+ *  particular file as subject to the "Classpath" exception as provided
+ *  by Oracle in the LICENSE file that accompanied this code.
+ *
+ *  This code is distributed in the hope that it will be useful, but WITHOUT
+ *  ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ *  FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ *  version 2 for more details (a copy is included in the LICENSE file that
+ *  accompanied this code).
+ *
+ *  You should have received a copy of the GNU General Public License version
+ *  2 along with this work; if not, write to the Free Software Foundation,
+ *  Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ *   Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ *  or visit www.oracle.com if you need additional information or have any
+ *  questions.
+ *
+ */
+
+package org.openjdk.jextract.clang;
+
+import java.util.Objects;
+
+/**
+ * A map whose keys are cursors, compared as per {@link Cursor.Key}. The map uses open addressing, and stores
+ * the cursor fields that make up a key in a primitive array, so that looking up a cursor requires neither
+ * allocation, nor calls into libclang. Null values are not supported.
+ */
+public final class CursorMap<V> {
+
+    // number of longs used to store a key: the kind, and the three data pointers
+    private static final int KEY_SIZE = 4;
+
+    private long[] keys;
+    private Object[] values;
+    private int size;
+
+    public CursorMap() {
+        this(64);
+    }
+
+    public CursorMap(int initialCapacity) {
+        int capacity = Integer.highestOneBit(Math.max(initialCapacity, 8) * 2 - 1);
+        keys = new long[capacity * KEY_SIZE];
+        values = new Object[capacity];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public V get(Cursor cursor) {
+        return get(cursor.kind0(), cursor.data(0), cursor.data(1), cursor.data(2));
+    }
+
+    public V get(Cursor.Key key) {
+        return get(key.kind, key.data0, key.data1, key.data2);
+    }
+
+    /**
+     * Associates the given value with the given cursor.
+     * @return the value previously associated with the cursor, or {@code null}.
+     */
+    public V put(Cursor cursor, V value) {
+        Objects.requireNonNull(value);
+        int kind = cursor.kind0();
+        long data0 = cursor.data(0);
+        long data1 = cursor.data(1);
+        long data2 = cursor.data(2);
+        int slot = find(kind, data0, data1, data2);
+        @SuppressWarnings("unchecked")
+        V prev = (V)values[slot];
+        if (prev == null) {
+            int base = slot * KEY_SIZE;
+            keys[base] = kind;
+            keys[base + 1] = data0;
+            keys[base + 2] = data1;
+            keys[base + 3] = data2;
+            size++;
+        }
+        values[slot] = value;
+        if (size * 2 > values.length) {
+            resize();
+        }
+        return prev;
+    }
+
+    @SuppressWarnings("unchecked")
+    private V get(int kind, long data0, long data1, long data2) {
+        return (V)values[find(kind, data0, data1, data2)];
+    }
+
+    // returns the slot of the given key, or the empty slot where the key should be added
+    private int find(int kind, long data0, long data1, long data2) {
+        int mask = values.length - 1;
+        int slot = Cursor.Key.hash(kind, data0, data1, data2) & mask;
+        while (values[slot] != null) {
+            int base = slot * KEY_SIZE;
+            if (keys[base] == kind && keys[base + 1] == data0 &&
+                    keys[base + 2] == data1 && keys[base + 3] == data2) {
+                break;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private void resize() {
+        long[] oldKeys = keys;
+        Object[] oldValues = values;
+        keys = new long[oldKeys.length * 2];
+        values = new Object[oldValues.length * 2];
+        for (int i = 0; i < oldValues.length; i++) {
+            if (oldValues[i] != null) {
+                int base = i * KEY_SIZE;
+                int slot = find((int)oldKeys[base], oldKeys[base + 1], oldKeys[base + 2], oldKeys[base + 3]);
+                System.arraycopy(oldKeys, base, keys, slot * KEY_SIZE, KEY_SIZE);
+                values[slot] = oldValues[i];
+            }
+        }
+    }
+}
@@ -0,0 +1,91 @@
+/*
+ *  Copyright (c) 2024, Oracle and/or its affiliates. All rights reserved.
+ *  DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ *  This code is free software; you can redistribute it and/or modify it
+ *  under the terms of the GNU General Public License version 2 only, as
+ *  published by the Free Software Foundation.  Oracle designates this
+ *  particular file as subject to the "Classpath" exception as provided
+ *  by Oracle in the LICENSE file that accompanied this code.
+ *
+ *  This code is distributed in the hope that it will be useful, but WITHOUT
+ *  ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ *  FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ *  version 2 for more details (a copy is included in the LICENSE file that
+ *  accompanied this code).
+ *
+ *  You should have received a copy of the GNU General Public License version
+ *  2 along with this work; if not, write to the Free Software Foundation,
+ *  Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ *   Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ *  or visit www.oracle.com if you need additional information or have any
+ *  questions.
+ *
+ */
+
+package org.openjdk.jextract.clang;
+
+import java.nio.file.Path;
+import java.util.Objects;
+
+/**
+ * A compact file location, made up of a file id, a line and a column. File ids are assigned by the translation
+ * unit the location belongs to, so that obtaining a file location requires no native allocation; the path of
+ * the file is only materialized when {@link #path()} is called.
+ */
+public final class FileLocation {
+    private final TranslationUnit tu;
+    private final int file;
+    private final int line;
+    private final int column;
+
+    FileLocation(TranslationUnit tu, int file, int line, int column) {
+        this.tu = tu;
+        this.file = file;
+        this.line = line;
+        this.column = column;
+    }
+
+    /**
+     * {@return the id of the file, or {@link TranslationUnit#NO_FILE} if this location is not in a file}
+     */
+    public int file() {
+        return file;
+    }
+
+    /**
+     * {@return the path of the file, or {@code null} if this location is not in a file}
+     */
+    public Path path() {
+        return tu.filePath(file);
+    }
+
+    public int line() {
+        return line;
+    }
+
+    public int column() {
+        return column;
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        if (this == other) {
+            return true;
+        }
+        return other instanceof FileLocation loc &&
+                tu == loc.tu && file == loc.file &&
+                line == loc.line && column == loc.column;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(file, line, column);
+    }
+
+    @Override
+    public String toString() {
+        return Objects.toString(path()) + ":" + line + ":" + column;
+    }
+}
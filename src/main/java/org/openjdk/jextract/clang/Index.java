@@ -109,6 +109,24 @@ public class Index extends ClangDisposable {
         }
     }
 
+    /**
+     * Load a translation unit from an AST file previously created using {@link TranslationUnit#save(Path)}.
+     * The input files of the AST file are not validated against the files on disk.
+     */
+    public TranslationUnit load(Path astFile) throws ParsingFailedException {
+        try (Arena arena = Arena.ofConfined()) {
+            MemorySegment src = arena.allocateFrom(astFile.toAbsolutePath().toString());
+            MemorySegment outAddress = arena.allocate(C_POINTER);
+            LOGGER.log(Level.FINE, "Loading translation unit from {0}", astFile);
+            ErrorCode code = ErrorCode.valueOf(Index_h.clang_createTranslationUnit2(ptr, src, outAddress));
+            if (code != ErrorCode.Success) {
+                LOGGER.log(Level.FINE, "Loading failed with return code {0}", code);
+                throw new ParsingFailedException(astFile, code);
+            }
+            return new TranslationUnit(outAddress.get(C_POINTER, 0));
+        }
+    }
+
     private int defaultOptions(boolean detailedPreprocessorRecord) {
         int rv = Index_h.CXTranslationUnit_ForSerialization();
         rv |= Index_h.CXTranslationUnit_SkipFunctionBodies();
@@ -124,6 +142,19 @@ public class Index extends ClangDisposable {
         return parseTU(file, dh, defaultOptions(detailedPreprocessorRecord), args);
     }
 
+    /**
+     * Parses a translation unit that is meant to be reparsed (see {@link TranslationUnit#reparse(Consumer, UnsavedFile...)}).
+     * Included files are compiled into a precompiled preamble, which is reused by subsequent reparses, as long
+     * as the preamble is not affected by the changes.
+     */
+    public TranslationUnit parseForReparse(String file, Consumer<Diagnostic> dh, String... args)
+    throws ParsingFailedException {
+        int options = defaultOptions(true);
+        options |= Index_h.CXTranslationUnit_PrecompiledPreamble();
+        options |= Index_h.CXTranslationUnit_CreatePreambleOnFirstParse();
+        return parseTU(file, dh, options, args);
+    }
+
     public TranslationUnit parse(String file, boolean detailedPreprocessorRecord, String... args)
     throws ParsingFailedException {
         return parse(file, dh -> {}, detailedPreprocessorRecord, args);
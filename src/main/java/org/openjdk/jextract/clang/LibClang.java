@@ -49,22 +49,46 @@ public class LibClang {
     private final static MemorySegment disableCrashRecovery =
             IMPLICIT_ALLOCATOR.allocateFrom("LIBCLANG_DISABLE_CRASH_RECOVERY=" + CRASH_RECOVERY);
 
+    private final static MemorySegment disablePCHValidation =
+            IMPLICIT_ALLOCATOR.allocateFrom("LIBCLANG_DISABLE_PCH_VALIDATION=1");
+
+    private static final MethodHandle PUT_ENV;
+    private static boolean pchValidationDisabled;
+
     static {
-        if (!CRASH_RECOVERY) {
-            //this is an hack - needed because clang_toggleCrashRecovery only takes effect _after_ the
-            //first call to createIndex.
-            try {
-                Linker linker = Linker.nativeLinker();
-                String putenv = IS_WINDOWS ? "_putenv" : "putenv";
-                MethodHandle PUT_ENV = linker.downcallHandle(linker.defaultLookup().find(putenv).get(),
-                                FunctionDescriptor.of(C_INT, C_POINTER));
+        try {
+            Linker linker = Linker.nativeLinker();
+            String putenv = IS_WINDOWS ? "_putenv" : "putenv";
+            PUT_ENV = linker.downcallHandle(linker.defaultLookup().find(putenv).get(),
+                            FunctionDescriptor.of(C_INT, C_POINTER));
+            if (!CRASH_RECOVERY) {
+                //this is an hack - needed because clang_toggleCrashRecovery only takes effect _after_ the
+                //first call to createIndex.
                 int res = (int) PUT_ENV.invokeExact((MemorySegment)disableCrashRecovery);
-            } catch (Throwable ex) {
-                throw new ExceptionInInitializerError(ex);
             }
+        } catch (Throwable ex) {
+            throw new ExceptionInInitializerError(ex);
         }
     }
 
+    /**
+     * Disables the validation of the AST files loaded by {@link Index#load(java.nio.file.Path)}, for the
+     * whole process. Only meant to be used by a parse cache, whose AST files have already been validated using
+     * content hashes: clang would otherwise reject them as soon as the timestamp of one of their input files
+     * changes. Precompiled headers which are reparsed should use {@code -fno-validate-pch} instead.
+     */
+    public static synchronized void disablePCHValidation() {
+        if (pchValidationDisabled) {
+            return;
+        }
+        try {
+            int res = (int) PUT_ENV.invokeExact((MemorySegment)disablePCHValidation);
+        } catch (Throwable ex) {
+            throw new AssertionError(ex);
+        }
+        pchValidationDisabled = true;
+    }
+
     public static Index createIndex(boolean local) {
         Index index = new Index(Index_h.clang_createIndex(local ? 1 : 0, 0));
         if (DEBUG) {
@@ -80,14 +104,18 @@ public class LibClang {
         return str;
     }
 
+    private final static ThreadLocal<SegmentAllocator> STRING_ALLOCATORS = ThreadLocal.withInitial(() ->
+            SegmentAllocator.prefixAllocator(Arena.ofAuto().allocate(CXString.sizeof(), 8)));
+
     /**
      * This is an allocator for temporary CXString structs. CXStrToString needs to save the CXString somewhere,
      * so that we can extract a Java string out of it. Once that's done, we can dispose the CXString, and the
-     * associated segment. Since jextract is single-threaded, we can use a prefix allocator, to speed up string
-     * conversion. The size of the prefix segment is set to 256, which should be enough to hold a CXString.
+     * associated segment. Since libclang entities are confined to the thread that created them, we can use
+     * a per-thread prefix allocator, to speed up string conversion. The size of the prefix segment is set
+     * to the size of a CXString.
      */
-    public final static SegmentAllocator STRING_ALLOCATOR = SegmentAllocator.prefixAllocator(
-            Arena.ofAuto().allocate(CXString.sizeof(), 8));
+    public final static SegmentAllocator STRING_ALLOCATOR = (size, align) ->
+            STRING_ALLOCATORS.get().allocate(size, align);
 
     public static String version() {
         var clangVersion = Index_h.clang_getClangVersion(STRING_ALLOCATOR);
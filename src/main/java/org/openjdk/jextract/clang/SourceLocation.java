@@ -27,6 +27,8 @@ package org.openjdk.jextract.clang;
 
 import java.lang.foreign.Arena;
 import java.lang.foreign.MemorySegment;
+import java.lang.foreign.SegmentAllocator;
+import org.openjdk.jextract.clang.libclang.CXSourceLocation;
 import org.openjdk.jextract.clang.libclang.Index_h;
 
 import java.nio.file.Path;
@@ -52,23 +54,65 @@ public class SourceLocation extends ClangDisposable.Owned {
                  MemorySegment line, MemorySegment column, MemorySegment offset);
     }
 
-    @SuppressWarnings("unchecked")
     private Location getLocation(LocationFactory fn) {
-        try (var arena = Arena.ofConfined()) {
-             MemorySegment file = arena.allocate(C_POINTER);
-             MemorySegment line = arena.allocate(C_INT);
-             MemorySegment col = arena.allocate(C_INT);
-             MemorySegment offset = arena.allocate(C_INT);
-
-            fn.get(loc, file, line, col, offset);
-            MemorySegment fname = file.get(C_POINTER, 0);
-            String str = fname.equals(MemorySegment.NULL) ?  null : getFileName(fname);
-
-            return new Location(str, line.get(C_INT, 0),
-                col.get(C_INT, 0), offset.get(C_INT, 0));
+        Scratch scratch = SCRATCH.get();
+        fn.get(loc, scratch.file, scratch.line, scratch.column, scratch.offset);
+        MemorySegment fname = scratch.file.get(C_POINTER, 0);
+        String str = fname.equals(MemorySegment.NULL) ?  null : getFileName(fname);
+
+        return new Location(str, scratch.line.get(C_INT, 0),
+            scratch.column.get(C_INT, 0), scratch.offset.get(C_INT, 0));
+    }
+
+    // same as comparing against clang_getNullLocation with clang_equalLocations, without the downcalls
+    static boolean isNull(MemorySegment loc) {
+        return loc.get(C_POINTER, 0).address() == 0 &&
+                loc.get(C_POINTER, C_POINTER.byteSize()).address() == 0 &&
+                CXSourceLocation.int_data$get(loc) == 0;
+    }
+
+    /**
+     * {@return the file location of the given cursor, or {@code null} if the cursor has no location}
+     * The cursor location, and the out-parameters of clang_getFileLocation, are stored in scratch segments,
+     * so no native memory is allocated.
+     */
+    static FileLocation fileLocation(MemorySegment cursor, TranslationUnit tu) {
+        Scratch scratch = SCRATCH.get();
+        MemorySegment loc = Index_h.clang_getCursorLocation(scratch.locationAllocator, cursor);
+        if (isNull(loc)) {
+            return null;
         }
+        Index_h.clang_getFileLocation(loc, scratch.file, scratch.line, scratch.column, scratch.offset);
+        return new FileLocation(tu, tu.fileId(scratch.file.get(C_POINTER, 0)),
+                scratch.line.get(C_INT, 0), scratch.column.get(C_INT, 0));
     }
 
+    /*
+     * Scratch segments for a source location, and for the out-parameters of the clang_getXYZLocation
+     * functions. Libclang entities are confined to the thread that created them, and none of the functions
+     * using these segments calls back into Java, so a single set of segments per thread is enough.
+     */
+    private static final class Scratch {
+        final MemorySegment location;
+        final SegmentAllocator locationAllocator;
+        final MemorySegment file;
+        final MemorySegment line;
+        final MemorySegment column;
+        final MemorySegment offset;
+
+        Scratch() {
+            Arena arena = Arena.ofAuto();
+            location = arena.allocate(CXSourceLocation.$LAYOUT());
+            locationAllocator = SegmentAllocator.prefixAllocator(location);
+            file = arena.allocate(C_POINTER);
+            line = arena.allocate(C_INT);
+            column = arena.allocate(C_INT);
+            offset = arena.allocate(C_INT);
+        }
+    }
+
+    private static final ThreadLocal<Scratch> SCRATCH = ThreadLocal.withInitial(Scratch::new);
+
     private static String getFileName(MemorySegment fname) {
         var filename = Index_h.clang_getFileName(STRING_ALLOCATOR, fname);
         return LibClang.CXStrToString(filename);
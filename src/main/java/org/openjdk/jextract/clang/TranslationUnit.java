@@ -30,12 +30,17 @@ import java.lang.foreign.Arena;
 import java.lang.foreign.MemorySegment;
 import java.lang.foreign.MemoryLayout;
 import java.lang.foreign.SegmentAllocator;
+import org.openjdk.jextract.clang.libclang.CXInclusionVisitor;
 import org.openjdk.jextract.clang.libclang.CXToken;
 import org.openjdk.jextract.clang.libclang.Index_h;
 import org.openjdk.jextract.clang.libclang.CXUnsavedFile;
 
 import java.io.IOException;
 import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.function.Consumer;
 
@@ -46,6 +51,15 @@ import static org.openjdk.jextract.clang.libclang.Index_h.C_POINTER;
 public class TranslationUnit extends ClangDisposable {
     private static final int MAX_RETRIES = 10;
 
+    /**
+     * The file id of locations that are not in a file (see {@link FileLocation#file()}).
+     */
+    public static final int NO_FILE = -1;
+
+    // CXFile handles are stable for the lifetime of a translation unit, so file names only need to be looked up once
+    private final Map<Long, Integer> fileIds = new HashMap<>();
+    private final List<Path> filePaths = new ArrayList<>();
+
     TranslationUnit(MemorySegment addr) {
         super(addr, Index_h::clang_disposeTranslationUnit);
     }
@@ -65,6 +79,45 @@ public class TranslationUnit extends ClangDisposable {
         }
     }
 
+    /**
+     * {@return the files included by this translation unit, directly or indirectly, including the main file}
+     */
+    public List<Path> inclusions() {
+        List<String> files = new ArrayList<>();
+        try (Arena arena = Arena.ofConfined()) {
+            // the upcall should not throw, so just collect the file names here
+            MemorySegment visitor = CXInclusionVisitor.allocate((file, stack, len, data) -> {
+                var fileName = Index_h.clang_getFileName(STRING_ALLOCATOR, file);
+                files.add(LibClang.CXStrToString(fileName));
+            }, arena);
+            Index_h.clang_getInclusions(ptr, visitor, MemorySegment.NULL);
+        }
+        return files.stream()
+                .map(Path::of)
+                .toList();
+    }
+
+    int fileId(MemorySegment file) {
+        if (file.equals(MemorySegment.NULL)) {
+            return NO_FILE;
+        }
+        Integer id = fileIds.get(file.address());
+        if (id == null) {
+            String name = LibClang.CXStrToString(Index_h.clang_getFileName(STRING_ALLOCATOR, file));
+            id = filePaths.size();
+            filePaths.add(name.isEmpty() ? null : Path.of(name));
+            fileIds.put(file.address(), id);
+        }
+        return id;
+    }
+
+    /**
+     * {@return the path of the file with the given id, or {@code null} if the id is {@link #NO_FILE}}
+     */
+    public Path filePath(int id) {
+        return id == NO_FILE ? null : filePaths.get(id);
+    }
+
     void processDiagnostics(Consumer<Diagnostic> dh) {
         Objects.requireNonNull(dh);
         int cntDiags = Index_h.clang_getNumDiagnostics(ptr);
@@ -102,6 +155,8 @@ public class TranslationUnit extends ClangDisposable {
             if (code != ErrorCode.Success) {
                 throw new IllegalStateException("Re-parsing failed: " + code);
             }
+            // file handles are not preserved across reparses; paths are kept, as existing locations might refer to them
+            fileIds.clear();
         }
     }
 
@@ -0,0 +1,72 @@
+/*
+ *  Copyright (c) 2023, Oracle and/or its affiliates. All rights reserved.
+ *  DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ *  This code is free software; you can redistribute it and/or modify it
+ *  under the terms of the GNU General Public License version 2 only, as
+ *  published by the Free Software Foundation.  Oracle designates this
+ *  particular file as subject to the "Classpath" exception as provided
+ *  by Oracle in the LICENSE file that accompanied this code.
+ *
+ *  This code is distributed in the hope that it will be useful, but WITHOUT
+ *  ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ *  FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ *  version 2 for more details (a copy is included in the LICENSE file that
+ *  accompanied this code).
+ *
+ *  You should have received a copy of the GNU General Public License version
+ *  2 along with this work; if not, write to the Free Software Foundation,
+ *  Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ *   Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ *  or visit www.oracle.com if you need additional information or have any
+ *  questions.
+ */
+
+// Generated by jextract
+
+package org.openjdk.jextract.clang.libclang;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+import java.lang.foreign.*;
+import static java.lang.foreign.ValueLayout.*;
+
+/**
+ * {@snippet lang=c :
+ * void (*CXInclusionVisitor)(CXFile included_file,CXSourceLocation* inclusion_stack,unsigned int include_len,CXClientData client_data);
+ * }
+ */
+public interface CXInclusionVisitor {
+
+    void apply(MemorySegment included_file, MemorySegment inclusion_stack, int include_len, MemorySegment client_data);
+
+    FunctionDescriptor $DESC = FunctionDescriptor.ofVoid(
+        Index_h.C_POINTER,
+        Index_h.C_POINTER,
+        Index_h.C_INT,
+        Index_h.C_POINTER
+    );
+
+    MethodHandle UP$MH = Index_h.upcallHandle(CXInclusionVisitor.class, "apply", $DESC);
+
+    static MemorySegment allocate(CXInclusionVisitor fi, Arena scope) {
+        return Linker.nativeLinker().upcallStub(UP$MH.bindTo(fi), $DESC, scope);
+    }
+
+    MethodHandle DOWN$MH = Linker.nativeLinker().downcallHandle($DESC);
+
+    static CXInclusionVisitor ofAddress(MemorySegment addr, Arena arena) {
+        MemorySegment symbol = addr.reinterpret(arena, null);
+        return (MemorySegment _included_file, MemorySegment _inclusion_stack, int _include_len, MemorySegment _client_data) -> {
+            try {
+                DOWN$MH.invokeExact(symbol, _included_file, _inclusion_stack, _include_len, _client_data);
+            } catch (Throwable ex$) {
+                throw new AssertionError("should not reach here", ex$);
+            }
+        };
+    }
+}
+
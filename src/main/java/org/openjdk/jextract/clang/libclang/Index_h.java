@@ -1294,6 +1294,35 @@ public class Index_h {
            throw new AssertionError("should not reach here", ex$);
         }
     }
+    /**
+     * {@snippet lang=c :
+     * enum CXErrorCode clang_createTranslationUnit2(CXIndex CIdx, char* ast_filename, CXTranslationUnit* out_TU);
+     * }
+     */
+    public static MethodHandle clang_createTranslationUnit2$MH() {
+        class Holder {
+            static final FunctionDescriptor DESC = FunctionDescriptor.of(
+                Index_h.C_INT,
+                Index_h.C_POINTER,
+                Index_h.C_POINTER,
+                Index_h.C_POINTER
+            );
+
+            static final MethodHandle MH = Linker.nativeLinker().downcallHandle(
+                    Index_h.findOrThrow("clang_createTranslationUnit2"),
+                    DESC);
+        }
+        return Holder.MH;
+    }
+
+    public static int clang_createTranslationUnit2(MemorySegment CIdx, MemorySegment ast_filename, MemorySegment out_TU) {
+        var mh$ = clang_createTranslationUnit2$MH();
+        try {
+            return (int) mh$.invokeExact(CIdx, ast_filename, out_TU);
+        } catch (Throwable ex$) {
+           throw new AssertionError("should not reach here", ex$);
+        }
+    }
     /**
      * {@snippet lang=c :
      * enum CXErrorCode clang_parseTranslationUnit2(CXIndex CIdx, char* source_filename, char** command_line_args, int num_command_line_args, struct CXUnsavedFile* unsaved_files, unsigned int num_unsaved_files, unsigned int options, CXTranslationUnit* out_TU);
@@ -7991,6 +8020,34 @@ public class Index_h {
            throw new AssertionError("should not reach here", ex$);
         }
     }
+    /**
+     * {@snippet lang=c :
+     * void clang_getInclusions(CXTranslationUnit tu, CXInclusionVisitor visitor, CXClientData client_data);
+     * }
+     */
+    public static MethodHandle clang_getInclusions$MH() {
+        class Holder {
+            static final FunctionDescriptor DESC = FunctionDescriptor.ofVoid(
+                Index_h.C_POINTER,
+                Index_h.C_POINTER,
+                Index_h.C_POINTER
+            );
+
+            static final MethodHandle MH = Linker.nativeLinker().downcallHandle(
+                    Index_h.findOrThrow("clang_getInclusions"),
+                    DESC);
+        }
+        return Holder.MH;
+    }
+
+    public static void clang_getInclusions(MemorySegment tu, MemorySegment visitor, MemorySegment client_data) {
+        var mh$ = clang_getInclusions$MH();
+        try {
+            mh$.invokeExact(tu, visitor, client_data);
+        } catch (Throwable ex$) {
+           throw new AssertionError("should not reach here", ex$);
+        }
+    }
     /**
      * {@snippet lang=c :
      * CXEvalResult clang_Cursor_Evaluate(CXCursor C);
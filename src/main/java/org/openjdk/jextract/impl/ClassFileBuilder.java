@@ -0,0 +1,241 @@
+/*
+ * Copyright (c) 2024, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package org.openjdk.jextract.impl;
+
+import org.openjdk.jextract.Declaration.Constant;
+import org.openjdk.jextract.Type;
+import org.openjdk.jextract.Type.Array;
+import org.openjdk.jextract.Type.Declared;
+import org.openjdk.jextract.Type.Delegated;
+import org.openjdk.jextract.Type.Function;
+import org.openjdk.jextract.Type.Primitive;
+import org.openjdk.jextract.impl.DeclarationImpl.JavaName;
+
+import javax.tools.JavaFileObject;
+import java.lang.classfile.CodeBuilder;
+import java.lang.constant.ClassDesc;
+import java.lang.constant.ConstantDescs;
+import java.lang.constant.MethodTypeDesc;
+import java.lang.foreign.AddressLayout;
+import java.lang.foreign.Arena;
+import java.lang.foreign.FunctionDescriptor;
+import java.lang.foreign.GroupLayout;
+import java.lang.foreign.Linker;
+import java.lang.foreign.MemoryLayout;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.PaddingLayout;
+import java.lang.foreign.SegmentAllocator;
+import java.lang.foreign.SequenceLayout;
+import java.lang.foreign.StructLayout;
+import java.lang.foreign.UnionLayout;
+import java.util.List;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
+/**
+ * Superclass for class file generator classes. The code emitted for layouts and function descriptors is
+ * equivalent to the code javac generates for the expressions built by {@link ClassSourceBuilder}.
+ */
+abstract class ClassFileBuilder {
+    static final ClassDesc CD_AddressLayout = desc(AddressLayout.class);
+    static final ClassDesc CD_Arena = desc(Arena.class);
+    static final ClassDesc CD_Consumer = desc(Consumer.class);
+    static final ClassDesc CD_FunctionDescriptor = desc(FunctionDescriptor.class);
+    static final ClassDesc CD_GroupLayout = desc(GroupLayout.class);
+    static final ClassDesc CD_Linker = desc(Linker.class);
+    static final ClassDesc CD_LinkerOption = desc(Linker.Option.class);
+    static final ClassDesc CD_MemoryLayout = desc(MemoryLayout.class);
+    static final ClassDesc CD_MemorySegment = desc(MemorySegment.class);
+    static final ClassDesc CD_PaddingLayout = desc(PaddingLayout.class);
+    static final ClassDesc CD_SegmentAllocator = desc(SegmentAllocator.class);
+    static final ClassDesc CD_SequenceLayout = desc(SequenceLayout.class);
+    static final ClassDesc CD_StructLayout = desc(StructLayout.class);
+    static final ClassDesc CD_UnionLayout = desc(UnionLayout.class);
+
+    private final String packageName;
+    private final ClassDesc runtimeHelper;
+
+    ClassFileBuilder(String packageName, String runtimeHelperName) {
+        this.packageName = packageName;
+        this.runtimeHelper = ClassDesc.of(packageName, runtimeHelperName);
+    }
+
+    final ClassDesc runtimeHelper() {
+        return runtimeHelper;
+    }
+
+    // for a (nested) class 'A.B.C' of the package, the binary name is 'A$B$C'
+    final ClassDesc classDesc(String binaryName) {
+        return ClassDesc.of(packageName, binaryName);
+    }
+
+    final JavaFileObject toFile(ClassDesc classDesc, byte[] bytes) {
+        return Utils.fileFromBytes(packageName, classDesc.displayName(), bytes);
+    }
+
+    static ClassDesc desc(Class<?> c) {
+        return c.describeConstable().orElseThrow();
+    }
+
+    // Layouts, see ClassSourceBuilder::layoutString. The static type of the layout is returned, so that
+    // methods can be invoked, and overloads selected, as javac does.
+
+    final ClassDesc emitLayout(CodeBuilder code, Type type) {
+        return emitLayout(code, type, Long.MAX_VALUE);
+    }
+
+    final ClassDesc emitLayout(CodeBuilder code, Type type, long align) {
+        return switch (type) {
+            case Primitive p -> emitPrimitiveLayout(code, p, align);
+            case Declared d when Utils.isEnum(d) -> emitLayout(code, ((Constant)d.tree().members().get(0)).type(), align);
+            case Declared d when Utils.isStructOrUnion(d) -> {
+                String binaryName = JavaName.getFullNameOrThrow(d.tree()).replace('.', '$');
+                code.invokestatic(classDesc(binaryName), "$LAYOUT", MethodTypeDesc.of(CD_GroupLayout));
+                yield CD_GroupLayout;
+            }
+            case Delegated d when d.kind() == Delegated.Kind.POINTER -> emitHelperLayout(code, "C_POINTER", CD_AddressLayout);
+            case Delegated d -> emitLayout(code, d.type(), align);
+            case Function _ -> emitHelperLayout(code, "C_POINTER", CD_AddressLayout);
+            case Array a -> {
+                code.constantInstruction(a.elementCount().orElse(0L));
+                emitLayout(code, a.elementType(), align);
+                code.invokestatic(CD_MemoryLayout, "sequenceLayout",
+                        MethodTypeDesc.of(CD_SequenceLayout, ConstantDescs.CD_long, CD_MemoryLayout), true);
+                yield CD_SequenceLayout;
+            }
+            default -> throw new UnsupportedOperationException();
+        };
+    }
+
+    final ClassDesc emitPaddingLayout(CodeBuilder code, long size) {
+        code.constantInstruction(size);
+        code.invokestatic(CD_MemoryLayout, "paddingLayout", MethodTypeDesc.of(CD_PaddingLayout, ConstantDescs.CD_long), true);
+        return CD_PaddingLayout;
+    }
+
+    // emits a call to MemoryLayout::structLayout or MemoryLayout::unionLayout, followed by a call to withName
+    final <T> void emitGroupLayout(CodeBuilder code, boolean isStruct, List<T> members,
+                                   BiConsumer<CodeBuilder, T> memberEmitter, String name) {
+        ClassDesc layoutType = isStruct ? CD_StructLayout : CD_UnionLayout;
+        emitArray(code, CD_MemoryLayout, members, memberEmitter);
+        code.invokestatic(CD_MemoryLayout, isStruct ? "structLayout" : "unionLayout",
+                MethodTypeDesc.of(layoutType, CD_MemoryLayout.arrayType()), true);
+        emitWithName(code, layoutType, name);
+    }
+
+    final void emitWithName(CodeBuilder code, ClassDesc layoutType, String name) {
+        code.constantInstruction(name);
+        code.invokeinterface(layoutType, "withName", MethodTypeDesc.of(layoutType, ConstantDescs.CD_String));
+    }
+
+    // see ClassSourceBuilder::functionDescriptorString
+    final void emitFunctionDescriptor(CodeBuilder code, Type.Function functionType) {
+        boolean isVoid = Utils.methodTypeFor(functionType).returnType().equals(void.class);
+        if (!isVoid) {
+            emitLayout(code, functionType.returnType());
+        }
+        emitArray(code, CD_MemoryLayout, functionType.argumentTypes(), this::emitLayout);
+        if (isVoid) {
+            code.invokestatic(CD_FunctionDescriptor, "ofVoid",
+                    MethodTypeDesc.of(CD_FunctionDescriptor, CD_MemoryLayout.arrayType()), true);
+        } else {
+            code.invokestatic(CD_FunctionDescriptor, "of",
+                    MethodTypeDesc.of(CD_FunctionDescriptor, CD_MemoryLayout, CD_MemoryLayout.arrayType()), true);
+        }
+    }
+
+    // emits the array passed to a varargs method
+    static <T> void emitArray(CodeBuilder code, ClassDesc componentType, List<T> elements,
+                              BiConsumer<CodeBuilder, T> elementEmitter) {
+        code.constantInstruction(elements.size());
+        code.anewarray(componentType);
+        for (int i = 0; i < elements.size(); i++) {
+            code.dup();
+            code.constantInstruction(i);
+            elementEmitter.accept(code, elements.get(i));
+            code.aastore();
+        }
+    }
+
+    static void emitLoad(CodeBuilder code, ClassDesc type, int slot) {
+        switch (type.descriptorString()) {
+            case "Z", "B", "C", "S", "I" -> code.iload(slot);
+            case "J" -> code.lload(slot);
+            case "F" -> code.fload(slot);
+            case "D" -> code.dload(slot);
+            default -> code.aload(slot);
+        }
+    }
+
+    static void emitReturn(CodeBuilder code, ClassDesc type) {
+        switch (type.descriptorString()) {
+            case "V" -> code.return_();
+            case "Z", "B", "C", "S", "I" -> code.ireturn();
+            case "J" -> code.lreturn();
+            case "F" -> code.freturn();
+            case "D" -> code.dreturn();
+            default -> code.areturn();
+        }
+    }
+
+    // private generation
+
+    private ClassDesc emitPrimitiveLayout(CodeBuilder code, Primitive primitiveType, long align) {
+        return switch (primitiveType.kind()) {
+            case Bool -> emitHelperLayout(code, "C_BOOL", valueLayoutType(primitiveType));
+            case Char -> emitHelperLayout(code, "C_CHAR", valueLayoutType(primitiveType));
+            case Short -> emitHelperLayout(code, "C_SHORT", valueLayoutType(primitiveType), 2, align);
+            case Int -> emitHelperLayout(code, "C_INT", valueLayoutType(primitiveType), 4, align);
+            case Long -> emitHelperLayout(code, "C_LONG", valueLayoutType(primitiveType), TypeImpl.IS_WINDOWS ? 4 : 8, align);
+            case LongLong -> emitHelperLayout(code, "C_LONG_LONG", valueLayoutType(primitiveType), 8, align);
+            case Float -> emitHelperLayout(code, "C_FLOAT", valueLayoutType(primitiveType), 4, align);
+            case Double -> emitHelperLayout(code, "C_DOUBLE", valueLayoutType(primitiveType), 8, align);
+            case LongDouble -> TypeImpl.IS_WINDOWS ?
+                    emitHelperLayout(code, "C_LONG_DOUBLE", valueLayoutType(primitiveType), 8, align) :
+                    emitPaddingLayout(code, 8);
+            case HalfFloat, Char16, WChar -> emitPaddingLayout(code, 2); // unsupported
+            case Float128, Int128 -> emitPaddingLayout(code, 16); // unsupported
+            default -> throw new UnsupportedOperationException(primitiveType.toString());
+        };
+    }
+
+    private static ClassDesc valueLayoutType(Primitive primitiveType) {
+        return desc(Utils.CARRIERS_TO_LAYOUT_CARRIERS.get(Utils.carrierFor(primitiveType)));
+    }
+
+    private ClassDesc emitHelperLayout(CodeBuilder code, String fieldName, ClassDesc layoutType) {
+        code.getstatic(runtimeHelper, fieldName, layoutType);
+        return layoutType;
+    }
+
+    private ClassDesc emitHelperLayout(CodeBuilder code, String fieldName, ClassDesc layoutType, long align, long expectedAlign) {
+        emitHelperLayout(code, fieldName, layoutType);
+        if (align > expectedAlign) {
+            code.constantInstruction(expectedAlign);
+            code.invokeinterface(layoutType, "withByteAlignment", MethodTypeDesc.of(layoutType, ConstantDescs.CD_long));
+        }
+        return layoutType;
+    }
+}
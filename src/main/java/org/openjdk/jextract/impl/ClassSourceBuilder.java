@@ -32,6 +32,7 @@ import org.openjdk.jextract.Type.Declared;
 import org.openjdk.jextract.Type.Delegated;
 import org.openjdk.jextract.Type.Function;
 import org.openjdk.jextract.Type.Primitive;
+import org.openjdk.jextract.impl.DeclarationImpl.Critical;
 import org.openjdk.jextract.impl.DeclarationImpl.DeclarationString;
 import org.openjdk.jextract.impl.DeclarationImpl.JavaName;
 
@@ -270,6 +271,14 @@ abstract class ClassSourceBuilder {
         return declString.lines().collect(Collectors.joining("\n * ", " * ", ""));
     }
 
+    /**
+     * Returns the name of a class holding the descriptor and, unless the function is variadic, the downcall
+     * method handle of the given function, or {@code null} if they are held by a local class of the wrapper.
+     */
+    String downcallHolder(String javaName, String nativeName, Declaration.Function decl) {
+        return null;
+    }
+
     // private generation
 
     protected void emitFunctionWrapper(String mods, String javaName, String nativeName, boolean needsAllocator,
@@ -290,23 +299,39 @@ abstract class ClassSourceBuilder {
         String traceArgList = paramList.isEmpty() ?
                 STR."\"\{nativeName}\"" :
                 STR."\"\{nativeName}\", \{paramList}";
+        String holder = downcallHolder(javaName, nativeName, decl);
         incrAlign();
         if (!isVarArg) {
             emitDocComment(decl);
-            appendLines(STR."""
-                \{mods} MethodHandle \{getterName}() {
-                    class Holder {
-                        static final FunctionDescriptor DESC = \{functionDescriptorString(2, decl.type())};
+            if (holder != null) {
+                appendLines(STR."""
+                    \{mods} MethodHandle \{getterName}() {
+                        return \{holder}.MH;
+                    }
 
-                        static final MethodHandle MH = Linker.nativeLinker().downcallHandle(
-                                \{runtimeHelperName()}.findOrThrow("\{nativeName}"),
-                                DESC);
+                    """);
+            } else {
+                String linkerOptions = Critical.get(decl)
+                        .map(allowHeapAccess -> STR.", Linker.Option.critical(\{allowHeapAccess})")
+                        .orElse("");
+                appendLines(STR."""
+                    \{mods} MethodHandle \{getterName}() {
+                        class Holder {
+                            static final FunctionDescriptor DESC = \{functionDescriptorString(2, decl.type())};
+
+                            static final MethodHandle MH = Linker.nativeLinker().downcallHandle(
+                                    \{runtimeHelperName()}.findOrThrow("\{nativeName}"),
+                                    DESC\{linkerOptions});
+                        }
+                        return Holder.MH;
                     }
-                    return Holder.MH;
-                }
 
+                    """);
+            }
+            appendLines(STR."""
                 public static \{retType} \{javaName}(\{HeaderFileBuilder.paramExprs(declType, finalParamNames, isVarArg)}) {
                     var mh$ = \{getterName}();
+                    long start$ = \{runtimeHelperName()}.STATS_DOWNCALLS ? System.nanoTime() : 0L;
                     try {
                         if (TRACE_DOWNCALLS) {
                             traceDowncall(\{traceArgList});
@@ -314,6 +339,10 @@ abstract class ClassSourceBuilder {
                         \{returnExpr}mh$.invokeExact(\{paramList});
                     } catch (Throwable ex$) {
                        throw new AssertionError("should not reach here", ex$);
+                    } finally {
+                        if (\{runtimeHelperName()}.STATS_DOWNCALLS) {
+                            \{runtimeHelperName()}.recordDowncall("\{nativeName}", start$);
+                        }
                     }
                 }
                 """);
@@ -328,11 +357,22 @@ abstract class ClassSourceBuilder {
 
                 """);
             emitDocComment(decl);
+            String holderDecl = "";
+            if (holder == null) {
+                holder = "Holder";
+                holderDecl = STR."""
+                    class Holder {
+                        static final FunctionDescriptor BASE_DESC = \{functionDescriptorString(2, decl.type())};
+                    }
+                """;
+            }
             appendLines(STR."""
                 public static \{invokerName} \{invokerFactoryName}(MemoryLayout... layouts) {
-                    FunctionDescriptor baseDesc$ = \{functionDescriptorString(2, decl.type())};
-                    var mh$ = \{runtimeHelperName()}.downcallHandleVariadic("\{nativeName}", baseDesc$, layouts);
+                \{holderDecl}\
+                    // linked handles are cached by the runtime helper, per variadic layouts
+                    var mh$ = \{runtimeHelperName()}.downcallHandleVariadic("\{nativeName}", \{holder}.BASE_DESC, layouts);
                     return (\{paramExprs}) -> {
+                        long start$ = \{runtimeHelperName()}.STATS_DOWNCALLS ? System.nanoTime() : 0L;
                         try {
                             if (TRACE_DOWNCALLS) {
                                 traceDowncall(\{traceArgList});
@@ -342,6 +382,10 @@ abstract class ClassSourceBuilder {
                             throw ex$; // rethrow IAE from passing wrong number/type of args
                         } catch (Throwable ex$) {
                            throw new AssertionError("should not reach here", ex$);
+                        } finally {
+                            if (\{runtimeHelperName()}.STATS_DOWNCALLS) {
+                                \{runtimeHelperName()}.recordDowncall("\{nativeName}", start$);
+                            }
                         }
                     };
                 }
@@ -28,7 +28,8 @@ import org.openjdk.jextract.Declaration;
 
 import java.io.PrintWriter;
 import java.util.List;
-import java.util.stream.Stream;
+import java.util.Map;
+import java.util.function.Consumer;
 import javax.tools.JavaFileObject;
 
 public final class CodeGenerator {
@@ -37,12 +38,30 @@ public final class CodeGenerator {
     public static JavaFileObject[] generate(Declaration.Scoped decl, String headerName,
                                             String targetPkg, IncludeHelper includeHelper,
                                             List<String> libNames) {
-        var transformedDecl = Stream.of(decl)
-                .map(new IncludeFilter(includeHelper)::scan)
-                .map(new DuplicateFilter()::scan)
-                .map(new NameMangler(headerName)::scan)
-                .map(new UnsupportedFilter()::scan)
-                .findFirst().get();
-        return OutputFactory.generateWrapped(transformedDecl, targetPkg, libNames);
+        return generate(decl, headerName, targetPkg, includeHelper, libNames, Map.of(), false, null);
+    }
+
+    /**
+     * Generates the bindings for the given declaration. If {@code classFiles} is set, the classes that
+     * are trivial enough are emitted directly as class files; all the other classes are emitted as
+     * sources, which are compiled by {@link Writer}. If {@code sink} is not null, the generated files
+     * are passed to it as soon as they are generated, except for the header classes, which are returned.
+     * Functions named in {@code criticalFunctions} are linked as critical; the value associated with
+     * a function name tells whether the function can access heap segments.
+     */
+    public static JavaFileObject[] generate(Declaration.Scoped decl, String headerName,
+                                            String targetPkg, IncludeHelper includeHelper,
+                                            List<String> libNames, Map<String, Boolean> criticalFunctions,
+                                            boolean classFiles, Consumer<JavaFileObject> sink) {
+        PassManager passManager = new PassManager()
+                .add(new IncludeFilter(includeHelper))
+                .add(new DuplicateFilter())
+                .add(new NameMangler(headerName))
+                .add(new UnsupportedFilter());
+        if (!criticalFunctions.isEmpty()) {
+            passManager.add(new CriticalFunctionMarker(criticalFunctions));
+        }
+        var transformedDecl = passManager.run(decl);
+        return OutputFactory.generateWrapped(transformedDecl, targetPkg, libNames, classFiles, sink);
     }
 }
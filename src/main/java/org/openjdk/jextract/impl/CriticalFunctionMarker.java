@@ -0,0 +1,76 @@
+/*
+ *  Copyright (c) 2024, Oracle and/or its affiliates. All rights reserved.
+ *  DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ *  This code is free software; you can redistribute it and/or modify it
+ *  under the terms of the GNU General Public License version 2 only, as
+ *  published by the Free Software Foundation.  Oracle designates this
+ *  particular file as subject to the "Classpath" exception as provided
+ *  by Oracle in the LICENSE file that accompanied this code.
+ *
+ *  This code is distributed in the hope that it will be useful, but WITHOUT
+ *  ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ *  FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ *  version 2 for more details (a copy is included in the LICENSE file that
+ *  accompanied this code).
+ *
+ *  You should have received a copy of the GNU General Public License version
+ *  2 along with this work; if not, write to the Free Software Foundation,
+ *  Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ *   Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ *  or visit www.oracle.com if you need additional information or have any
+ *  questions.
+ *
+ */
+package org.openjdk.jextract.impl;
+
+import org.openjdk.jextract.Declaration;
+import org.openjdk.jextract.impl.DeclarationImpl.Critical;
+
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.logging.Logger;
+
+/*
+ * This pass marks the functions which should be linked as critical (as per the --critical-function and
+ * --critical-function-heap options). Variadic functions are not supported, as their downcall handles are
+ * linked on demand, for each set of variadic argument layouts. A warning is logged for each requested
+ * function which is not found among the (included) toplevel functions.
+ */
+final class CriticalFunctionMarker implements PassManager.Pass {
+    private static final Logger LOGGER = Logger.getLogger(CriticalFunctionMarker.class.getSimpleName());
+
+    // function name -> whether the function can access heap segments
+    private final Map<String, Boolean> criticalFunctions;
+    private final Set<String> found = new HashSet<>();
+
+    CriticalFunctionMarker(Map<String, Boolean> criticalFunctions) {
+        this.criticalFunctions = criticalFunctions;
+    }
+
+    @Override
+    public void visitToplevel(Declaration decl) {
+        if (decl instanceof Declaration.Function function) {
+            Boolean allowHeapAccess = criticalFunctions.get(function.name());
+            if (allowHeapAccess == null) {
+                return;
+            }
+            found.add(function.name());
+            if (function.type().varargs()) {
+                LOGGER.warning(STR."Variadic function \{function.name()} cannot be linked as critical");
+            } else {
+                Critical.with(function, allowHeapAccess);
+            }
+        }
+    }
+
+    @Override
+    public void end() {
+        criticalFunctions.keySet().stream()
+                .filter(name -> !found.contains(name))
+                .sorted()
+                .forEach(name -> LOGGER.warning(STR."Critical function \{name} not found"));
+    }
+}
@@ -26,6 +26,7 @@
 
 package org.openjdk.jextract.impl;
 
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
@@ -40,9 +41,26 @@ import org.openjdk.jextract.Type;
 
 public abstract class DeclarationImpl implements Declaration {
 
+    /*
+     * Well-known attributes are stored in fixed slots, indexed as per this list; other attributes are stored
+     * in an overflow map. Both are only allocated when the first attribute of their kind is added.
+     */
+    private static final List<Class<? extends Record>> SLOT_CLASSES = List.of(
+            Skip.class, JavaName.class, JavaFunctionalInterfaceName.class, ClangSizeOf.class,
+            ClangAlignOf.class, ClangOffsetOf.class, NestedDeclarations.class, DeclarationString.class,
+            AnonymousStruct.class, EnumConstant.class);
+
+    private static final ClassValue<Integer> SLOTS = new ClassValue<>() {
+        @Override
+        protected Integer computeValue(Class<?> type) {
+            return SLOT_CLASSES.indexOf(type);
+        }
+    };
+
     private final String name;
     private final Position pos;
-    private final Map<Class<?>, Record> attributes = new HashMap<>();
+    private Record[] slots;
+    private Map<Class<?>, Record> overflow;
 
     DeclarationImpl(String name, Position pos) {
         this.name = name;
@@ -62,39 +80,70 @@ public abstract class DeclarationImpl implements Declaration {
         return pos;
     }
 
+    /*
+     * Declarations are mutable (attributes are added by the passes that run after parsing), so a declaration
+     * is only equal to itself. The hash code only depends on the name, so that it does not change when
+     * attributes are added (e.g. while the declaration is in a hash set).
+     */
     @Override
-    public boolean equals(Object o) {
-        if (this == o) {
-            return true;
-        }
-        return o instanceof Declaration decl &&
-                name().equals(decl.name()) &&
-                attributes.equals(decl.attributes());
+    public final boolean equals(Object o) {
+        return this == o;
     }
 
     @Override
-    public int hashCode() {
-        return Objects.hash(name, attributes);
+    public final int hashCode() {
+        return name.hashCode();
     }
 
     @Override
     public Collection<Record> attributes() {
-        return attributes.values();
+        List<Record> attributes = new ArrayList<>();
+        if (slots != null) {
+            for (Record attr : slots) {
+                if (attr != null) {
+                    attributes.add(attr);
+                }
+            }
+        }
+        if (overflow != null) {
+            attributes.addAll(overflow.values());
+        }
+        return attributes;
     }
 
     @Override
     @SuppressWarnings("unchecked")
     public <R extends Record> Optional<R> getAttribute(Class<R> attributeClass) {
-        return Optional.ofNullable((R)attributes.get(attributeClass));
+        return Optional.ofNullable((R)get(attributeClass));
+    }
+
+    private Record get(Class<?> attributeClass) {
+        int slot = SLOTS.get(attributeClass);
+        if (slot >= 0) {
+            return slots != null ? slots[slot] : null;
+        } else {
+            return overflow != null ? overflow.get(attributeClass) : null;
+        }
     }
 
     @Override
     public <R extends Record> void addAttribute(R attribute) {
-        Record attr = attributes.get(attribute.getClass());
+        Record attr = get(attribute.getClass());
         if (attr != null && !attr.equals(attribute)) {
             throw new IllegalStateException("Attribute already exists: " + attribute.getClass().getSimpleName());
         }
-        attributes.put(attribute.getClass(), attribute);
+        int slot = SLOTS.get(attribute.getClass());
+        if (slot >= 0) {
+            if (slots == null) {
+                slots = new Record[SLOT_CLASSES.size()];
+            }
+            slots[slot] = attribute;
+        } else {
+            if (overflow == null) {
+                overflow = new HashMap<>();
+            }
+            overflow.put(attribute.getClass(), attribute);
+        }
     }
 
     public static final class TypedefImpl extends DeclarationImpl implements Declaration.Typedef {
@@ -114,19 +163,6 @@ public abstract class DeclarationImpl implements Declaration {
         public Type type() {
             return type;
         }
-
-        @Override
-        public boolean equals(Object o) {
-            if (this == o) return true;
-            return o instanceof Declaration.Typedef other &&
-                    super.equals(other) &&
-                    type.equals(other.type());
-        }
-
-        @Override
-        public int hashCode() {
-            return Objects.hash(super.hashCode(), type);
-        }
     }
 
     public static class VariableImpl extends DeclarationImpl implements Declaration.Variable {
@@ -154,20 +190,6 @@ public abstract class DeclarationImpl implements Declaration {
         public Type type() {
             return type;
         }
-
-        @Override
-        public boolean equals(Object o) {
-            if (this == o) return true;
-            return o instanceof Declaration.Variable variable &&
-                    super.equals(o) &&
-                    kind == variable.kind() &&
-                    type.equals(variable.type());
-        }
-
-        @Override
-        public int hashCode() {
-            return Objects.hash(super.hashCode(), kind, type);
-        }
     }
 
     public static final class BitfieldImpl extends VariableImpl implements Declaration.Bitfield {
@@ -183,19 +205,6 @@ public abstract class DeclarationImpl implements Declaration {
         public long width() {
             return width;
         }
-
-        @Override
-        public boolean equals(Object o) {
-            if (this == o) return true;
-            return o instanceof Declaration.Bitfield bitfield &&
-                    super.equals(o) &&
-                    width == bitfield.width();
-        }
-
-        @Override
-        public int hashCode() {
-            return Objects.hash(super.hashCode(), width);
-        }
     }
 
     public static final class FunctionImpl extends DeclarationImpl implements Declaration.Function {
@@ -223,31 +232,24 @@ public abstract class DeclarationImpl implements Declaration {
         public Type.Function type() {
             return type;
         }
-
-        @Override
-        public boolean equals(Object o) {
-            if (this == o) return true;
-            return o instanceof Declaration.Function function &&
-                    super.equals(o) &&
-                    params.equals(function.parameters()) &&
-                    type.equals(function.type());
-        }
-
-        @Override
-        public int hashCode() {
-            return Objects.hash(super.hashCode(), params, type);
-        }
     }
 
     public static class ScopedImpl extends DeclarationImpl implements Declaration.Scoped {
 
         private final Scoped.Kind kind;
         private final List<Declaration> declarations;
+        // the type referring to this declaration, shared by all uses of this declaration
+        private final Type.Declared declaredType;
 
         public ScopedImpl(Kind kind, List<Declaration> declarations, String name, Position pos) {
             super(name, pos);
             this.kind = Objects.requireNonNull(kind);
             this.declarations = Objects.requireNonNull(declarations);
+            this.declaredType = new TypeImpl.DeclaredImpl(this);
+        }
+
+        public Type.Declared declaredType() {
+            return declaredType;
         }
 
         @Override
@@ -264,20 +266,6 @@ public abstract class DeclarationImpl implements Declaration {
         public Kind kind() {
             return kind;
         }
-
-        @Override
-        public boolean equals(Object o) {
-            if (this == o) return true;
-            return o instanceof Declaration.Scoped scoped &&
-                    super.equals(o) &&
-                    kind == scoped.kind() &&
-                    declarations.equals(scoped.members());
-        }
-
-        @Override
-        public int hashCode() {
-            return Objects.hash(super.hashCode(), kind, declarations);
-        }
     }
 
     public static final class ConstantImpl extends DeclarationImpl implements Declaration.Constant {
@@ -305,20 +293,6 @@ public abstract class DeclarationImpl implements Declaration {
         public Type type() {
             return type;
         }
-
-        @Override
-        public boolean equals(Object o) {
-            if (this == o) return true;
-            return o instanceof Declaration.Constant constant &&
-                    super.equals(o) &&
-                    value == constant.value() &&
-                    type.equals(constant.type());
-        }
-
-        @Override
-        public int hashCode() {
-            return Objects.hash(super.hashCode(), value, type);
-        }
     }
 
     // attributes
@@ -473,6 +447,20 @@ public abstract class DeclarationImpl implements Declaration {
         }
     }
 
+    /**
+     * An attribute to mark a function which should be linked as critical.
+     */
+    record Critical(boolean allowHeapAccess) {
+        public static void with(Declaration.Function function, boolean allowHeapAccess) {
+            function.addAttribute(new Critical(allowHeapAccess));
+        }
+
+        public static Optional<Boolean> get(Declaration declaration) {
+            return declaration.getAttribute(Critical.class)
+                    .stream().map(Critical::allowHeapAccess).findFirst();
+        }
+    }
+
     record DeclarationString(String declString) {
         public static void with(Declaration declaration, String declString) {
             declaration.addAttribute(new DeclarationString(declString));
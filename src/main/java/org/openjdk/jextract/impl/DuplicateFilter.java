@@ -35,7 +35,7 @@ import java.util.Set;
 /*
  * This visitor filters duplicate top-level variables, constants and functions.
  */
-final class DuplicateFilter implements Declaration.Visitor<Void, Void> {
+final class DuplicateFilter implements Declaration.Visitor<Void, Void>, PassManager.Pass {
     // To detect duplicate Variable and Function declarations.
     private final Set<String> constants = new HashSet<>();
     private final Set<String> variables = new HashSet<>();
@@ -65,12 +65,9 @@ final class DuplicateFilter implements Declaration.Visitor<Void, Void> {
     DuplicateFilter() {
     }
 
-    public Declaration.Scoped scan(Declaration.Scoped header) {
-        // Process all header declarations are collect potential
-        // declarations that will go into transformed HeaderTree
-        // into the this.decls field.
-        header.members().forEach(fieldTree -> fieldTree.accept(this, null));
-        return header;
+    @Override
+    public void visitToplevel(Declaration decl) {
+        decl.accept(this, null);
     }
 
     @Override
@@ -77,6 +77,18 @@ final class FunctionalInterfaceBuilder extends ClassSourceBuilder {
             static MemorySegment allocate(\{className()} fi, Arena scope) {
                 return Linker.nativeLinker().upcallStub(UP$MH.bindTo(fi), $DESC, scope);
             }
+
+            /**
+             * Returns an upcall stub for {@code fi}, reusing a recently allocated stub for the same instance
+             * and arena. {@code fi} is retained by its stub until {@code scope} is closed.
+             */
+            static MemorySegment allocateCached(\{className()} fi, Arena scope) {
+                return \{runtimeHelperName()}.upcallStubCached(fi, UP$MH, $DESC, scope);
+            }
+
+            static \{runtimeHelperName()}.UpcallStubPool<\{className()}> stubPool() {
+                return new \{runtimeHelperName()}.UpcallStubPool<>(UP$MH, $DESC);
+            }
             """);
     }
 
@@ -29,13 +29,17 @@ import java.lang.foreign.MemoryLayout;
 import java.lang.foreign.MemorySegment;
 import org.openjdk.jextract.Declaration;
 import org.openjdk.jextract.Type;
+import org.openjdk.jextract.impl.DeclarationImpl.Critical;
 import org.openjdk.jextract.impl.DeclarationImpl.JavaName;
 
+import javax.tools.JavaFileObject;
+import java.lang.constant.ClassDesc;
 import java.lang.invoke.MethodType;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Objects;
 import java.util.StringJoiner;
+import java.util.function.Function;
 
 /**
  * A helper class to generate header interface class in source form.
@@ -46,8 +50,25 @@ class HeaderFileBuilder extends ClassSourceBuilder {
 
     static final String MEMBER_MODS = "public static";
 
-    HeaderFileBuilder(SourceFileBuilder builder, String className, String superName, String runtimeHelperName) {
+    /**
+     * Adds the classes holding the constants of the wrappers of header classes as class files, rather than
+     * generating them as local classes of the wrappers.
+     */
+    interface HolderClassFiles {
+        /**
+         * Adds a holder class, whose class file is generated by the given function, and returns its name.
+         * @param memberName the name of the wrapper using the holder class.
+         */
+        String add(String memberName, Function<ClassDesc, JavaFileObject> generator);
+    }
+
+    // null if holder classes are local classes
+    private final HolderClassFiles holders;
+
+    HeaderFileBuilder(SourceFileBuilder builder, String className, String superName, String runtimeHelperName,
+                      HolderClassFiles holders) {
         super(builder, "public", Kind.CLASS, className, superName, null, runtimeHelperName);
+        this.holders = holders;
     }
 
     public void addVar(Declaration.Variable varTree) {
@@ -55,9 +76,9 @@ class HeaderFileBuilder extends ClassSourceBuilder {
         String javaName = JavaName.getOrThrow(varTree);
         String layoutVar = emitVarLayout(varTree.type(), javaName);
         if (Utils.isArray(varTree.type()) || Utils.isStructOrUnion(varTree.type())) {
-            emitGlobalSegment(layoutVar, javaName, nativeName, varTree);
+            emitGlobalSegment(layoutVar, varTree.type(), javaName, nativeName, varTree);
         } else if (Utils.isPointer(varTree.type()) || Utils.isPrimitive(varTree.type())) {
-            String segmentConstant = emitGlobalSegment(layoutVar, javaName, nativeName, null);
+            String segmentConstant = emitGlobalSegment(layoutVar, varTree.type(), javaName, nativeName, null);
             emitGlobalGetter(segmentConstant, layoutVar, javaName, varTree, "Getter for variable:");
             emitGlobalSetter(segmentConstant, layoutVar, javaName, varTree, "Setter for variable:");
         } else {
@@ -77,6 +98,18 @@ class HeaderFileBuilder extends ClassSourceBuilder {
         emitFunctionWrapper(MEMBER_MODS, JavaName.getOrThrow(funcTree), nativeName, needsAllocator, isVarargs, parameterNames, funcTree);
     }
 
+    @Override
+    String downcallHolder(String javaName, String nativeName, Declaration.Function decl) {
+        if (holders == null) {
+            return null;
+        }
+        return decl.type().varargs() ?
+                holders.add(javaName, desc -> HolderClassFileBuilder.generateDescriptorHolder(desc,
+                        runtimeHelperName(), decl.type())) :
+                holders.add(javaName, desc -> HolderClassFileBuilder.generateDowncallHolder(desc,
+                        runtimeHelperName(), nativeName, decl.type(), Critical.get(decl)));
+    }
+
     public void addConstant(Declaration.Constant constantTree) {
         Object value = constantTree.value();
         emitConstant(Utils.carrierFor(constantTree.type()), JavaName.getOrThrow(constantTree), value, constantTree);
@@ -167,6 +200,42 @@ class HeaderFileBuilder extends ClassSourceBuilder {
                  System.out.printf("%s(%s)\\n", name, traceArgs);
             }
 
+            static final boolean STATS_DOWNCALLS = Boolean.getBoolean("jextract.stats.downcalls");
+
+            static void recordDowncall(String name, long startNanos) {
+                long elapsed = System.nanoTime() - startNanos;
+                java.util.concurrent.atomic.LongAccumulator[] stats = DOWNCALL_STATS.computeIfAbsent(name, n ->
+                        new java.util.concurrent.atomic.LongAccumulator[] {
+                            new java.util.concurrent.atomic.LongAccumulator(Long::sum, 0), // count
+                            new java.util.concurrent.atomic.LongAccumulator(Math::min, Long.MAX_VALUE), // min
+                            new java.util.concurrent.atomic.LongAccumulator(Math::max, 0), // max
+                            new java.util.concurrent.atomic.LongAccumulator(Long::sum, 0) // total
+                        });
+                // the count is updated last, see downcallStats
+                stats[1].accumulate(elapsed);
+                stats[2].accumulate(elapsed);
+                stats[3].accumulate(elapsed);
+                stats[0].accumulate(1);
+            }
+
+            /**
+             * {@return a snapshot of the statistics of the downcalls made so far, keyed by function name}
+             * The statistics of a function give the number of calls, and the min, max and total time spent
+             * in those calls, in nanoseconds. Statistics are only collected if the {@code jextract.stats.downcalls}
+             * system property is set to {@code true}.
+             */
+            public static java.util.Map<String, java.util.LongSummaryStatistics> downcallStats() {
+                java.util.Map<String, java.util.LongSummaryStatistics> result = new java.util.TreeMap<>();
+                DOWNCALL_STATS.forEach((name, stats) -> {
+                    // read the count first, so that min and max are consistent with it
+                    long count = stats[0].get();
+                    if (count > 0) {
+                        result.put(name, new java.util.LongSummaryStatistics(count, stats[1].get(), stats[2].get(), stats[3].get()));
+                    }
+                });
+                return java.util.Collections.unmodifiableMap(result);
+            }
+
             static MemorySegment findOrThrow(String symbol) {
                 return SYMBOL_LOOKUP.find(symbol)
                     .orElseThrow(() -> new UnsatisfiedLinkError("unresolved symbol: " + symbol));
@@ -188,7 +257,92 @@ class HeaderFileBuilder extends ClassSourceBuilder {
                 }
             }
 
+            static MemorySegment upcallStubCached(Object fi, MethodHandle upcallHandle, FunctionDescriptor fdesc, Arena arena) {
+                java.util.Map<java.util.List<Object>, Object[]> stubs;
+                synchronized (UPCALL_STUBS) {
+                    stubs = UPCALL_STUBS.computeIfAbsent(arena, a -> new java.util.LinkedHashMap<>(16, 0.75f, true) {
+                        @Override
+                        protected boolean removeEldestEntry(java.util.Map.Entry<java.util.List<Object>, Object[]> eldest) {
+                            return size() > UPCALL_STUBS_MAX;
+                        }
+                    });
+                }
+                synchronized (stubs) {
+                    // stubs are keyed by upcall handle too, as an object might implement more than one functional interface
+                    java.util.List<Object> key = java.util.List.of(fi, upcallHandle);
+                    Object[] entry = stubs.get(key);
+                    // instances which are equal, but not identical, might behave differently
+                    if (entry == null || entry[0] != fi || !((MemorySegment)entry[1]).scope().isAlive()) {
+                        entry = new Object[] { fi, Linker.nativeLinker().upcallStub(upcallHandle.bindTo(fi), fdesc, arena) };
+                        stubs.put(key, entry);
+                    }
+                    return (MemorySegment)entry[1];
+                }
+            }
+
             static MethodHandle downcallHandleVariadic(String name, FunctionDescriptor baseDesc, MemoryLayout[] variadicLayouts) {
+                java.util.List<Object> key = java.util.List.of(name, java.util.List.of(variadicLayouts));
+                VariadicHandle cached = VARIADIC_HANDLES.get(key);
+                if (cached != null) {
+                    cached.lastUsed = System.nanoTime();
+                    return cached.handle;
+                }
+                // concurrent callers might link the same handle twice, which is harmless
+                MethodHandle handle = linkVariadic(name, baseDesc, variadicLayouts);
+                if (handle != null) {
+                    if (VARIADIC_HANDLES.size() >= VARIADIC_HANDLES_MAX) {
+                        evictVariadicHandle();
+                    }
+                    VARIADIC_HANDLES.put(key, new VariadicHandle(handle));
+                }
+                return handle;
+            }
+
+            // Internals only below this point
+
+            // recently used variadic downcall handles, keyed by symbol name and variadic argument layouts. Lookups
+            // do not lock: a hit only stamps the entry with its access time. When the cache is full, the entry with
+            // the oldest stamp is evicted before a new one is added, so concurrent misses might briefly exceed the
+            // bound (names are fully qualified, as generated classes, e.g. for a struct named List, shadow on-demand
+            // imports)
+            private static final int VARIADIC_HANDLES_MAX = Integer.getInteger("jextract.variadic.cache.size", 256);
+            private static final java.util.Map<java.util.List<Object>, VariadicHandle> VARIADIC_HANDLES =
+                    new java.util.concurrent.ConcurrentHashMap<>();
+
+            private static final class VariadicHandle {
+                final MethodHandle handle;
+                volatile long lastUsed = System.nanoTime();
+
+                VariadicHandle(MethodHandle handle) {
+                    this.handle = handle;
+                }
+            }
+
+            private static void evictVariadicHandle() {
+                java.util.Map.Entry<java.util.List<Object>, VariadicHandle> eldest = null;
+                for (java.util.Map.Entry<java.util.List<Object>, VariadicHandle> entry : VARIADIC_HANDLES.entrySet()) {
+                    if (eldest == null || entry.getValue().lastUsed - eldest.getValue().lastUsed < 0) {
+                        eldest = entry;
+                    }
+                }
+                if (eldest != null) {
+                    VARIADIC_HANDLES.remove(eldest.getKey(), eldest.getValue());
+                }
+            }
+
+            // recently used upcall stubs (along with their functional interface instance), per arena, keyed by
+            // functional interface instance and upcall handle. Arenas are weakly referenced, and at most
+            // UPCALL_STUBS_MAX stubs are cached per arena, so that instances are not retained by the cache forever
+            // (they are still retained by their upcall stubs, until the arena is closed)
+            private static final int UPCALL_STUBS_MAX = Integer.getInteger("jextract.upcall.cache.size", 256);
+            private static final java.util.Map<Arena, java.util.Map<java.util.List<Object>, Object[]>> UPCALL_STUBS =
+                    new java.util.WeakHashMap<>();
+
+            // per function downcall statistics: count, min, max and total time (in nanoseconds)
+            private static final java.util.Map<String, java.util.concurrent.atomic.LongAccumulator[]> DOWNCALL_STATS =
+                    new java.util.concurrent.ConcurrentHashMap<>();
+
+            private static MethodHandle linkVariadic(String name, FunctionDescriptor baseDesc, MemoryLayout[] variadicLayouts) {
                 FunctionDescriptor variadicDesc = baseDesc.appendArgumentLayouts(variadicLayouts);
                 Linker.Option fva = Linker.Option.firstVariadicArg(baseDesc.argumentLayouts().size());
                 return SYMBOL_LOOKUP.find(name)
@@ -197,8 +351,6 @@ class HeaderFileBuilder extends ClassSourceBuilder {
                         .orElse(null);
             }
 
-            // Internals only below this point
-
             private static MemoryLayout variadicLayout(Class<?> c) {
                 // apply default argument promotions per C spec
                 // note that all primitives are boxed, since they are passed through an Object[]
@@ -213,6 +365,98 @@ class HeaderFileBuilder extends ClassSourceBuilder {
                 }
                 throw new IllegalArgumentException("Invalid type for ABI: " + c.getTypeName());
             }
+
+            /**
+             * A pool of upcall stubs for a functional interface. A stub acquired from the pool calls the given
+             * functional interface instance, until it is released; released stubs are reused by subsequent
+             * acquisitions, so that short-lived callbacks do not require a new upcall stub each time.
+             * Stubs should not be called by native code after they have been released: such calls print
+             * a warning, and return a zero value. All the stubs are freed when the pool is closed.
+             */
+            public static final class UpcallStubPool<F> implements AutoCloseable {
+                private static final VarHandle SLOT = MethodHandles.arrayElementVarHandle(Object[].class);
+                private static final MethodHandle RELEASED_STUB_CALLED;
+
+                static {
+                    try {
+                        RELEASED_STUB_CALLED = MethodHandles.lookup().findStatic(UpcallStubPool.class,
+                                "releasedStubCalled", MethodType.methodType(void.class));
+                    } catch (ReflectiveOperationException ex) {
+                        throw new ExceptionInInitializerError(ex);
+                    }
+                }
+
+                private final Arena arena = Arena.ofShared();
+                private final MethodHandle upcallHandle;
+                private final FunctionDescriptor fdesc;
+                // the instance called by released stubs: an exception thrown by an upcall would crash the JVM
+                private final Object released;
+                private final java.util.ArrayDeque<MemorySegment> free = new java.util.ArrayDeque<>();
+                // the instance called by each stub, keyed by stub address
+                private final java.util.Map<Long, Object[]> slots = new java.util.HashMap<>();
+
+                UpcallStubPool(MethodHandle upcallHandle, FunctionDescriptor fdesc) {
+                    this.upcallHandle = upcallHandle;
+                    this.fdesc = fdesc;
+                    MethodType type = fdesc.toMethodType();
+                    MethodHandle zero;
+                    if (type.returnType() == MemorySegment.class) {
+                        // a struct returned by value is copied from the returned segment
+                        MemorySegment value = fdesc.returnLayout().get() instanceof GroupLayout group ?
+                                arena.allocate(group) : MemorySegment.NULL;
+                        zero = MethodHandles.dropArguments(
+                                MethodHandles.constant(MemorySegment.class, value), 0, type.parameterList());
+                    } else {
+                        zero = MethodHandles.empty(type);
+                    }
+                    this.released = MethodHandleProxies.asInterfaceInstance(upcallHandle.type().parameterType(0),
+                            MethodHandles.foldArguments(zero, RELEASED_STUB_CALLED));
+                }
+
+                /**
+                 * {@return an upcall stub which calls the given functional interface instance}
+                 */
+                public synchronized MemorySegment acquire(F fi) {
+                    java.util.Objects.requireNonNull(fi);
+                    MemorySegment stub = free.poll();
+                    Object[] slot;
+                    if (stub == null) {
+                        slot = new Object[1];
+                        MethodHandle instance = MethodHandles.insertArguments(
+                                SLOT.toMethodHandle(VarHandle.AccessMode.GET_VOLATILE), 0, slot, 0)
+                                .asType(MethodType.methodType(upcallHandle.type().parameterType(0)));
+                        stub = Linker.nativeLinker().upcallStub(
+                                MethodHandles.foldArguments(upcallHandle, instance), fdesc, arena);
+                        slots.put(stub.address(), slot);
+                    } else {
+                        slot = slots.get(stub.address());
+                    }
+                    SLOT.setVolatile(slot, 0, fi);
+                    return stub;
+                }
+
+                /**
+                 * Releases an upcall stub acquired from this pool, so that it can be reused.
+                 * @throws IllegalArgumentException if the stub is not currently acquired from this pool
+                 */
+                public synchronized void release(MemorySegment stub) {
+                    Object[] slot = slots.get(stub.address());
+                    if (slot == null || SLOT.getVolatile(slot, 0) == released) {
+                        throw new IllegalArgumentException("Not an acquired upcall stub: " + stub);
+                    }
+                    SLOT.setVolatile(slot, 0, released);
+                    free.push(stub);
+                }
+
+                private static void releasedStubCalled() {
+                    System.err.println("warning: released upcall stub called, returning a zero value");
+                }
+
+                @Override
+                public void close() {
+                    arena.close();
+                }
+            }
             """);
     }
 
@@ -242,21 +486,33 @@ class HeaderFileBuilder extends ClassSourceBuilder {
         decrAlign();
     }
 
-    public String emitGlobalSegment(String layout, String javaName, String nativeName, Declaration declaration) {
+    public String emitGlobalSegment(String layout, Type varType, String javaName, String nativeName, Declaration declaration) {
         String mangledName = mangleName(javaName, MemorySegment.class);
+        String holder = holders != null ?
+                holders.add(mangledName, desc -> HolderClassFileBuilder.generateSegmentHolder(desc,
+                        runtimeHelperName(), nativeName, varType)) :
+                null;
         incrAlign();
         if (declaration != null) {
             emitDocComment(declaration);
         }
-        appendLines(STR."""
-            \{MEMBER_MODS} MemorySegment \{mangledName}() {
-                class Holder {
-                    static final MemorySegment SEGMENT = \{runtimeHelperName()}.findOrThrow("\{nativeName}")
-                        .reinterpret(\{layout}.byteSize());
+        if (holder != null) {
+            appendLines(STR."""
+                \{MEMBER_MODS} MemorySegment \{mangledName}() {
+                    return \{holder}.SEGMENT;
                 }
-                return Holder.SEGMENT;
-            }
-            """);
+                """);
+        } else {
+            appendLines(STR."""
+                \{MEMBER_MODS} MemorySegment \{mangledName}() {
+                    class Holder {
+                        static final MemorySegment SEGMENT = \{runtimeHelperName()}.findOrThrow("\{nativeName}")
+                            .reinterpret(\{layout}.byteSize());
+                    }
+                    return Holder.SEGMENT;
+                }
+                """);
+        }
         decrAlign();
         return STR."\{mangledName}()";
     }
@@ -264,14 +520,24 @@ class HeaderFileBuilder extends ClassSourceBuilder {
     private String emitVarLayout(Type varType, String javaName) {
         String mangledName = mangleName(javaName, MemoryLayout.class);
         String layoutType = Utils.layoutCarrierFor(varType).getSimpleName();
-        appendIndentedLines(STR."""
-            \{MEMBER_MODS} \{layoutType} \{mangledName}() {
-                class Holder {
-                    static final \{layoutType} LAYOUT = \{layoutString(varType)};
+        if (holders != null) {
+            String holder = holders.add(mangledName, desc -> HolderClassFileBuilder.generateLayoutHolder(desc,
+                    runtimeHelperName(), varType));
+            appendIndentedLines(STR."""
+                \{MEMBER_MODS} \{layoutType} \{mangledName}() {
+                    return \{holder}.LAYOUT;
                 }
-                return Holder.LAYOUT;
-            }
-            """);
+                """);
+        } else {
+            appendIndentedLines(STR."""
+                \{MEMBER_MODS} \{layoutType} \{mangledName}() {
+                    class Holder {
+                        static final \{layoutType} LAYOUT = \{layoutString(varType)};
+                    }
+                    return Holder.LAYOUT;
+                }
+                """);
+        }
         return STR."\{mangledName}()";
     }
 
@@ -0,0 +1,138 @@
+/*
+ * Copyright (c) 2024, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package org.openjdk.jextract.impl;
+
+import org.openjdk.jextract.Type;
+
+import javax.tools.JavaFileObject;
+import java.lang.classfile.ClassFile;
+import java.lang.classfile.CodeBuilder;
+import java.lang.constant.ClassDesc;
+import java.lang.constant.ConstantDescs;
+import java.lang.constant.MethodTypeDesc;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+/**
+ * This class generates the class files of the classes holding the constants used by the wrappers of a
+ * header class: function descriptors, downcall method handles, and the layouts and segments of global
+ * variables. Holder classes are equivalent to the local {@code Holder} classes otherwise generated by
+ * {@link ClassSourceBuilder} and {@link HeaderFileBuilder}: their constants are initialized when they are
+ * first accessed, that is, when a wrapper is first used.
+ */
+final class HolderClassFileBuilder extends ClassFileBuilder {
+
+    private static final int FIELD_FLAGS = ClassFile.ACC_STATIC | ClassFile.ACC_FINAL;
+
+    private final ClassDesc classDesc;
+
+    private HolderClassFileBuilder(ClassDesc classDesc, String runtimeHelperName) {
+        super(classDesc.packageName(), runtimeHelperName);
+        this.classDesc = classDesc;
+    }
+
+    /**
+     * Generates a holder class with the descriptor ({@code DESC}) and the downcall method handle ({@code MH})
+     * of a function.
+     */
+    static JavaFileObject generateDowncallHolder(ClassDesc classDesc, String runtimeHelperName, String nativeName,
+                                                 Type.Function type, Optional<Boolean> critical) {
+        HolderClassFileBuilder builder = new HolderClassFileBuilder(classDesc, runtimeHelperName);
+        return builder.generate(List.of("DESC", "MH"), List.of(CD_FunctionDescriptor, ConstantDescs.CD_MethodHandle), code -> {
+            builder.emitFunctionDescriptor(code, type);
+            code.putstatic(classDesc, "DESC", CD_FunctionDescriptor);
+            code.invokestatic(CD_Linker, "nativeLinker", MethodTypeDesc.of(CD_Linker), true);
+            builder.emitFindOrThrow(code, nativeName);
+            code.getstatic(classDesc, "DESC", CD_FunctionDescriptor);
+            emitArray(code, CD_LinkerOption, critical.stream().toList(), (c, allowHeapAccess) -> c
+                    .constantInstruction(allowHeapAccess ? 1 : 0)
+                    .invokestatic(CD_LinkerOption, "critical", MethodTypeDesc.of(CD_LinkerOption, ConstantDescs.CD_boolean), true));
+            code.invokeinterface(CD_Linker, "downcallHandle", MethodTypeDesc.of(ConstantDescs.CD_MethodHandle,
+                    CD_MemorySegment, CD_FunctionDescriptor, CD_LinkerOption.arrayType()));
+            code.putstatic(classDesc, "MH", ConstantDescs.CD_MethodHandle);
+        });
+    }
+
+    /**
+     * Generates a holder class with the descriptor ({@code BASE_DESC}) of the non-variadic parameters
+     * of a variadic function.
+     */
+    static JavaFileObject generateDescriptorHolder(ClassDesc classDesc, String runtimeHelperName, Type.Function type) {
+        HolderClassFileBuilder builder = new HolderClassFileBuilder(classDesc, runtimeHelperName);
+        return builder.generate(List.of("BASE_DESC"), List.of(CD_FunctionDescriptor), code -> {
+            builder.emitFunctionDescriptor(code, type);
+            code.putstatic(classDesc, "BASE_DESC", CD_FunctionDescriptor);
+        });
+    }
+
+    /**
+     * Generates a holder class with the layout ({@code LAYOUT}) of a global variable.
+     */
+    static JavaFileObject generateLayoutHolder(ClassDesc classDesc, String runtimeHelperName, Type varType) {
+        HolderClassFileBuilder builder = new HolderClassFileBuilder(classDesc, runtimeHelperName);
+        ClassDesc layoutType = desc(Utils.layoutCarrierFor(varType));
+        return builder.generate(List.of("LAYOUT"), List.of(layoutType), code -> {
+            builder.emitLayout(code, varType);
+            code.putstatic(classDesc, "LAYOUT", layoutType);
+        });
+    }
+
+    /**
+     * Generates a holder class with the segment ({@code SEGMENT}) of a global variable.
+     */
+    static JavaFileObject generateSegmentHolder(ClassDesc classDesc, String runtimeHelperName, String nativeName,
+                                                Type varType) {
+        HolderClassFileBuilder builder = new HolderClassFileBuilder(classDesc, runtimeHelperName);
+        return builder.generate(List.of("SEGMENT"), List.of(CD_MemorySegment), code -> {
+            builder.emitFindOrThrow(code, nativeName);
+            ClassDesc layoutType = builder.emitLayout(code, varType);
+            code.invokeinterface(layoutType, "byteSize", MethodTypeDesc.of(ConstantDescs.CD_long));
+            code.invokeinterface(CD_MemorySegment, "reinterpret", MethodTypeDesc.of(CD_MemorySegment, ConstantDescs.CD_long));
+            code.putstatic(classDesc, "SEGMENT", CD_MemorySegment);
+        });
+    }
+
+    // a final class, with the given static final fields, initialized by the given code
+    private JavaFileObject generate(List<String> fieldNames, List<ClassDesc> fieldTypes, Consumer<CodeBuilder> initializer) {
+        return toFile(classDesc, ClassFile.of().build(classDesc, cb -> {
+            cb.withFlags(ClassFile.ACC_FINAL | ClassFile.ACC_SUPER);
+            cb.withSuperclass(ConstantDescs.CD_Object);
+            for (int i = 0; i < fieldNames.size(); i++) {
+                cb.withField(fieldNames.get(i), fieldTypes.get(i), FIELD_FLAGS);
+            }
+            cb.withMethodBody(ConstantDescs.CLASS_INIT_NAME, ConstantDescs.MTD_void, ClassFile.ACC_STATIC, code -> {
+                initializer.accept(code);
+                code.return_();
+            });
+        }));
+    }
+
+    // <runtime helper>.findOrThrow("nativeName")
+    private void emitFindOrThrow(CodeBuilder code, String nativeName) {
+        code.constantInstruction(nativeName);
+        code.invokestatic(runtimeHelper(), "findOrThrow", MethodTypeDesc.of(CD_MemorySegment, ConstantDescs.CD_String));
+    }
+}
@@ -25,24 +25,107 @@
 package org.openjdk.jextract.impl;
 
 import org.openjdk.jextract.Declaration;
+import org.openjdk.jextract.Type;
 import org.openjdk.jextract.impl.DeclarationImpl.Skip;
+import org.openjdk.jextract.impl.IncludeHelper.IncludeKind;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Set;
 
 /*
- * This visitor marks declarations to be skipped, based on --include options specified.
+ * This visitor marks declarations to be skipped, based on --include options specified. Declarations
+ * that are needed by the included ones are kept: these are the structs and unions used by value (e.g. as
+ * a function parameter, a field or the target of a typedef, possibly through a function pointer type),
+ * and the typedefs referred to by name. Structs and unions only used through pointers are not needed,
+ * as pointers are modelled as memory segments.
  */
-final class IncludeFilter implements Declaration.Visitor<Void, Declaration> {
+final class IncludeFilter implements Declaration.Visitor<Void, Declaration>, PassManager.Pass {
     private final IncludeHelper includeHelper;
+    // the transitive closure of the dependencies of the included declarations
+    private final Set<Declaration> dependencies = Collections.newSetFromMap(new IdentityHashMap<>());
+    private final Map<String, Declaration.Typedef> typedefs = new HashMap<>();
 
     IncludeFilter(IncludeHelper includeHelper) {
         this.includeHelper = includeHelper;
     }
 
-    public Declaration.Scoped scan(Declaration.Scoped header) {
-        // Process all header declarations are collect potential
-        // declarations that will go into transformed HeaderTree
-        // into the this.decls field.
-        header.members().forEach(fieldTree -> fieldTree.accept(this, null));
-        return header;
+    @Override
+    public void start(Declaration.Scoped header) {
+        if (!includeHelper.isEnabled()) {
+            // everything is included
+            return;
+        }
+        for (Declaration decl : header.members()) {
+            if (decl instanceof Declaration.Typedef typedef) {
+                typedefs.putIfAbsent(typedef.name(), typedef);
+            }
+        }
+        for (Declaration decl : header.members()) {
+            IncludeKind kind = switch (decl) {
+                case Declaration.Function _ -> IncludeKind.FUNCTION;
+                case Declaration.Variable _ -> IncludeKind.VAR;
+                case Declaration.Typedef _ -> IncludeKind.TYPEDEF;
+                case Declaration.Scoped scoped when Utils.isStructOrUnion(scoped) && !scoped.name().isEmpty() ->
+                        IncludeKind.fromScoped(scoped);
+                default -> null;
+            };
+            if (kind != null && includeHelper.isIncluded(kind, decl.name())) {
+                addDependencies(decl);
+            }
+        }
+    }
+
+    private void addDependency(Declaration decl) {
+        if (dependencies.add(decl)) {
+            addDependencies(decl);
+        }
+    }
+
+    private void addDependencies(Declaration decl) {
+        switch (decl) {
+            case Declaration.Function function -> addDependencies(function.type());
+            case Declaration.Variable variable -> addDependencies(variable.type());
+            case Declaration.Typedef typedef -> addDependencies(typedef.type());
+            case Declaration.Scoped scoped -> scoped.members().forEach(this::addDependencies);
+            default -> { }
+        }
+    }
+
+    private void addDependencies(Type type) {
+        switch (type) {
+            case Type.Declared declared when Utils.isStructOrUnion(declared.tree()) ->
+                    addDependency(declared.tree());
+            case Type.Delegated delegated when delegated.kind() == Type.Delegated.Kind.TYPEDEF -> {
+                Declaration.Typedef typedef = typedefs.get(delegated.name().orElseThrow());
+                if (typedef != null) {
+                    addDependency(typedef);
+                }
+                addDependencies(delegated.type());
+            }
+            case Type.Delegated delegated when delegated.kind() == Type.Delegated.Kind.POINTER -> {
+                // only function pointers can have by-value dependencies
+                Type.Function function = Utils.getAsFunctionPointer(delegated.type());
+                if (function != null) {
+                    addDependencies(function);
+                }
+            }
+            case Type.Delegated delegated -> addDependencies(delegated.type());
+            case Type.Array array -> addDependencies(array.elementType());
+            case Type.Function function -> {
+                function.argumentTypes().forEach(this::addDependencies);
+                addDependencies(function.returnType());
+            }
+            default -> { }
+        }
+    }
+
+
+    @Override
+    public void visitToplevel(Declaration decl) {
+        decl.accept(this, null);
     }
 
     @Override
@@ -68,7 +151,7 @@ final class IncludeFilter implements Declaration.Visitor<Void, Declaration> {
         boolean isStructKind = Utils.isStructOrUnion(d);
         if (isStructKind) {
             String name = d.name();
-            if (!name.isEmpty() && !includeHelper.isIncluded(d)) {
+            if (!name.isEmpty() && !includeHelper.isIncluded(d) && !dependencies.contains(d)) {
                 //skip
                 Skip.with(d);
             }
@@ -80,7 +163,7 @@ final class IncludeFilter implements Declaration.Visitor<Void, Declaration> {
 
     @Override
     public Void visitTypedef(Declaration.Typedef tree, Declaration parent) {
-        if (!includeHelper.isIncluded(tree)) {
+        if (!includeHelper.isIncluded(tree) && !dependencies.contains(tree)) {
             //skip
             Skip.with(tree);
         }
@@ -130,6 +130,19 @@ public class IncludeHelper {
         }
     }
 
+    /*
+     * Used to filter declarations before they are created (see Parser). Note: this check does not
+     * record the declaration as used, so it must be followed by a proper check (see IncludeFilter).
+     */
+    boolean isIncluded(IncludeKind kind, String name) {
+        if (!isEnabled()) {
+            return true;
+        } else {
+            Set<String> names = includesSymbolNamesByKind.get(kind);
+            return names != null && names.contains(name);
+        }
+    }
+
     public boolean isEnabled() {
         return includesSymbolNamesByKind.size() > 0;
     }
@@ -0,0 +1,885 @@
+/*
+ *  Copyright (c) 2024, Oracle and/or its affiliates. All rights reserved.
+ *  DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ *  This code is free software; you can redistribute it and/or modify it
+ *  under the terms of the GNU General Public License version 2 only, as
+ *  published by the Free Software Foundation.  Oracle designates this
+ *  particular file as subject to the "Classpath" exception as provided
+ *  by Oracle in the LICENSE file that accompanied this code.
+ *
+ *  This code is distributed in the hope that it will be useful, but WITHOUT
+ *  ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ *  FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ *  version 2 for more details (a copy is included in the LICENSE file that
+ *  accompanied this code).
+ *
+ *  You should have received a copy of the GNU General Public License version
+ *  2 along with this work; if not, write to the Free Software Foundation,
+ *  Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ *   Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ *  or visit www.oracle.com if you need additional information or have any
+ *  questions.
+ *
+ */
+package org.openjdk.jextract.impl;
+
+import org.openjdk.jextract.Type;
+import org.openjdk.jextract.Type.Delegated;
+import org.openjdk.jextract.Type.Primitive;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+import static java.util.Map.entry;
+
+/**
+ * Evaluates object-like macros in Java, without going through clang. Macros are first expanded, using the
+ * definitions seen so far, and the resulting tokens are then parsed and evaluated as a C constant expression.
+ * Supported expressions are made up of integer, floating point, character and string literals, unary, binary
+ * and conditional operators, casts to builtin types and {@code sizeof} of builtin types. Evaluation follows
+ * C typing rules (literal types, integer promotions, usual arithmetic conversions); the sizes of builtin types
+ * are those of the platform jextract runs on.
+ * <p>
+ * Whenever the result could depend on something this evaluator does not model (an unknown identifier,
+ * a typedef name, undefined behavior such as signed overflow or division by zero, etc.), evaluation gives
+ * up, and the macro is left to clang. As macros are evaluated once the whole header has been seen, this
+ * includes macros which are undefined at some point (see {@link #markUndefined(Set)}): the definition known
+ * to this evaluator might no longer be active.
+ */
+class MacroEvaluator {
+
+    // an upper bound on the number of tokens a macro can expand to
+    private static final int MAX_TOKENS = 4096;
+
+    private static final Map<String, Integer> BINARY_PRECEDENCE = Map.ofEntries(
+            entry("||", 1), entry("&&", 2),
+            entry("|", 3), entry("^", 4), entry("&", 5),
+            entry("==", 6), entry("!=", 6),
+            entry("<", 7), entry(">", 7), entry("<=", 7), entry(">=", 7),
+            entry("<<", 8), entry(">>", 8),
+            entry("+", 9), entry("-", 9),
+            entry("*", 10), entry("/", 10), entry("%", 10));
+
+    private static final Set<String> TYPE_KEYWORDS = Set.of(
+            "void", "char", "signed", "unsigned", "short", "int", "long", "float", "double");
+
+    private static final Pattern DECIMAL_FLOAT = Pattern.compile("(\\d+\\.\\d*|\\.\\d+|\\d+)([eE][+-]?\\d+)?");
+    private static final Pattern HEX_FLOAT = Pattern.compile("0[xX]([0-9a-fA-F]+\\.?[0-9a-fA-F]*|\\.[0-9a-fA-F]+)[pP][+-]?\\d+");
+    private static final Pattern INTEGER_SUFFIX = Pattern.compile("[uU]?(l|L|ll|LL)?|(l|L|ll|LL)[uU]");
+
+    private static final UnsupportedMacroException UNSUPPORTED = new UnsupportedMacroException();
+
+    private final boolean enabled;
+    private final boolean cpp;
+    private final Map<String, List<String>> definitions = new HashMap<>();
+    // names of the macros undefined by an #undef directive
+    private final Set<String> undefined = new HashSet<>();
+
+    MacroEvaluator(Collection<String> args, boolean cpp) {
+        // type sizes are those of the host platform, so give up if clang is told to target some other platform
+        this.enabled = args.stream().noneMatch(MacroEvaluator::isTargetOption);
+        this.cpp = cpp;
+    }
+
+    private static boolean isTargetOption(String arg) {
+        return arg.startsWith("-target") || arg.startsWith("--target") || arg.equals("-triple") ||
+                arg.equals("-m32") || arg.equals("-m16") || arg.equals("-mx32");
+    }
+
+    /**
+     * Records the definition of an object-like macro. The first token is the name of the macro.
+     */
+    void define(String name, String[] tokens) {
+        definitions.put(name, List.of(tokens).subList(1, tokens.length));
+    }
+
+    void undefine(String name) {
+        definitions.remove(name);
+    }
+
+    /**
+     * Records the names of the macros which are undefined by an {@code #undef} directive. Evaluation gives
+     * up on any macro which is, or expands to, one of these macros.
+     */
+    void markUndefined(Set<String> names) {
+        undefined.addAll(names);
+    }
+
+    record Result(Type type, Object value) { }
+
+    /**
+     * {@return the type and value of the macro with given name, or an empty optional if the macro
+     * cannot be evaluated in Java}
+     */
+    Optional<Result> evaluate(String name) {
+        List<String> body = definitions.get(name);
+        if (!enabled || body == null || undefined.contains(name)) {
+            return Optional.empty();
+        }
+        try {
+            List<String> tokens = new ArrayList<>();
+            Set<String> active = new HashSet<>();
+            active.add(name);
+            expand(body, active, tokens);
+            return Optional.of(new ExpressionParser(tokens).parse().toResult());
+        } catch (UnsupportedMacroException ex) {
+            return Optional.empty();
+        }
+    }
+
+    /*
+     * Macro expansion. A macro is not expanded again while it is being expanded; its name is then left
+     * as is, which causes evaluation to give up, as identifiers are not supported.
+     */
+    private void expand(List<String> body, Set<String> active, List<String> out) {
+        for (String token : body) {
+            if (undefined.contains(token)) {
+                throw UNSUPPORTED;
+            }
+            List<String> definition = definitions.get(token);
+            if (definition != null && active.add(token)) {
+                expand(definition, active, out);
+                active.remove(token);
+            } else {
+                out.add(token);
+            }
+            if (out.size() > MAX_TOKENS) {
+                throw UNSUPPORTED;
+            }
+        }
+    }
+
+    // builtin arithmetic types; ranks are only meaningful for integer types
+    enum Scalar {
+        BOOL(1, false, 0),
+        SCHAR(8, true, 1),
+        UCHAR(8, false, 1),
+        SHORT(16, true, 2),
+        USHORT(16, false, 2),
+        INT(32, true, 3),
+        UINT(32, false, 3),
+        LONG(TypeImpl.IS_WINDOWS ? 32 : 64, true, 4),
+        ULONG(TypeImpl.IS_WINDOWS ? 32 : 64, false, 4),
+        LONGLONG(64, true, 5),
+        ULONGLONG(64, false, 5),
+        FLOAT(32, true, -1),
+        DOUBLE(64, true, -1);
+
+        final int width;
+        final boolean signed;
+        final int rank;
+
+        Scalar(int width, boolean signed, int rank) {
+            this.width = width;
+            this.signed = signed;
+            this.rank = rank;
+        }
+
+        static final Scalar SIZE_T = TypeImpl.IS_WINDOWS ? ULONGLONG : ULONG;
+
+        boolean isInteger() {
+            return rank >= 0;
+        }
+
+        int size() {
+            return this == BOOL ? 1 : width / 8;
+        }
+
+        Scalar promote() {
+            return isInteger() && rank < INT.rank ? INT : this;
+        }
+
+        Scalar toUnsigned() {
+            return switch (this) {
+                case INT -> UINT;
+                case LONG -> ULONG;
+                case LONGLONG -> ULONGLONG;
+                default -> this;
+            };
+        }
+
+        // truncates the given value to the width of this type, then sign or zero extends it
+        long normalize(long value) {
+            if (this == BOOL) {
+                return value != 0 ? 1 : 0;
+            } else if (width == 64) {
+                return value;
+            } else if (signed) {
+                return (value << (64 - width)) >> (64 - width);
+            } else {
+                return value & ((1L << width) - 1);
+            }
+        }
+
+        // does the given unsigned value fit in this type?
+        boolean fits(long value) {
+            long max = width == 64 ?
+                    (signed ? Long.MAX_VALUE : -1L) :
+                    (signed ? (1L << (width - 1)) - 1 : (1L << width) - 1);
+            return Long.compareUnsigned(value, max) <= 0;
+        }
+
+        Type type() {
+            return switch (this) {
+                case BOOL -> Type.primitive(Primitive.Kind.Bool);
+                case SCHAR -> Type.qualified(Delegated.Kind.SIGNED, Type.primitive(Primitive.Kind.Char));
+                case UCHAR -> Type.qualified(Delegated.Kind.UNSIGNED, Type.primitive(Primitive.Kind.Char));
+                case SHORT -> Type.primitive(Primitive.Kind.Short);
+                case USHORT -> Type.qualified(Delegated.Kind.UNSIGNED, Type.primitive(Primitive.Kind.Short));
+                case INT -> Type.primitive(Primitive.Kind.Int);
+                case UINT -> Type.qualified(Delegated.Kind.UNSIGNED, Type.primitive(Primitive.Kind.Int));
+                case LONG -> Type.primitive(Primitive.Kind.Long);
+                case ULONG -> Type.qualified(Delegated.Kind.UNSIGNED, Type.primitive(Primitive.Kind.Long));
+                case LONGLONG -> Type.primitive(Primitive.Kind.LongLong);
+                case ULONGLONG -> Type.qualified(Delegated.Kind.UNSIGNED, Type.primitive(Primitive.Kind.LongLong));
+                case FLOAT -> Type.primitive(Primitive.Kind.Float);
+                case DOUBLE -> Type.primitive(Primitive.Kind.Double);
+            };
+        }
+
+        // the usual arithmetic conversions
+        static Scalar common(Scalar s1, Scalar s2) {
+            if (s1 == DOUBLE || s2 == DOUBLE) {
+                return DOUBLE;
+            } else if (s1 == FLOAT || s2 == FLOAT) {
+                return FLOAT;
+            }
+            s1 = s1.promote();
+            s2 = s2.promote();
+            if (s1 == s2) {
+                return s1;
+            } else if (s1.signed == s2.signed) {
+                return s1.rank > s2.rank ? s1 : s2;
+            }
+            Scalar signedType = s1.signed ? s1 : s2;
+            Scalar unsignedType = s1.signed ? s2 : s1;
+            if (unsignedType.rank >= signedType.rank) {
+                return unsignedType;
+            } else if (signedType.width > unsignedType.width) {
+                return signedType;
+            } else {
+                return signedType.toUnsigned();
+            }
+        }
+    }
+
+    sealed interface Value permits IntValue, FloatValue, StringValue, PointerValue {
+        Result toResult();
+    }
+
+    // integer values are normalized, as per Scalar::normalize
+    record IntValue(Scalar scalar, long value) implements Value {
+        @Override
+        public Result toResult() {
+            return new Result(scalar.type(), value);
+        }
+    }
+
+    // float values are stored as doubles, which is also what clang does
+    record FloatValue(Scalar scalar, double value) implements Value {
+        @Override
+        public Result toResult() {
+            return new Result(scalar.type(), value);
+        }
+    }
+
+    record StringValue(String value) implements Value {
+        @Override
+        public Result toResult() {
+            return new Result(Type.pointer(Type.primitive(Primitive.Kind.Char)), value);
+        }
+    }
+
+    record PointerValue(Type type, long value) implements Value {
+        @Override
+        public Result toResult() {
+            return new Result(type, value);
+        }
+    }
+
+    /*
+     * A builtin type name, as found in casts and sizeof expressions. The scalar is null for void and plain
+     * char, whose use is restricted: the signedness of plain char depends on the platform.
+     */
+    private record TypeName(Scalar scalar, Type type, int size, int pointers) { }
+
+    private final class ExpressionParser {
+        private final List<String> tokens;
+        private int pos;
+
+        ExpressionParser(List<String> tokens) {
+            this.tokens = tokens;
+        }
+
+        Value parse() {
+            Value value = conditional();
+            if (pos != tokens.size()) {
+                throw UNSUPPORTED;
+            }
+            return value;
+        }
+
+        private String peek(int offset) {
+            return pos + offset < tokens.size() ? tokens.get(pos + offset) : null;
+        }
+
+        private String next() {
+            if (pos == tokens.size()) {
+                throw UNSUPPORTED;
+            }
+            return tokens.get(pos++);
+        }
+
+        private void expect(String token) {
+            if (!token.equals(next())) {
+                throw UNSUPPORTED;
+            }
+        }
+
+        private Value conditional() {
+            Value cond = binary(1);
+            if (!"?".equals(peek(0))) {
+                return cond;
+            }
+            next();
+            Value ifTrue = conditional();
+            expect(":");
+            Value ifFalse = conditional();
+            if (!(ifTrue instanceof IntValue || ifTrue instanceof FloatValue) ||
+                    !(ifFalse instanceof IntValue || ifFalse instanceof FloatValue)) {
+                throw UNSUPPORTED;
+            }
+            Scalar type = Scalar.common(scalar(ifTrue), scalar(ifFalse));
+            return convert(isTrue(cond) ? ifTrue : ifFalse, type);
+        }
+
+        // precedence climbing; all binary operators are left associative
+        private Value binary(int minPrecedence) {
+            Value lhs = unary();
+            while (true) {
+                String op = peek(0);
+                Integer precedence = op != null ? BINARY_PRECEDENCE.get(op) : null;
+                if (precedence == null || precedence < minPrecedence) {
+                    return lhs;
+                }
+                next();
+                Value rhs = binary(precedence + 1);
+                lhs = applyBinary(op, lhs, rhs);
+            }
+        }
+
+        private Value unary() {
+            String token = peek(0);
+            if (token == null) {
+                throw UNSUPPORTED;
+            }
+            switch (token) {
+                case "+", "-", "~", "!" -> {
+                    next();
+                    return applyUnary(token, unary());
+                }
+                case "sizeof" -> {
+                    next();
+                    expect("(");
+                    TypeName typeName = typeName();
+                    expect(")");
+                    if (typeName.size() <= 0) {
+                        throw UNSUPPORTED;
+                    }
+                    return new IntValue(Scalar.SIZE_T, typeName.size());
+                }
+                case "(" -> {
+                    if (isTypeKeyword(peek(1))) {
+                        next();
+                        TypeName typeName = typeName();
+                        expect(")");
+                        return cast(unary(), typeName);
+                    }
+                    return primary();
+                }
+                default -> {
+                    return primary();
+                }
+            }
+        }
+
+        private Value primary() {
+            String token = next();
+            if (token.equals("(")) {
+                Value value = conditional();
+                expect(")");
+                return value;
+            } else if (token.startsWith("\"")) {
+                StringBuilder buf = new StringBuilder(unescape(token, true));
+                // adjacent string literals are concatenated
+                while (peek(0) != null && peek(0).startsWith("\"")) {
+                    buf.append(unescape(next(), true));
+                }
+                return new StringValue(buf.toString());
+            } else if (token.startsWith("'")) {
+                return charLiteral(token);
+            } else if (Character.isDigit(token.charAt(0)) ||
+                    (token.charAt(0) == '.' && token.length() > 1 && Character.isDigit(token.charAt(1)))) {
+                return number(token);
+            } else {
+                // identifiers (e.g. enum constants, typedef names), keywords and unsupported punctuators
+                throw UNSUPPORTED;
+            }
+        }
+
+        private boolean isTypeKeyword(String token) {
+            if (token == null) {
+                return false;
+            }
+            return switch (token) {
+                case "_Bool" -> !cpp;
+                case "bool" -> cpp;
+                default -> TYPE_KEYWORDS.contains(token);
+            };
+        }
+
+        private TypeName typeName() {
+            int signedness = 0, chars = 0, shorts = 0, ints = 0, longs = 0, others = 0;
+            String other = null;
+            while (isTypeKeyword(peek(0))) {
+                String token = next();
+                switch (token) {
+                    case "signed" -> signedness |= 1;
+                    case "unsigned" -> signedness |= 2;
+                    case "char" -> chars++;
+                    case "short" -> shorts++;
+                    case "int" -> ints++;
+                    case "long" -> longs++;
+                    default -> {
+                        // void, bool, float, double
+                        other = token;
+                        others++;
+                    }
+                }
+            }
+            boolean valid = signedness != 3 && ints <= 1 && chars <= 1 && shorts <= 1 && longs <= 2 && others <= 1 &&
+                    (others == 0 ?
+                            chars + shorts + (longs > 0 ? 1 : 0) <= 1 && (chars == 0 || ints == 0) &&
+                                    signedness + chars + shorts + ints + longs > 0 :
+                            signedness + chars + shorts + ints + longs == 0);
+            if (!valid) {
+                throw UNSUPPORTED;
+            }
+            boolean unsigned = signedness == 2;
+            Scalar scalar;
+            if (other != null) {
+                scalar = switch (other) {
+                    case "void" -> null;
+                    case "float" -> Scalar.FLOAT;
+                    case "double" -> Scalar.DOUBLE;
+                    default -> Scalar.BOOL;
+                };
+            } else if (chars > 0) {
+                scalar = signedness == 0 ? null : unsigned ? Scalar.UCHAR : Scalar.SCHAR;
+            } else if (shorts > 0) {
+                scalar = unsigned ? Scalar.USHORT : Scalar.SHORT;
+            } else if (longs == 1) {
+                scalar = unsigned ? Scalar.ULONG : Scalar.LONG;
+            } else if (longs == 2) {
+                scalar = unsigned ? Scalar.ULONGLONG : Scalar.LONGLONG;
+            } else {
+                scalar = unsigned ? Scalar.UINT : Scalar.INT;
+            }
+            Type type;
+            int size;
+            if (scalar != null) {
+                type = scalar.type();
+                size = scalar.size();
+            } else if (other != null) {
+                // sizeof(void) is not valid C
+                type = Type.void_();
+                size = -1;
+            } else {
+                type = Type.primitive(Primitive.Kind.Char);
+                size = 1;
+            }
+            int pointers = 0;
+            while ("*".equals(peek(0))) {
+                next();
+                type = Type.pointer(type);
+                pointers++;
+            }
+            // jextract only supports 64-bit platforms
+            return pointers > 0 ?
+                    new TypeName(null, type, 8, pointers) :
+                    new TypeName(scalar, type, size, 0);
+        }
+
+        private Value cast(Value value, TypeName typeName) {
+            if (typeName.pointers() > 0) {
+                if (value instanceof IntValue intValue) {
+                    return new PointerValue(typeName.type(), intValue.value());
+                }
+                throw UNSUPPORTED;
+            } else if (typeName.scalar() == null) {
+                // void, plain char
+                throw UNSUPPORTED;
+            } else if (!(value instanceof IntValue || value instanceof FloatValue)) {
+                throw UNSUPPORTED;
+            }
+            return convert(value, typeName.scalar());
+        }
+
+        private Value applyUnary(String op, Value value) {
+            switch (value) {
+                case IntValue(Scalar scalar, long v) -> {
+                    Scalar type = scalar.promote();
+                    return switch (op) {
+                        case "+" -> new IntValue(type, v);
+                        case "-" -> {
+                            if (!type.signed) {
+                                yield new IntValue(type, type.normalize(-v));
+                            } else if (v == Long.MIN_VALUE) {
+                                throw UNSUPPORTED;
+                            }
+                            yield new IntValue(type, checked(type, -v));
+                        }
+                        case "~" -> new IntValue(type, type.normalize(~v));
+                        default -> new IntValue(Scalar.INT, v == 0 ? 1 : 0);
+                    };
+                }
+                case FloatValue(Scalar scalar, double v) -> {
+                    return switch (op) {
+                        case "+" -> value;
+                        case "-" -> new FloatValue(scalar, -v);
+                        case "!" -> new IntValue(Scalar.INT, v == 0 ? 1 : 0);
+                        default -> throw UNSUPPORTED;
+                    };
+                }
+                default -> throw UNSUPPORTED;
+            }
+        }
+
+        private Value applyBinary(String op, Value lhs, Value rhs) {
+            if (!(lhs instanceof IntValue || lhs instanceof FloatValue) ||
+                    !(rhs instanceof IntValue || rhs instanceof FloatValue)) {
+                throw UNSUPPORTED;
+            }
+            switch (op) {
+                case "&&" -> {
+                    return new IntValue(Scalar.INT, isTrue(lhs) && isTrue(rhs) ? 1 : 0);
+                }
+                case "||" -> {
+                    return new IntValue(Scalar.INT, isTrue(lhs) || isTrue(rhs) ? 1 : 0);
+                }
+                case "<<", ">>" -> {
+                    if (!(lhs instanceof IntValue(Scalar ls, long l)) || !(rhs instanceof IntValue(Scalar _, long r))) {
+                        throw UNSUPPORTED;
+                    }
+                    Scalar type = ls.promote();
+                    // negative or too large shift amounts are undefined
+                    if (Long.compareUnsigned(r, type.width) >= 0) {
+                        throw UNSUPPORTED;
+                    }
+                    int count = (int)r;
+                    if (op.equals(">>")) {
+                        return new IntValue(type, type.signed ? l >> count : l >>> count);
+                    } else if (!type.signed) {
+                        return new IntValue(type, type.normalize(l << count));
+                    } else if (l < 0 || (count > 0 && (l >>> (64 - count)) != 0)) {
+                        throw UNSUPPORTED;
+                    } else {
+                        return new IntValue(type, checked(type, l << count));
+                    }
+                }
+            }
+            Scalar type = Scalar.common(scalar(lhs), scalar(rhs));
+            if (!type.isInteger()) {
+                double l = ((FloatValue)convert(lhs, type)).value();
+                double r = ((FloatValue)convert(rhs, type)).value();
+                double res = switch (op) {
+                    case "+" -> l + r;
+                    case "-" -> l - r;
+                    case "*" -> l * r;
+                    case "/" -> l / r;
+                    case "==" -> l == r ? 1 : 0;
+                    case "!=" -> l != r ? 1 : 0;
+                    case "<" -> l < r ? 1 : 0;
+                    case ">" -> l > r ? 1 : 0;
+                    case "<=" -> l <= r ? 1 : 0;
+                    case ">=" -> l >= r ? 1 : 0;
+                    default -> throw UNSUPPORTED;
+                };
+                return switch (op) {
+                    case "+", "-", "*", "/" -> new FloatValue(type, type == Scalar.FLOAT ? (float)res : res);
+                    default -> new IntValue(Scalar.INT, (long)res);
+                };
+            }
+            long l = ((IntValue)convert(lhs, type)).value();
+            long r = ((IntValue)convert(rhs, type)).value();
+            boolean wide = type.width == 64;
+            try {
+                long res = switch (op) {
+                    case "+" -> type.signed ? checked(type, wide ? Math.addExact(l, r) : l + r) : type.normalize(l + r);
+                    case "-" -> type.signed ? checked(type, wide ? Math.subtractExact(l, r) : l - r) : type.normalize(l - r);
+                    case "*" -> type.signed ? checked(type, wide ? Math.multiplyExact(l, r) : l * r) : type.normalize(l * r);
+                    case "/", "%" -> {
+                        if (r == 0 || (type.signed && wide && l == Long.MIN_VALUE && r == -1)) {
+                            throw UNSUPPORTED;
+                        }
+                        long q = type.signed || !wide ?
+                                (op.equals("/") ? l / r : l % r) :
+                                (op.equals("/") ? Long.divideUnsigned(l, r) : Long.remainderUnsigned(l, r));
+                        yield checked(type, q);
+                    }
+                    case "&" -> l & r;
+                    case "|" -> l | r;
+                    case "^" -> l ^ r;
+                    default -> {
+                        int cmp = type.signed ? Long.compare(l, r) : Long.compareUnsigned(l, r);
+                        boolean holds = switch (op) {
+                            case "==" -> cmp == 0;
+                            case "!=" -> cmp != 0;
+                            case "<" -> cmp < 0;
+                            case ">" -> cmp > 0;
+                            case "<=" -> cmp <= 0;
+                            default -> cmp >= 0;
+                        };
+                        yield holds ? 1 : 0;
+                    }
+                };
+                return switch (op) {
+                    case "==", "!=", "<", ">", "<=", ">=" -> new IntValue(Scalar.INT, res);
+                    default -> new IntValue(type, res);
+                };
+            } catch (ArithmeticException ex) {
+                // signed overflow
+                throw UNSUPPORTED;
+            }
+        }
+
+        // gives up if the given value is not representable in the given (signed) type
+        private long checked(Scalar type, long value) {
+            if (type.normalize(value) != value) {
+                throw UNSUPPORTED;
+            }
+            return value;
+        }
+
+        private Scalar scalar(Value value) {
+            return switch (value) {
+                case IntValue intValue -> intValue.scalar();
+                case FloatValue floatValue -> floatValue.scalar();
+                default -> throw UNSUPPORTED;
+            };
+        }
+
+        private boolean isTrue(Value value) {
+            return switch (value) {
+                case IntValue intValue -> intValue.value() != 0;
+                case FloatValue floatValue -> floatValue.value() != 0;
+                default -> throw UNSUPPORTED;
+            };
+        }
+
+        private Value convert(Value value, Scalar type) {
+            switch (value) {
+                case IntValue(Scalar scalar, long v) -> {
+                    if (type.isInteger()) {
+                        return new IntValue(type, type.normalize(v));
+                    }
+                    if (!scalar.signed && v < 0) {
+                        // unsigned 64-bit values above Long.MAX_VALUE
+                        throw UNSUPPORTED;
+                    }
+                    return new FloatValue(type, type == Scalar.FLOAT ? (float)v : (double)v);
+                }
+                case FloatValue(Scalar scalar, double v) -> {
+                    if (!type.isInteger()) {
+                        return new FloatValue(type, type == Scalar.FLOAT ? (float)v : v);
+                    } else if (type == Scalar.BOOL) {
+                        return new IntValue(type, v != 0 ? 1 : 0);
+                    }
+                    // conversions of values that are out of range (after truncation) are undefined
+                    double truncated = v < 0 ? Math.ceil(v) : Math.floor(v);
+                    if (Double.isNaN(v) || truncated < -0x1p63 || truncated >= 0x1p63) {
+                        throw UNSUPPORTED;
+                    }
+                    long l = (long)truncated;
+                    if ((type.signed && type.normalize(l) != l) || (!type.signed && (l < 0 || type.normalize(l) != l))) {
+                        throw UNSUPPORTED;
+                    }
+                    return new IntValue(type, l);
+                }
+                default -> throw UNSUPPORTED;
+            }
+        }
+
+        private Value number(String token) {
+            boolean hex = token.startsWith("0x") || token.startsWith("0X");
+            boolean isFloat = hex ?
+                    token.indexOf('p') >= 0 || token.indexOf('P') >= 0 :
+                    token.indexOf('.') >= 0 || token.indexOf('e') >= 0 || token.indexOf('E') >= 0;
+            if (isFloat) {
+                char last = token.charAt(token.length() - 1);
+                boolean isSingle = last == 'f' || last == 'F';
+                String body = isSingle ? token.substring(0, token.length() - 1) : token;
+                if (!(hex ? HEX_FLOAT : DECIMAL_FLOAT).matcher(body).matches()) {
+                    // long double literals, or malformed literals
+                    throw UNSUPPORTED;
+                }
+                return isSingle ?
+                        new FloatValue(Scalar.FLOAT, Float.parseFloat(body)) :
+                        new FloatValue(Scalar.DOUBLE, Double.parseDouble(body));
+            }
+            int end = token.length();
+            while (end > 0 && "uUlL".indexOf(token.charAt(end - 1)) >= 0) {
+                end--;
+            }
+            String suffix = token.substring(end);
+            if (!INTEGER_SUFFIX.matcher(suffix).matches()) {
+                throw UNSUPPORTED;
+            }
+            boolean unsigned = suffix.indexOf('u') >= 0 || suffix.indexOf('U') >= 0;
+            int longs = suffix.length() - (unsigned ? 1 : 0);
+            int radix;
+            String digits;
+            if (hex) {
+                radix = 16;
+                digits = token.substring(2, end);
+            } else if (token.charAt(0) == '0' && end > 1) {
+                radix = 8;
+                digits = token.substring(1, end);
+            } else {
+                radix = 10;
+                digits = token.substring(0, end);
+            }
+            if (digits.isEmpty() || !digits.chars().allMatch(c -> Character.digit(c, radix) >= 0)) {
+                throw UNSUPPORTED;
+            }
+            long value;
+            try {
+                value = Long.parseUnsignedLong(digits, radix);
+            } catch (NumberFormatException ex) {
+                throw UNSUPPORTED;
+            }
+            // the type of an integer literal is the first of these that can represent its value
+            boolean decimal = radix == 10;
+            List<Scalar> candidates = switch (longs) {
+                case 0 -> unsigned ? List.of(Scalar.UINT, Scalar.ULONG, Scalar.ULONGLONG) :
+                          decimal ? List.of(Scalar.INT, Scalar.LONG, Scalar.LONGLONG) :
+                          List.of(Scalar.INT, Scalar.UINT, Scalar.LONG, Scalar.ULONG, Scalar.LONGLONG, Scalar.ULONGLONG);
+                case 1 -> unsigned ? List.of(Scalar.ULONG, Scalar.ULONGLONG) :
+                          decimal ? List.of(Scalar.LONG, Scalar.LONGLONG) :
+                          List.of(Scalar.LONG, Scalar.ULONG, Scalar.LONGLONG, Scalar.ULONGLONG);
+                default -> unsigned ? List.of(Scalar.ULONGLONG) :
+                          decimal ? List.of(Scalar.LONGLONG) :
+                          List.of(Scalar.LONGLONG, Scalar.ULONGLONG);
+            };
+            for (Scalar candidate : candidates) {
+                if (candidate.fits(value)) {
+                    return new IntValue(candidate, value);
+                }
+            }
+            throw UNSUPPORTED;
+        }
+
+        private Value charLiteral(String token) {
+            // in C++, character literals have type char, whose signedness depends on the platform
+            if (cpp || token.length() < 3 || !token.endsWith("'")) {
+                throw UNSUPPORTED;
+            }
+            String chars = unescape(token, false);
+            if (chars.isEmpty() || chars.length() > 4) {
+                throw UNSUPPORTED;
+            }
+            // multi-character constants, as computed by clang (and gcc)
+            long value = 0;
+            for (int i = 0; i < chars.length(); i++) {
+                value = (value << 8) | chars.charAt(i);
+            }
+            return new IntValue(Scalar.INT, Scalar.INT.normalize(value));
+        }
+
+        /*
+         * Returns the contents of a string or character literal. Only characters (and escape sequences) in the
+         * ASCII range are supported, except for non-escaped characters in string literals. Strings containing
+         * a NUL character are not supported either, as clang would truncate them.
+         */
+        private String unescape(String literal, boolean isString) {
+            char quote = isString ? '"' : '\'';
+            if (literal.length() < 2 || literal.charAt(0) != quote || literal.charAt(literal.length() - 1) != quote) {
+                throw UNSUPPORTED;
+            }
+            StringBuilder buf = new StringBuilder();
+            int i = 1;
+            int end = literal.length() - 1;
+            while (i < end) {
+                char c = literal.charAt(i++);
+                if (c != '\\') {
+                    if (c >= 0x80 && !isString) {
+                        throw UNSUPPORTED;
+                    }
+                    buf.append(c);
+                    continue;
+                }
+                if (i == end) {
+                    throw UNSUPPORTED;
+                }
+                char e = literal.charAt(i++);
+                int value;
+                switch (e) {
+                    case 'n' -> value = '\n';
+                    case 't' -> value = '\t';
+                    case 'r' -> value = '\r';
+                    case 'a' -> value = 7;
+                    case 'b' -> value = '\b';
+                    case 'f' -> value = '\f';
+                    case 'v' -> value = 11;
+                    case '\\', '\'', '"', '?' -> value = e;
+                    case 'x' -> {
+                        int start = i;
+                        value = 0;
+                        while (i < end && Character.digit(literal.charAt(i), 16) >= 0) {
+                            value = value * 16 + Character.digit(literal.charAt(i++), 16);
+                            if (value >= 0x80) {
+                                throw UNSUPPORTED;
+                            }
+                        }
+                        if (i == start) {
+                            throw UNSUPPORTED;
+                        }
+                    }
+                    default -> {
+                        if (e < '0' || e > '7') {
+                            // universal character names, unknown escapes
+                            throw UNSUPPORTED;
+                        }
+                        value = e - '0';
+                        for (int n = 0; n < 2 && i < end && literal.charAt(i) >= '0' && literal.charAt(i) <= '7'; n++) {
+                            value = value * 8 + (literal.charAt(i++) - '0');
+                        }
+                    }
+                }
+                if (value >= 0x80) {
+                    throw UNSUPPORTED;
+                }
+                buf.append((char)value);
+            }
+            if (buf.indexOf("\0") >= 0) {
+                throw UNSUPPORTED;
+            }
+            return buf.toString();
+        }
+    }
+
+    private static final class UnsupportedMacroException extends RuntimeException {
+        UnsupportedMacroException() {
+            super(null, null, false, false);
+        }
+    }
+}
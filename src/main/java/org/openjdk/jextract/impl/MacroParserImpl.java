@@ -39,52 +39,227 @@ import org.openjdk.jextract.clang.LibClang;
 import org.openjdk.jextract.clang.TranslationUnit;
 
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashSet;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Supplier;
 import java.util.logging.Level;
 import java.util.logging.Logger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 class MacroParserImpl implements AutoCloseable {
     private static final Logger LOGGER = Logger.getLogger(MacroParserImpl.class.getSimpleName());
-    private final ClangReparser reparser;
+    // maximum number of reparsers used to evaluate macros concurrently
+    private static final int REPARSERS = Integer.getInteger("jextract.macro.reparsers",
+            Runtime.getRuntime().availableProcessors());
+    // below this number of macros per reparser, creating a new reparser costs more than it saves
+    private static final int MIN_MACROS_PER_REPARSER = 512;
+    // #undef directives; comments, line continuations and conditional compilation are not taken into account,
+    // which can only cause more macros to be left to clang
+    private static final Pattern UNDEF = Pattern.compile("^\\s*#\\s*undef\\s+(\\w+)", Pattern.MULTILINE);
+
+    private final TranslationUnit tu;
+    private final Supplier<Path> precompiledSupplier;
+    private final Collection<String> args;
+    private final boolean cpp;
+    private Path precompiled;
+    // the precompiled header, if it was saved by this parser (and should be deleted when done)
+    private Path ownPrecompiled;
+    private ClangReparser reparser;
+    private final List<Worker> workers = new ArrayList<>();
     private final TreeMaker treeMaker;
+    private final MacroEvaluator evaluator;
     final MacroTable macroTable;
 
-    private MacroParserImpl(ClangReparser reparser, TreeMaker treeMaker) {
-        this.reparser = reparser;
+    private MacroParserImpl(TreeMaker treeMaker, TranslationUnit tu, Supplier<Path> precompiledSupplier,
+                            Collection<String> args, boolean cpp) {
+        this.tu = tu;
+        this.precompiledSupplier = precompiledSupplier;
+        this.args = args;
+        this.cpp = cpp;
         this.treeMaker = treeMaker;
+        this.evaluator = new MacroEvaluator(args, cpp);
         this.macroTable = new MacroTable();
     }
 
-    static MacroParserImpl make(TreeMaker treeMaker, TranslationUnit tu, Collection<String> args, boolean cpp) {
-        ClangReparser reparser;
+    /*
+     * The reparser is only needed for macros that cannot be evaluated in Java, so it is created lazily. If not null,
+     * precompiled supplies a saved copy of the translation unit (e.g. from the parse cache), which is then used
+     * directly as the precompiled header for the macro reparser; otherwise the translation unit is saved.
+     */
+    static MacroParserImpl make(TreeMaker treeMaker, TranslationUnit tu, Supplier<Path> precompiled,
+                                Collection<String> args, boolean cpp) {
+        return new MacroParserImpl(treeMaker, tu, precompiled, args, cpp);
+    }
+
+    // must be called by the thread owning the translation unit
+    private Path precompiled() {
+        if (precompiled == null) {
+            if (precompiledSupplier != null) {
+                precompiled = precompiledSupplier.get();
+            } else {
+                try {
+                    precompiled = ownPrecompiled = ClangReparser.save(tu);
+                } catch (IOException ex) {
+                    throw new RuntimeException(ex);
+                }
+            }
+        }
+        return precompiled;
+    }
+
+    /*
+     * Returns the names of the macros undefined by the files of the translation unit, or null if some file cannot
+     * be read. Must be called by the thread owning the translation unit.
+     */
+    private Set<String> undefinedMacros() {
+        Set<String> names = new HashSet<>();
+        for (Path file : tu.inclusions()) {
+            try {
+                // only ASCII characters matter here
+                Matcher matcher = UNDEF.matcher(new String(Files.readAllBytes(file), StandardCharsets.ISO_8859_1));
+                while (matcher.find()) {
+                    names.add(matcher.group(1));
+                }
+            } catch (IOException ex) {
+                LOGGER.log(Level.FINE, "Cannot read " + file, ex);
+                return null;
+            }
+        }
+        return names;
+    }
+
+    private ClangReparser newReparser(Path precompiled) {
         try {
-            reparser = new ClangReparser(tu, args, cpp);
+            // AST files not saved by this parser have their dependencies checked by content instead
+            return new ClangReparser(precompiled, args, cpp, ownPrecompiled != null);
         } catch (IOException | Index.ParsingFailedException ex) {
             throw new RuntimeException(ex);
         }
+    }
+
+    private ClangReparser reparser() {
+        if (reparser == null) {
+            reparser = newReparser(precompiled());
+        }
+        return reparser;
+    }
+
+    /*
+     * A reparser running on its own thread. Translation units can only be accessed by the thread that created
+     * them, so the reparser is created, used and closed by the worker thread.
+     */
+    private final class Worker {
+        private final ExecutorService executor = Executors.newSingleThreadExecutor(r -> {
+            Thread thread = new Thread(r, "jextract-macro-reparser");
+            thread.setDaemon(true);
+            return thread;
+        });
+        private ClangReparser reparser;
+
+        Future<List<Outcome>> reparse(Path precompiled, String snippet) {
+            return executor.submit(() -> {
+                if (reparser == null) {
+                    reparser = newReparser(precompiled);
+                }
+                return reparseSnippet(reparser, snippet);
+            });
+        }
+
+        void close() {
+            try {
+                Parser.join(executor.submit(() -> {
+                    if (reparser != null) {
+                        reparser.close();
+                    }
+                }));
+            } finally {
+                executor.shutdown();
+            }
+        }
+    }
+
+    /*
+     * The result of reparsing a macro, computed by a (possibly different) reparser thread. Cursors cannot
+     * leave the thread that created them, so only the type and value obtained from the cursor are retained.
+     * A failed outcome might still have a type (e.g. a pointer), which is used by the recovery step.
+     */
+    record Outcome(String mangledName, boolean success, Type type, Object value) { }
+
+    private static List<Outcome> reparseSnippet(ClangReparser reparser, String snippet) {
+        // note: cursors returned during reparsing are not comparable with existing ones.
+        // Because of that, here we create a brand new tree maker, which means pointers to already declared types
+        // (e.g. structs, unions, enums) will be downgraded to void*.
+        TreeMaker treeMaker = new TreeMaker();
+        List<Outcome> outcomes = new ArrayList<>();
+        try (Cursor.Children children = reparser.reparse(snippet).children()) {
+            for (int i = 0; i < children.size(); i++) {
+                if (children.kind(i) != CursorKind.VarDecl.value()) {
+                    continue;
+                }
+                Cursor c = children.get(i);
+                if (c.spelling().contains("jextract$")) {
+                    outcomes.add(outcome(treeMaker, c));
+                }
+            }
+        }
+        return outcomes;
+    }
 
-        return new MacroParserImpl(reparser, treeMaker);
+    private static Outcome outcome(TreeMaker treeMaker, Cursor decl) {
+        String mangledName = decl.spelling();
+        try (EvalResult result = decl.eval()) {
+            return switch (result.getKind()) {
+                case Integral -> {
+                    long value = result.getAsInt();
+                    yield new Outcome(mangledName, true, treeMaker.toType(decl), value);
+                }
+                case FloatingPoint -> {
+                    double value = result.getAsFloat();
+                    yield new Outcome(mangledName, true, treeMaker.toType(decl), value);
+                }
+                case StrLiteral -> {
+                    String value = result.getAsString();
+                    yield new Outcome(mangledName, true, treeMaker.toType(decl), value);
+                }
+                default -> {
+                    Type type = decl.type().equals(decl.type().canonicalType()) ?
+                            null : treeMaker.toType(decl);
+                    yield new Outcome(mangledName, false, type, null);
+                }
+            };
+        }
     }
 
     /**
      * This method attempts to evaluate the macro. Evaluation occurs in two steps: first, an attempt is made
      * to see if the macro corresponds to a simple numeric constant. If so, the constant is parsed in Java directly.
-     * If that is not possible (e.g. because the macro refers to other macro, or has a more complex grammar), fall
-     * back to use clang evaluation support.
+     * If that is not possible (e.g. because the macro refers to other macro, or has a more complex grammar), the
+     * macro is added to the macro table, which evaluates it once all macros have been seen (see {@link MacroEvaluator}),
+     * and falls back to use clang evaluation support for the macros it cannot evaluate.
      */
     Optional<Declaration.Constant> parseConstant(Cursor cursor, String name, String[] tokens) {
         if (cursor.isMacroFunctionLike()) {
             LOGGER.log(Level.FINER, "Macro is a function, ignoring...");
+            evaluator.undefine(name);
             return Optional.empty();
-        } else if (tokens.length == 2) {
+        }
+        evaluator.define(name, tokens);
+        if (tokens.length == 2) {
             //check for fast path
             Integer num = toNumber(tokens[1]);
             if (num != null) {
@@ -95,6 +270,18 @@ class MacroParserImpl implements AutoCloseable {
         return Optional.empty();
     }
 
+    /**
+     * Records the definition of a macro that is excluded by the include filters. No constant is created
+     * for such a macro, but it is still known to the evaluator, as included macros might expand to it.
+     */
+    void defineExcluded(Cursor cursor, String name, String[] tokens) {
+        if (cursor.isMacroFunctionLike()) {
+            evaluator.undefine(name);
+        } else {
+            evaluator.define(name, tokens);
+        }
+    }
+
     private Integer toNumber(String str) {
         try {
             // Integer.decode supports '#' hex literals which is not valid in C.
@@ -109,26 +296,32 @@ class MacroParserImpl implements AutoCloseable {
      * For performance reasons, the set of includes (which comes from the jextract parser) is compiled
      * into a precompiled header, so as to speed to incremental recompilation of the generated snippets.
      */
-    static class ClangReparser {
+    static class ClangReparser implements AutoCloseable {
+        // a memory-backed directory, if any: temporary files are only ever read back by clang
+        private static final Path SHM_DIR = shmDir();
+
         final Path macro;
         final Index macroIndex = LibClang.createIndex(true);
         final TranslationUnit macroUnit;
 
-        public ClangReparser(TranslationUnit tu, Collection<String> args, boolean cpp) throws IOException, Index.ParsingFailedException {
-            Path precompiled = Files.createTempFile("jextract$", ".pch");
-            precompiled.toFile().deleteOnExit();
-            tu.save(precompiled);
-            this.macro = Files.createTempFile("jextract$", cpp ? ".hpp" : ".h");
+        /*
+         * If validate is false, clang does not check whether the files the precompiled header depends on
+         * have been modified since it was created. This is required for AST files loaded from the parse
+         * cache, whose dependencies are checked by content instead.
+         */
+        public ClangReparser(Path precompiled, Collection<String> args, boolean cpp, boolean validate) throws IOException, Index.ParsingFailedException {
+            this.macro = createTempFile(cpp ? ".hpp" : ".h");
             // if we run in debug mode we keep the file for debug purposes 
             if (!JextractTool.DEBUG) this.macro.toFile().deleteOnExit();
-            String[] patchedArgs = Stream.concat(
+            String[] patchedArgs = Stream.of(
                 Stream.of(
                     // Avoid system search path, use bundled instead
                     "-nostdinc",
                     "-ferror-limit=0",
                     // precompiled header
                     "-include-pch", precompiled.toAbsolutePath().toString()),
-                args.stream()).toArray(String[]::new);
+                validate ? Stream.<String>empty() : Stream.of("-Xclang", "-fno-validate-pch"),
+                args.stream()).flatMap(s -> s).toArray(String[]::new);
             LOGGER.log(Level.FINE, "Running macro parser");
             this.macroUnit = macroIndex.parse(macro.toAbsolutePath().toString(),
                     this::processDiagnostics,
@@ -137,6 +330,53 @@ class MacroParserImpl implements AutoCloseable {
             LOGGER.log(Level.FINE, "Macro parser completed");
         }
 
+        /*
+         * Saves the given translation unit in a temporary file, which should be deleted by the caller as soon
+         * as it is no longer needed. The memory-backed directory is tried first; as it is usually small (e.g.
+         * 64 MB in a container), the translation unit is saved in the default temporary directory if that fails.
+         */
+        static Path save(TranslationUnit tu) throws IOException {
+            if (SHM_DIR != null) {
+                Path precompiled = null;
+                try {
+                    precompiled = Files.createTempFile(SHM_DIR, "jextract$", ".pch");
+                    precompiled.toFile().deleteOnExit();
+                    tu.save(precompiled);
+                    return precompiled;
+                } catch (IOException ex) {
+                    LOGGER.log(Level.FINE, "Cannot save precompiled header in " + SHM_DIR, ex);
+                    if (precompiled != null) {
+                        delete(precompiled);
+                    }
+                }
+            }
+            Path precompiled = Files.createTempFile("jextract$", ".pch");
+            precompiled.toFile().deleteOnExit();
+            try {
+                tu.save(precompiled);
+            } catch (IOException ex) {
+                delete(precompiled);
+                throw ex;
+            }
+            return precompiled;
+        }
+
+        static Path createTempFile(String suffix) throws IOException {
+            if (SHM_DIR != null) {
+                try {
+                    return Files.createTempFile(SHM_DIR, "jextract$", suffix);
+                } catch (IOException ex) {
+                    LOGGER.log(Level.FINE, "Cannot create temporary file in " + SHM_DIR, ex);
+                }
+            }
+            return Files.createTempFile("jextract$", suffix);
+        }
+
+        private static Path shmDir() {
+            Path shm = Path.of("/dev/shm");
+            return !TypeImpl.IS_WINDOWS && Files.isDirectory(shm) && Files.isWritable(shm) ? shm : null;
+        }
+
         void processDiagnostics(Diagnostic diag) {
             if (JextractTool.DEBUG) {
                 System.err.println("Error while processing macro: " + diag.spelling());
@@ -148,6 +388,23 @@ class MacroParserImpl implements AutoCloseable {
                     Index.UnsavedFile.of(macro, snippet));
             return macroUnit.getCursor();
         }
+
+        @Override
+        public void close() {
+            macroUnit.close();
+            macroIndex.close();
+            if (!JextractTool.DEBUG) {
+                delete(macro);
+            }
+        }
+
+        static void delete(Path file) {
+            try {
+                Files.deleteIfExists(file);
+            } catch (IOException ex) {
+                LOGGER.log(Level.FINE, "Cannot delete " + file, ex);
+            }
+        }
     }
 
     /**
@@ -157,7 +414,8 @@ class MacroParserImpl implements AutoCloseable {
      * parsed with some errors, but for which we were at least able to infer a type.
      *
      * The reparsing process goes as follows:
-     * 1. all unparsed macros are added to the table in the UNPARSED state.
+     * 1. all unparsed macros are added to the table in the UNPARSED state; the ones that can be evaluated in Java
+     *    go straight to the SUCCESS state.
      * 2. a snippet for all macros in the UNPARSED state is compiled and the table state is updated
      * 3. a recovery snippet for all macros in the FAILURE state is compiled and the table state is updated again
      * 4. we repeat from (2) until no further progress is made.
@@ -301,6 +559,7 @@ class MacroParserImpl implements AutoCloseable {
 
         public List<Declaration.Constant> reparseConstants() {
             LOGGER.log(Level.FINER, "Reparsing constants");
+            evaluateMacros();
             int last = -1;
             while (macrosByMangledName.size() > 0 && last != macrosByMangledName.size()) {
                 last = macrosByMangledName.size();
@@ -315,72 +574,99 @@ class MacroParserImpl implements AutoCloseable {
                     .collect(Collectors.toList());
         }
 
-        void updateTable(TreeMaker treeMaker, Cursor decl) {
-            String mangledName = decl.spelling();
-            Entry entry = macrosByMangledName.get(mangledName);
-            try (EvalResult result = decl.eval()) {
-                Entry newEntry = switch (result.getKind()) {
-                    case Integral -> {
-                        long value = result.getAsInt();
-                        yield entry.success(treeMaker.toType(decl), value);
-                    }
-                    case FloatingPoint -> {
-                        double value = result.getAsFloat();
-                        yield entry.success(treeMaker.toType(decl), value);
-                    }
-                    case StrLiteral -> {
-                        String value = result.getAsString();
-                        yield entry.success(treeMaker.toType(decl), value);
-                    }
-                    default -> {
-                        Type type = decl.type().equals(decl.type().canonicalType()) ?
-                                null : treeMaker.toType(decl);
-                        yield entry.failure(type);
-                    }
-                };
-                newEntry.update();
+        void evaluateMacros() {
+            if (macrosByMangledName.values().stream().noneMatch(Entry::isUnparsed)) {
+                return;
+            }
+            Set<String> undefined = undefinedMacros();
+            if (undefined == null) {
+                // cannot tell which definitions are still active, leave all the macros to clang
+                return;
+            }
+            evaluator.markUndefined(undefined);
+            for (Entry entry : List.copyOf(macrosByMangledName.values())) {
+                if (entry.isUnparsed()) {
+                    evaluator.evaluate(entry.name).ifPresent(result -> {
+                        LOGGER.log(Level.FINER, "Macro evaluated in Java: {0}", entry.name);
+                        entry.success(result.type(), result.value()).update();
+                    });
+                }
             }
         }
 
+        void apply(Outcome outcome) {
+            Entry entry = macrosByMangledName.get(outcome.mangledName());
+            Entry newEntry = outcome.success() ?
+                    entry.success(outcome.type(), outcome.value()) :
+                    entry.failure(outcome.type());
+            newEntry.update();
+        }
+
+        /*
+         * If there are enough candidates, they are split in contiguous chunks, each reparsed by a different
+         * reparser (sharing the same precompiled header) on its own thread. Outcomes are then applied in
+         * table order, so that the resulting table does not depend on how the work was scheduled.
+         */
         void reparseMacros(boolean recovery) {
-            String snippet = macroDecl(recovery);
-            // note: cursors returned during reparsing are not comparable with existing ones.
-            // Because of that, here we create a brand new tree maker, which means pointers to already declared types
-            // (e.g. structs, unions, enums) will be downgraded to void*.
-            TreeMaker treeMaker = new TreeMaker();
-            reparser.reparse(snippet).forEach(c -> {
-                if (c.kind() == CursorKind.VarDecl &&
-                        c.spelling().contains("jextract$")) {
-                    updateTable(treeMaker, c);
-                }
-            });
+            List<Entry> candidates = macrosByMangledName.values().stream()
+                    .filter(recovery ? Entry::isRecoverableFailure : Entry::isUnparsed)
+                    .toList();
+            if (candidates.isEmpty()) {
+                // nothing to reparse
+                return;
+            }
+            int chunks = Math.min(REPARSERS, candidates.size() / MIN_MACROS_PER_REPARSER);
+            if (chunks <= 1) {
+                reparseSnippet(reparser(), macroDecl(candidates, recovery)).forEach(this::apply);
+                return;
+            }
+            Path precompiled = precompiled();
+            while (workers.size() < chunks) {
+                workers.add(new Worker());
+            }
+            LOGGER.log(Level.FINE, "Reparsing {0} macros using {1} reparsers", new Object[] { candidates.size(), chunks });
+            List<Future<List<Outcome>>> futures = new ArrayList<>();
+            for (int i = 0; i < chunks; i++) {
+                List<Entry> chunk = candidates.subList(
+                        (int)((long)candidates.size() * i / chunks),
+                        (int)((long)candidates.size() * (i + 1) / chunks));
+                futures.add(workers.get(i).reparse(precompiled, macroDecl(chunk, recovery)));
+            }
+            for (Future<List<Outcome>> future : futures) {
+                Parser.join(future).forEach(this::apply);
+            }
         }
 
-        String macroDecl(boolean recovery) {
+        String macroDecl(List<Entry> entries, boolean recovery) {
             StringBuilder buf = new StringBuilder();
             if (recovery) {
                 buf.append("#include <stdint.h>\n");
             }
-            macrosByMangledName.values().stream()
-                    .filter(e -> !e.isSuccess()) // skip macros that already have passed
-                    .filter(recovery ? Entry::isRecoverableFailure : Entry::isUnparsed)
-                    .forEach(e -> {
-                        buf.append("__auto_type ")
-                                .append(e.mangledName())
-                                .append(" = ");
-                        if (recovery) {
-                            buf.append("(uintptr_t)");
-                        }
-                        buf.append(e.name)
-                                .append(";\n");
-                    });
+            entries.forEach(e -> {
+                buf.append("__auto_type ")
+                        .append(e.mangledName())
+                        .append(" = ");
+                if (recovery) {
+                    buf.append("(uintptr_t)");
+                }
+                buf.append(e.name)
+                        .append(";\n");
+            });
             return buf.toString();
         }
     }
 
     @Override
     public void close() {
-        reparser.macroUnit.close();
-        reparser.macroIndex.close();
+        try {
+            workers.forEach(Worker::close);
+            if (reparser != null) {
+                reparser.close();
+            }
+        } finally {
+            if (ownPrecompiled != null) {
+                ClangReparser.delete(ownPrecompiled);
+            }
+        }
     }
 }
@@ -49,7 +49,7 @@ import javax.lang.model.SourceVersion;
  * in the corresponding declaration. The mangled name is later retrieved by
  * OutputFactory via the lookup methods provided by this class.
  */
-final class NameMangler implements Declaration.Visitor<Void, Declaration> {
+final class NameMangler implements Declaration.Visitor<Void, Declaration>, PassManager.Pass {
     private static final Logger LOGGER = Logger.getLogger(TreeMaker.class.getSimpleName());
     private final String headerName;
 
@@ -121,13 +121,17 @@ final class NameMangler implements Declaration.Visitor<Void, Declaration> {
     }
 
     // entry point for this visitor
-    Declaration.Scoped scan(Declaration.Scoped header) {
+    @Override
+    public void start(Declaration.Scoped header) {
         String javaName = javaSafeIdentifier(headerName.replace(".h", "_h"), true);
         curScope = Scope.newHeader(javaName);
         JavaName.with(header, List.of(javaName));
-        // Process all header declarations are collect java name mappings
-        header.members().forEach(fieldTree -> fieldTree.accept(this, null));
-        return header;
+    }
+
+    // Process all header declarations are collect java name mappings
+    @Override
+    public void visitToplevel(Declaration decl) {
+        decl.accept(this, null);
     }
 
     @Override
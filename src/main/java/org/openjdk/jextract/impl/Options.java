@@ -24,7 +24,9 @@ package org.openjdk.jextract.impl;
 
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 public final class Options {
 
@@ -39,10 +41,22 @@ public final class Options {
     public final String outputDir;
     public final boolean source;
     public final IncludeHelper includeHelper;
+    // parse cache directory (null if no cache should be used)
+    public final String parseCacheDir;
+    // file where the parsed declaration tree should be saved (null if the tree should not be saved)
+    public final String saveTreeFile;
+    // file from which a saved declaration tree should be loaded, instead of parsing a header (or null)
+    public final String loadTreeFile;
+    // only write the output files that changed, and delete the files that are no longer generated
+    public final boolean incremental;
+    // functions to be linked as critical -> whether heap access is allowed
+    public final Map<String, Boolean> criticalFunctions;
 
     private Options(List<String> clangArgs, List<String> libraryNames,
             List<String> filters, String targetPackage,
-            String outputDir, boolean source, IncludeHelper includeHelper) {
+            String outputDir, boolean source, IncludeHelper includeHelper,
+            String parseCacheDir, String saveTreeFile, String loadTreeFile,
+            boolean incremental, Map<String, Boolean> criticalFunctions) {
         this.clangArgs = clangArgs;
         this.libraryNames = libraryNames;
         this.filters = filters;
@@ -50,6 +64,11 @@ public final class Options {
         this.outputDir = outputDir;
         this.source = source;
         this.includeHelper = includeHelper;
+        this.parseCacheDir = parseCacheDir;
+        this.saveTreeFile = saveTreeFile;
+        this.loadTreeFile = loadTreeFile;
+        this.incremental = incremental;
+        this.criticalFunctions = criticalFunctions;
     }
 
     public static Builder builder() {
@@ -68,6 +87,11 @@ public final class Options {
         private String outputDir;
         private boolean source;
         private IncludeHelper includeHelper = new IncludeHelper();
+        private String parseCacheDir;
+        private String saveTreeFile;
+        private String loadTreeFile;
+        private boolean incremental;
+        private final Map<String, Boolean> criticalFunctions = new LinkedHashMap<>();
 
         public Builder() {
             this.clangArgs = new ArrayList<>();
@@ -83,7 +107,9 @@ public final class Options {
                     Collections.unmodifiableList(clangArgs),
                     Collections.unmodifiableList(libraryNames),
                     Collections.unmodifiableList(filters),
-                    targetPackage, outputDir, source, includeHelper
+                    targetPackage, outputDir, source, includeHelper,
+                    parseCacheDir, saveTreeFile, loadTreeFile, incremental,
+                    Collections.unmodifiableMap(criticalFunctions)
             );
         }
 
@@ -111,6 +137,26 @@ public final class Options {
             source = true;
         }
 
+        public void setParseCacheDir(String parseCacheDir) {
+            this.parseCacheDir = parseCacheDir;
+        }
+
+        public void setSaveTreeFile(String saveTreeFile) {
+            this.saveTreeFile = saveTreeFile;
+        }
+
+        public void setLoadTreeFile(String loadTreeFile) {
+            this.loadTreeFile = loadTreeFile;
+        }
+
+        public void setIncremental() {
+            incremental = true;
+        }
+
+        public void addCriticalFunction(String name, boolean allowHeapAccess) {
+            criticalFunctions.put(name, allowHeapAccess);
+        }
+
         public void setDumpIncludeFile(String dumpIncludesFile) {
             includeHelper.dumpIncludesFile = dumpIncludesFile;
         }
@@ -31,22 +31,32 @@ import org.openjdk.jextract.impl.DeclarationImpl.Skip;
 
 import javax.tools.JavaFileObject;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
 
 /*
  * Scan a header file and generate Java source items for entities defined in that header
  * file. Tree visitor visit methods return true/false depending on whether a
  * particular Tree is processed or skipped.
+ *
+ * The tree is only read while generating sources: top-level source files other than the header
+ * class are generated from a record of the builder calls made for them (see ToplevelBuilder),
+ * possibly in parallel, after the tree has been visited.
  */
 public class OutputFactory implements Declaration.Visitor<Void, Declaration> {
     protected final ToplevelBuilder toplevelBuilder;
     protected Builder currentBuilder;
+    // scoped declarations already generated, which can be reached more than once
+    private final Set<Declaration> generated = Collections.newSetFromMap(new IdentityHashMap<>());
 
     static JavaFileObject[] generateWrapped(Declaration.Scoped decl,
-                String pkgName, List<String> libraryNames) {
+                String pkgName, List<String> libraryNames, boolean classFiles, Consumer<JavaFileObject> sink) {
         String clsName = JavaName.getOrThrow(decl);
-        ToplevelBuilder toplevelBuilder = new ToplevelBuilder(pkgName, clsName, libraryNames);
-        return new OutputFactory(toplevelBuilder).generate(decl);
+        ToplevelBuilder toplevelBuilder = new ToplevelBuilder(pkgName, clsName, libraryNames, classFiles);
+        return new OutputFactory(toplevelBuilder).generate(decl, sink);
     }
 
     private OutputFactory(ToplevelBuilder toplevelBuilder) {
@@ -54,10 +64,10 @@ public class OutputFactory implements Declaration.Visitor<Void, Declaration> {
         this.currentBuilder = toplevelBuilder;
     }
 
-    JavaFileObject[] generate(Declaration.Scoped decl) {
+    JavaFileObject[] generate(Declaration.Scoped decl, Consumer<JavaFileObject> sink) {
         //generate all decls
         decl.members().forEach(this::generateDecl);
-        List<JavaFileObject> files = new ArrayList<>(toplevelBuilder.toFiles());
+        List<JavaFileObject> files = new ArrayList<>(toplevelBuilder.toFiles(sink));
         return files.toArray(new JavaFileObject[0]);
     }
 
@@ -81,14 +91,13 @@ public class OutputFactory implements Declaration.Visitor<Void, Declaration> {
 
     @Override
     public Void visitScoped(Declaration.Scoped d, Declaration parent) {
-        if (Skip.isPresent(d)) {
-            return null;
+        if (Skip.isPresent(d) || !generated.add(d)) {
+            return null; // do not generate twice
         }
 
-        Skip.with(d); // do not generate twice
         boolean isStructKind = Utils.isStructOrUnion(d);
         Builder prevBuilder = null;
-        StructBuilder structBuilder = null;
+        Builder structBuilder = null;
         if (isStructKind) {
             prevBuilder = currentBuilder;
             currentBuilder = structBuilder = currentBuilder.addStruct(d);
@@ -208,7 +217,11 @@ public class OutputFactory implements Declaration.Visitor<Void, Declaration> {
             throw new UnsupportedOperationException("Not implemented");
         }
 
-        default StructBuilder addStruct(Declaration.Scoped structTree) {
+        default Builder addStruct(Declaration.Scoped structTree) {
+            throw new UnsupportedOperationException("Not implemented");
+        }
+
+        default void end() {
             throw new UnsupportedOperationException("Not implemented");
         }
 
@@ -0,0 +1,256 @@
+/*
+ *  Copyright (c) 2024, Oracle and/or its affiliates. All rights reserved.
+ *  DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ *  This code is free software; you can redistribute it and/or modify it
+ *  under the terms of the GNU General Public License version 2 only, as
+ *  published by the Free Software Foundation.  Oracle designates this
+ *  particular file as subject to the "Classpath" exception as provided
+ *  by Oracle in the LICENSE file that accompanied this code.
+ *
+ *  This code is distributed in the hope that it will be useful, but WITHOUT
+ *  ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ *  FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ *  version 2 for more details (a copy is included in the LICENSE file that
+ *  accompanied this code).
+ *
+ *  You should have received a copy of the GNU General Public License version
+ *  2 along with this work; if not, write to the Free Software Foundation,
+ *  Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ *   Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ *  or visit www.oracle.com if you need additional information or have any
+ *  questions.
+ *
+ */
+package org.openjdk.jextract.impl;
+
+import org.openjdk.jextract.clang.LibClang;
+import org.openjdk.jextract.clang.TranslationUnit;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * An on-disk cache of parsed translation units. Each cache entry is made up of two files: an AST file,
+ * obtained by saving a translation unit, and a dependency file, which lists all the files included by
+ * that translation unit, along with a hash of their contents. Entries are keyed by the path of the main
+ * header, the clang arguments and the libclang version. An entry is only used if none of the files it
+ * depends upon has changed since the entry was created.
+ * <p>
+ * The dependency file also lists the files which would have shadowed an included file, had they existed:
+ * for an included file found in an include directory, the same relative path in all the include directories
+ * which come before it on the search path. An entry is not used if one of these files has been created.
+ */
+public final class ParseCache {
+    private static final Logger LOGGER = Logger.getLogger(ParseCache.class.getSimpleName());
+
+    private final Path dir;
+
+    // marks a file which must not exist in a dependency file, in place of a hash
+    private static final String ABSENT = "-";
+    private static final List<String> INCLUDE_DIR_OPTIONS = List.of("-iquote", "-isystem", "-idirafter", "-I");
+
+    public ParseCache(Path dir) {
+        this.dir = dir;
+        LibClang.disablePCHValidation();
+    }
+
+    Entry entry(Path header, Collection<String> args) {
+        MessageDigest digest = newDigest();
+        update(digest, header.toAbsolutePath().toString());
+        args.forEach(arg -> update(digest, arg));
+        update(digest, LibClang.version());
+        String key = HexFormat.of().formatHex(digest.digest());
+        return new Entry(dir.resolve(key + ".ast"), dir.resolve(key + ".deps"), includeDirs(header, args));
+    }
+
+    /*
+     * Returns the include directories given by the clang arguments, in search order (the directory of the
+     * main header comes first, as it is searched for quoted includes). Only an approximation of the search
+     * path used by clang: e.g. the directory of an including header is not considered.
+     */
+    private static List<Path> includeDirs(Path header, Collection<String> args) {
+        List<Path> dirs = new ArrayList<>();
+        Path headerDir = header.toAbsolutePath().getParent();
+        if (headerDir != null) {
+            dirs.add(headerDir.normalize());
+        }
+        List<List<Path>> dirsByOption = new ArrayList<>();
+        INCLUDE_DIR_OPTIONS.forEach(option -> dirsByOption.add(new ArrayList<>()));
+        String pendingOption = null;
+        for (String arg : args) {
+            if (pendingOption != null) {
+                dirsByOption.get(INCLUDE_DIR_OPTIONS.indexOf(pendingOption)).add(Path.of(arg).toAbsolutePath().normalize());
+                pendingOption = null;
+                continue;
+            }
+            for (String option : INCLUDE_DIR_OPTIONS) {
+                if (arg.equals(option)) {
+                    pendingOption = option;
+                    break;
+                } else if (arg.startsWith(option)) {
+                    dirsByOption.get(INCLUDE_DIR_OPTIONS.indexOf(option))
+                            .add(Path.of(arg.substring(option.length())).toAbsolutePath().normalize());
+                    break;
+                }
+            }
+        }
+        // clang searches -iquote, then -I, then -isystem and finally -idirafter directories
+        dirs.addAll(dirsByOption.get(0));
+        dirs.addAll(dirsByOption.get(3));
+        dirs.addAll(dirsByOption.get(1));
+        dirs.addAll(dirsByOption.get(2));
+        return dirs;
+    }
+
+    final class Entry {
+        private final Path astFile;
+        private final Path depsFile;
+        private final List<Path> includeDirs;
+        // set if the AST file can be used, either because it was found valid or because it has just been stored
+        private boolean usable;
+
+        private Entry(Path astFile, Path depsFile, List<Path> includeDirs) {
+            this.astFile = astFile;
+            this.depsFile = depsFile;
+            this.includeDirs = includeDirs;
+        }
+
+        Path astFile() {
+            return astFile;
+        }
+
+        boolean isUsable() {
+            return usable;
+        }
+
+        /**
+         * {@return true if this entry exists, none of the files it depends upon has been modified, and none of
+         * the files which would have shadowed them has been created}
+         */
+        boolean isValid() {
+            if (!Files.isRegularFile(astFile) || !Files.isRegularFile(depsFile)) {
+                return false;
+            }
+            try {
+                for (String line : Files.readAllLines(depsFile)) {
+                    int sep = line.indexOf(' ');
+                    if (sep == -1) {
+                        return false;
+                    }
+                    Path dep = Path.of(line.substring(sep + 1));
+                    if (line.substring(0, sep).equals(ABSENT)) {
+                        if (Files.exists(dep)) {
+                            LOGGER.log(Level.FINE, "Cache entry {0} is stale: {1} created", new Object[] { astFile, dep });
+                            return false;
+                        }
+                    } else if (!Files.isRegularFile(dep) || !line.substring(0, sep).equals(hash(dep))) {
+                        LOGGER.log(Level.FINE, "Cache entry {0} is stale: {1} changed", new Object[] { astFile, dep });
+                        return false;
+                    }
+                }
+            } catch (IOException ex) {
+                LOGGER.log(Level.FINE, "Cannot read cache entry " + depsFile, ex);
+                return false;
+            }
+            usable = true;
+            return true;
+        }
+
+        /**
+         * Stores the given translation unit in this entry. Files are first written in temporary locations,
+         * and then moved in place, so that concurrent jextract runs never see a partially written entry.
+         * If the translation unit cannot be stored, this entry is left unusable, and a warning is logged.
+         */
+        void store(TranslationUnit tu) {
+            List<Path> tmpFiles = new ArrayList<>();
+            try {
+                Files.createDirectories(dir);
+                Path tmpAst = Files.createTempFile(dir, "jextract$", ".ast");
+                tmpFiles.add(tmpAst);
+                tu.save(tmpAst);
+                List<String> deps = new ArrayList<>();
+                for (Path dep : tu.inclusions()) {
+                    deps.add(hash(dep) + " " + dep.toAbsolutePath());
+                    for (Path shadowing : shadowingCandidates(dep, includeDirs)) {
+                        deps.add(ABSENT + " " + shadowing);
+                    }
+                }
+                Path tmpDeps = Files.createTempFile(dir, "jextract$", ".deps");
+                tmpFiles.add(tmpDeps);
+                Files.write(tmpDeps, deps);
+                Files.move(tmpAst, astFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                Files.move(tmpDeps, depsFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                usable = true;
+            } catch (IOException ex) {
+                LOGGER.log(Level.WARNING, "Cannot store parse cache entry " + astFile, ex);
+                for (Path tmp : tmpFiles) {
+                    try {
+                        Files.deleteIfExists(tmp);
+                    } catch (IOException ignored) {
+                        // best effort
+                    }
+                }
+            }
+        }
+    }
+
+    /*
+     * Returns the files which would be found instead of the given included file, if they existed: the same
+     * relative path, in the include directories which are searched before the directory where the file was
+     * found (assumed to be the innermost include directory containing the file). If the file is in none of
+     * the include directories, no file is returned.
+     */
+    private static List<Path> shadowingCandidates(Path dep, List<Path> includeDirs) {
+        Path file = dep.toAbsolutePath().normalize();
+        int found = -1;
+        for (int i = 0 ; i < includeDirs.size() ; i++) {
+            if (file.startsWith(includeDirs.get(i)) &&
+                    (found == -1 || includeDirs.get(i).getNameCount() > includeDirs.get(found).getNameCount())) {
+                found = i;
+            }
+        }
+        if (found == -1) {
+            return List.of();
+        }
+        Path relative = includeDirs.get(found).relativize(file);
+        List<Path> candidates = new ArrayList<>();
+        for (Path includeDir : includeDirs.subList(0, found)) {
+            Path candidate = includeDir.resolve(relative);
+            if (!candidate.equals(file)) {
+                candidates.add(candidate);
+            }
+        }
+        return candidates;
+    }
+
+    static String hash(Path file) throws IOException {
+        return HexFormat.of().formatHex(newDigest().digest(Files.readAllBytes(file)));
+    }
+
+    private static void update(MessageDigest digest, String str) {
+        digest.update(str.getBytes(StandardCharsets.UTF_8));
+        // separator, so that e.g. ("-Ia", "b") and ("-I", "ab") have different keys
+        digest.update((byte)0);
+    }
+
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+}
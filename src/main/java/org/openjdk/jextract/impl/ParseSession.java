@@ -0,0 +1,200 @@
+/*
+ *  Copyright (c) 2024, Oracle and/or its affiliates. All rights reserved.
+ *  DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ *  This code is free software; you can redistribute it and/or modify it
+ *  under the terms of the GNU General Public License version 2 only, as
+ *  published by the Free Software Foundation.  Oracle designates this
+ *  particular file as subject to the "Classpath" exception as provided
+ *  by Oracle in the LICENSE file that accompanied this code.
+ *
+ *  This code is distributed in the hope that it will be useful, but WITHOUT
+ *  ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ *  FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ *  version 2 for more details (a copy is included in the LICENSE file that
+ *  accompanied this code).
+ *
+ *  You should have received a copy of the GNU General Public License version
+ *  2 along with this work; if not, write to the Free Software Foundation,
+ *  Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ *   Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ *  or visit www.oracle.com if you need additional information or have any
+ *  questions.
+ *
+ */
+package org.openjdk.jextract.impl;
+
+import org.openjdk.jextract.Declaration;
+import org.openjdk.jextract.clang.Index;
+import org.openjdk.jextract.clang.LibClang;
+import org.openjdk.jextract.clang.TranslationUnit;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * A parse session keeps the translation units it parses alive, so that subsequent requests for the same
+ * header (and clang arguments) do not pay for a full parse. If none of the files included by a translation
+ * unit has changed, the translation unit is used as is; otherwise, it is reparsed, which allows clang to
+ * reuse the precompiled preamble of the translation unit. Declarations are always created anew, as they
+ * are modified by the passes that run after parsing.
+ * <p>
+ * Translation units can only be accessed by the thread that created them, so all the work is done by
+ * a dedicated thread; as a result, requests made on the same session are serialized.
+ */
+public final class ParseSession implements AutoCloseable {
+    private static final Logger LOGGER = Logger.getLogger(ParseSession.class.getSimpleName());
+
+    private final Map<Key, Unit> units = new HashMap<>();
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "jextract-parse-session");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    record Key(Path header, List<String> args) { }
+
+    public Declaration.Scoped parse(Path header, Collection<String> args, IncludeHelper includeHelper) {
+        return Parser.join(executor.submit(() -> parseInternal(header, List.copyOf(args), includeHelper)));
+    }
+
+    private Declaration.Scoped parseInternal(Path header, List<String> args, IncludeHelper includeHelper) {
+        Key key = new Key(header.toAbsolutePath(), args);
+        Unit unit = units.get(key);
+        try {
+            if (unit == null) {
+                unit = Unit.parse(header, args);
+                units.put(key, unit);
+            } else if (unit.isStale()) {
+                LOGGER.log(Level.FINE, "Reparsing file: {0}", header);
+                unit.reparse();
+            } else {
+                LOGGER.log(Level.FINE, "Reusing translation unit for file: {0}", header);
+            }
+            return new Parser(null, includeHelper).parse(header, unit.tu, unit::precompiled, args);
+        } catch (RuntimeException ex) {
+            // the translation unit might have errors, or be out of sync with the files it depends upon
+            units.remove(key);
+            if (unit != null) {
+                unit.close();
+            }
+            throw ex;
+        }
+    }
+
+    @Override
+    public void close() {
+        try {
+            Parser.join(executor.submit(() -> {
+                units.values().forEach(Unit::close);
+                units.clear();
+            }));
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    // A translation unit, along with a saved copy (used by the macro parser, if needed) and the hashes of its dependencies
+    private static final class Unit implements AutoCloseable {
+        final Index index;
+        final TranslationUnit tu;
+        // saved on demand, as the macro parser might not need it, and kept until the unit is reparsed or closed
+        private Path precompiled;
+        Map<Path, String> hashes;
+
+        private Unit(Index index, TranslationUnit tu) {
+            this.index = index;
+            this.tu = tu;
+        }
+
+        static Unit parse(Path header, Collection<String> args) {
+            Index index = LibClang.createIndex(false);
+            Unit unit = null;
+            try {
+                unit = new Unit(index, index.parseForReparse(header.toString(), Parser::checkDiagnostic,
+                        args.toArray(new String[0])));
+                unit.update();
+                return unit;
+            } catch (RuntimeException ex) {
+                if (unit != null) {
+                    unit.close();
+                } else {
+                    index.close();
+                }
+                throw ex;
+            }
+        }
+
+        boolean isStale() {
+            try {
+                for (Map.Entry<Path, String> entry : hashes.entrySet()) {
+                    if (!Files.isRegularFile(entry.getKey()) ||
+                            !ParseCache.hash(entry.getKey()).equals(entry.getValue())) {
+                        return true;
+                    }
+                }
+                return false;
+            } catch (IOException ex) {
+                return true;
+            }
+        }
+
+        void reparse() {
+            tu.reparse(Parser::checkDiagnostic);
+            update();
+        }
+
+        Path precompiled() {
+            if (precompiled == null) {
+                try {
+                    precompiled = MacroParserImpl.ClangReparser.save(tu);
+                } catch (IOException ex) {
+                    throw new UncheckedIOException(ex);
+                }
+            }
+            return precompiled;
+        }
+
+        private void update() {
+            try {
+                deletePrecompiled();
+                Map<Path, String> newHashes = new HashMap<>();
+                for (Path dep : tu.inclusions()) {
+                    newHashes.put(dep.toAbsolutePath(), ParseCache.hash(dep));
+                }
+                hashes = newHashes;
+            } catch (IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+        }
+
+        private void deletePrecompiled() {
+            if (precompiled != null) {
+                try {
+                    Files.deleteIfExists(precompiled);
+                } catch (IOException ex) {
+                    LOGGER.log(Level.FINE, "Cannot delete " + precompiled, ex);
+                }
+                precompiled = null;
+            }
+        }
+
+        @Override
+        public void close() {
+            tu.close();
+            index.close();
+            deletePrecompiled();
+        }
+    }
+}
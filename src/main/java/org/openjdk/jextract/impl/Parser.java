@@ -29,95 +29,247 @@ import org.openjdk.jextract.Declaration;
 import org.openjdk.jextract.clang.Cursor;
 import org.openjdk.jextract.clang.CursorKind;
 import org.openjdk.jextract.clang.Diagnostic;
+import org.openjdk.jextract.clang.FileLocation;
 import org.openjdk.jextract.clang.Index;
 import org.openjdk.jextract.clang.LibClang;
-import org.openjdk.jextract.clang.SourceLocation;
 import org.openjdk.jextract.clang.SourceRange;
 import org.openjdk.jextract.clang.TranslationUnit;
+import org.openjdk.jextract.clang.Type;
+import org.openjdk.jextract.impl.DeclarationImpl.ClangSizeOf;
 
 import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Supplier;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
 public class Parser {
     private static final Logger LOGGER = Logger.getLogger(Parser.class.getSimpleName());
     private final TreeMaker treeMaker;
+    private final ParseCache cache;
+    // null, unless declarations that are not included can be skipped while parsing
+    private final IncludeHelper includeHelper;
 
     public Parser() {
+        this((ParseCache)null);
+    }
+
+    /**
+     * Creates a parser which looks up translation units in the given cache (if not {@code null}) before
+     * parsing them, and stores them in the cache after they have been parsed.
+     * @param cache the parse cache, or {@code null}.
+     */
+    public Parser(ParseCache cache) {
+        this(cache, null);
+    }
+
+    /**
+     * Creates a parser which skips the toplevel function and variable declarations that are not included
+     * by the given include helper (if not {@code null}).
+     * @param cache the parse cache, or {@code null}.
+     * @param includeHelper the include helper, or {@code null}.
+     */
+    public Parser(ParseCache cache, IncludeHelper includeHelper) {
         this.treeMaker = new TreeMaker();
+        this.cache = cache;
+        this.includeHelper = includeHelper != null && includeHelper.isEnabled() ? includeHelper : null;
+    }
+
+    private Parser(SymbolTable symbolTable) {
+        this.treeMaker = new TreeMaker(symbolTable);
+        this.cache = null;
+        this.includeHelper = null;
+    }
+
+    /**
+     * Parse the given headers in parallel. Each header is parsed in its own translation unit (using its
+     * own libclang index), on a separate worker thread. Record and enum definitions that are seen by more
+     * than one translation unit are shared, so that the resulting toplevel declaration contains only one
+     * declaration for them. Note that, unlike when the headers are parsed together, a header cannot depend
+     * on macros or declarations that are only provided by another header.
+     * @param paths the headers to be parsed.
+     * @param args the clang arguments to be used for all the headers.
+     * @param parallelism the maximum number of headers to be parsed concurrently.
+     * @return a toplevel declaration containing the declarations of all the headers, in header order.
+     */
+    public static Declaration.Scoped parse(List<Path> paths, Collection<String> args, int parallelism) {
+        SymbolTable symbolTable = new SymbolTable();
+        ExecutorService executor = Executors.newFixedThreadPool(Math.min(parallelism, paths.size()));
+        try {
+            List<Future<Declaration.Scoped>> futures = paths.stream()
+                    .map(path -> executor.submit(() -> new Parser(symbolTable).parse(path, args)))
+                    .toList();
+            List<Declaration.Scoped> headers = new ArrayList<>();
+            for (Future<Declaration.Scoped> future : futures) {
+                headers.add(join(future));
+            }
+            return merge(headers);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    static <Z> Z join(Future<Z> future) {
+        try {
+            return future.get();
+        } catch (ExecutionException ex) {
+            if (ex.getCause() instanceof RuntimeException re) {
+                throw re;
+            } else if (ex.getCause() instanceof Error err) {
+                throw err;
+            } else {
+                throw new IllegalStateException(ex.getCause());
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    /*
+     * Shared declarations appear in more than one header, so they are only added once. Other declarations
+     * coming from a header included by more than one input (e.g. typedefs and functions) are duplicated, so
+     * only the first one is kept, as DuplicateFilter would do. Opaque records are dropped if some other
+     * translation unit provided a definition for them.
+     */
+    private static Declaration.Scoped merge(List<Declaration.Scoped> headers) {
+        Set<String> definedRecords = new HashSet<>();
+        for (Declaration.Scoped header : headers) {
+            header.members().stream()
+                    .filter(d -> Utils.isStructOrUnion(d) && ClangSizeOf.get(d).isPresent())
+                    .forEach(d -> definedRecords.add(recordKey((Declaration.Scoped) d)));
+        }
+        Set<Declaration> seen = Collections.newSetFromMap(new IdentityHashMap<>());
+        Set<String> seenNames = new HashSet<>();
+        List<Declaration> decls = new ArrayList<>();
+        for (Declaration.Scoped header : headers) {
+            for (Declaration d : header.members()) {
+                if (!seen.add(d)) {
+                    continue;
+                }
+                String key = mergeKey(d);
+                if (key == null || (!definedRecords.contains(key) && seenNames.add(key))) {
+                    decls.add(d);
+                }
+            }
+        }
+        return Declaration.toplevel(headers.getFirst().pos(), decls.toArray(new Declaration[0]));
+    }
+
+    private static String mergeKey(Declaration d) {
+        return switch (d) {
+            case Declaration.Scoped s when Utils.isStructOrUnion(s) ->
+                    ClangSizeOf.get(s).isEmpty() ? recordKey(s) : null;
+            case Declaration.Typedef t -> STR."typedef \{t.name()}";
+            case Declaration.Function f -> STR."function \{f.name()}";
+            case Declaration.Variable v -> STR."variable \{v.name()}";
+            case Declaration.Constant c -> STR."constant \{c.name()}";
+            default -> null;
+        };
+    }
+
+    private static String recordKey(Declaration.Scoped record) {
+        return STR."\{record.kind()} \{record.name()}";
     }
 
     public Declaration.Scoped parse(Path path, Collection<String> args) {
         LOGGER.log(Level.FINE, "Parsing file: {0}", path);
+        ParseCache.Entry cacheEntry = cache != null ? cache.entry(path, args) : null;
         try (Index index = LibClang.createIndex(false) ;
-             TranslationUnit tu = index.parse(path.toString(),
-                d -> {
-                    if (d.severity() > Diagnostic.CXDiagnostic_Warning) {
-                        LOGGER.log(Level.FINE, "Parse error: {0}", d.toString());
-                        throw new ClangException(d.toString());
-                    }
-                },
-            true, args.toArray(new String[0])) ;
-            MacroParserImpl macroParser = MacroParserImpl.make(treeMaker, tu, args,
-                    path.toString().endsWith(".hpp")))
-        {
+             TranslationUnit tu = parseOrLoad(index, path, args, cacheEntry)) {
+            Supplier<Path> precompiled = cacheEntry != null && cacheEntry.isUsable() ? cacheEntry::astFile : null;
+            return parse(path, tu, precompiled, args);
+        }
+    }
+
+    /*
+     * Creates the declarations of an already parsed translation unit. If not null, precompiled supplies a saved
+     * copy of the translation unit, which the macro parser can use instead of saving the translation unit again.
+     * It is only called if some macros need to be reparsed.
+     */
+    Declaration.Scoped parse(Path path, TranslationUnit tu, Supplier<Path> precompiled, Collection<String> args) {
+        boolean cpp = path.toString().endsWith(".hpp");
+        try (MacroParserImpl macroParser = MacroParserImpl.make(treeMaker, tu, precompiled, args, cpp)) {
 
             List<Declaration> decls = new ArrayList<>();
             Cursor tuCursor = tu.getCursor();
             LOGGER.log(Level.FINE, "Parsing file: {0}", path);
-            tuCursor.forEach(c -> {
-                SourceLocation loc = c.getSourceLocation();
-                if (loc == null) {
-                    LOGGER.log(Level.FINER, "Source location empty, ignoring ...");
-                    return;
-                }
-
-                SourceLocation.Location src = loc.getFileLocation();
-                if (src == null) {
-                    return;
-                }
+            try (Cursor.Children children = tuCursor.children()) {
+                for (int i = 0; i < children.size(); i++) {
+                    int kind = children.kind(i);
+                    if (Cursor.isPreprocessing(kind) && kind != CursorKind.MacroDefinition.value() &&
+                            !LOGGER.isLoggable(Level.FINE)) {
+                        // macro expansions and inclusion directives are ignored, no need to look at their location
+                        continue;
+                    }
+                    Cursor c = children.get(i);
+                    FileLocation src = c.fileLocation();
+                    if (src == null) {
+                        LOGGER.log(Level.FINER, "Source location empty, ignoring ...");
+                        continue;
+                    }
 
-                LOGGER.log(Level.FINER, "Parsing cursor kind: {0}", c.kind());
-                if (c.isDeclaration()) {
-                    LOGGER.log(Level.FINER, "Parsing declaration in file: {0}", path);
-                    var count = new int[1];
-                    if (c.kind() == CursorKind.UnexposedDecl ||
-                            c.kind() == CursorKind.Namespace) {
-                        c.forEach(t -> {
-                            Declaration declaration = treeMaker.createTree(t);
-                            if (declaration != null) {
+                    LOGGER.log(Level.FINER, "Parsing cursor kind: {0}", c.kind());
+                    if (isExcluded(c)) {
+                        continue;
+                    }
+                    if (c.isDeclaration()) {
+                        LOGGER.log(Level.FINER, "Parsing declaration in file: {0}", path);
+                        var count = new int[1];
+                        if (c.kind() == CursorKind.UnexposedDecl ||
+                                c.kind() == CursorKind.Namespace) {
+                            c.forEach(t -> {
+                                if (isExcluded(t)) {
+                                    return;
+                                }
+                                Declaration declaration = treeMaker.createTree(t);
+                                if (declaration != null) {
+                                    count[0]++;
+                                    decls.add(declaration);
+                                }
+                            });
+                        } else {
+                            Declaration decl = treeMaker.createTree(c);
+                            if (decl != null) {
                                 count[0]++;
-                                decls.add(declaration);
+                                decls.add(decl);
                             }
-                        });
-                    } else {
-                        Declaration decl = treeMaker.createTree(c);
-                        if (decl != null) {
-                            count[0]++;
-                            decls.add(decl);
                         }
-                    }
-                    LOGGER.log(Level.FINER, "Number of declarations parsed: {0}", count[0]);
-                } else if (isMacro(c) && src.path() != null) {
-                    LOGGER.log(Level.FINER, "Parsing macro definition in file: {0}", path);
-                    SourceRange range = c.getExtent();
-                    String[] tokens = c.getTranslationUnit().tokens(range);
-                    LOGGER.log(Level.FINER, "Tokens: {0}", Arrays.toString(tokens));
-                    Optional<Declaration.Constant> constant = macroParser.parseConstant(c, c.spelling(), tokens);
-                    if (constant.isPresent()) {
-                        decls.add(constant.get());
+                        LOGGER.log(Level.FINER, "Number of declarations parsed: {0}", count[0]);
+                    } else if (isMacro(c) && src.path() != null) {
+                        LOGGER.log(Level.FINER, "Parsing macro definition in file: {0}", path);
+                        SourceRange range = c.getExtent();
+                        String[] tokens = c.getTranslationUnit().tokens(range);
+                        LOGGER.log(Level.FINER, "Tokens: {0}", Arrays.toString(tokens));
+                        if (includeHelper != null &&
+                                !includeHelper.isIncluded(IncludeHelper.IncludeKind.CONSTANT, c.spelling())) {
+                            // no constant is needed, but included macros might expand to this one
+                            macroParser.defineExcluded(c, c.spelling(), tokens);
+                            continue;
+                        }
+                        Optional<Declaration.Constant> constant = macroParser.parseConstant(c, c.spelling(), tokens);
+                        if (constant.isPresent()) {
+                            decls.add(constant.get());
+                        } else {
+                            LOGGER.log(Level.FINER, "No constants present");
+                        }
                     } else {
-                        LOGGER.log(Level.FINER, "No constants present");
+                        LOGGER.log(Level.FINE, "Parsing of cursor is not supported and will be ignored: {0}", ClangUtils.toString(c));
                     }
-                } else {
-                    LOGGER.log(Level.FINE, "Parsing of cursor is not supported and will be ignored: {0}", ClangUtils.toString(c));
                 }
-            });
+            }
 
             decls.addAll(macroParser.macroTable.reparseConstants());
             Declaration.Scoped rv = treeMaker.createHeader(tuCursor, decls);
@@ -125,6 +277,80 @@ public class Parser {
         }
     }
 
+    private TranslationUnit parseOrLoad(Index index, Path path, Collection<String> args, ParseCache.Entry cacheEntry) {
+        if (cacheEntry != null && cacheEntry.isValid()) {
+            // no need to report diagnostics: a translation unit is only cached if it was parsed without errors
+            LOGGER.log(Level.FINE, "Using cached translation unit: {0}", cacheEntry.astFile());
+            return index.load(cacheEntry.astFile());
+        }
+        TranslationUnit tu = index.parse(path.toString(), Parser::checkDiagnostic,
+                true, args.toArray(new String[0]));
+        if (cacheEntry != null) {
+            cacheEntry.store(tu);
+        }
+        return tu;
+    }
+
+    /*
+     * Returns true if the given toplevel cursor would be discarded by IncludeFilter, so that creating
+     * a declaration for it can be avoided (excluded macros are handled while parsing, see parse). Only
+     * functions and variables are skipped: no other declaration depends on them. Records and typedefs are
+     * always created, as NameMangler gives them class names which must not depend on the include filters;
+     * for the same reason, functions and variables which would be given a class name (e.g. for a function
+     * pointer variable, or an inline struct definition) are not skipped either.
+     */
+    private boolean isExcluded(Cursor c) {
+        if (includeHelper == null) {
+            return false;
+        }
+        IncludeHelper.IncludeKind kind = switch (c.kind()) {
+            case FunctionDecl -> IncludeHelper.IncludeKind.FUNCTION;
+            case VarDecl -> IncludeHelper.IncludeKind.VAR;
+            default -> null;
+        };
+        if (kind == null || includeHelper.isIncluded(kind, c.spelling())) {
+            return false;
+        }
+        return !hasNestedDefinitions(c) &&
+                (kind == IncludeHelper.IncludeKind.FUNCTION || !isFunctionPointer(c.type()));
+    }
+
+    // see TreeMaker::withNestedTypes
+    private static boolean hasNestedDefinitions(Cursor c) {
+        boolean[] found = new boolean[1];
+        c.forEachShortCircuit(m -> {
+            if (m.isDefinition()) {
+                found[0] = m.kind() != CursorKind.ParmDecl || hasNestedDefinitions(m);
+            }
+            return !found[0];
+        });
+        return found[0];
+    }
+
+    // see Utils::getAsFunctionPointer
+    private static boolean isFunctionPointer(Type type) {
+        Type t = type.canonicalType();
+        while (true) {
+            switch (t.kind()) {
+                case Pointer, BlockPointer -> t = t.getPointeeType();
+                case Atomic -> t = t.getValueType();
+                case FunctionProto, FunctionNoProto -> {
+                    return true;
+                }
+                default -> {
+                    return false;
+                }
+            }
+        }
+    }
+
+    static void checkDiagnostic(Diagnostic d) {
+        if (d.severity() > Diagnostic.CXDiagnostic_Warning) {
+            LOGGER.log(Level.FINE, "Parse error: {0}", d.toString());
+            throw new ClangException(d.toString());
+        }
+    }
+
     private boolean isMacro(Cursor c) {
         return c.isPreprocessing() && c.kind() == CursorKind.MacroDefinition;
     }
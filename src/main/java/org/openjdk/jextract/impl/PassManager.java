@@ -0,0 +1,123 @@
+/*
+ *  Copyright (c) 2024, Oracle and/or its affiliates. All rights reserved.
+ *  DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ *  This code is free software; you can redistribute it and/or modify it
+ *  under the terms of the GNU General Public License version 2 only, as
+ *  published by the Free Software Foundation.  Oracle designates this
+ *  particular file as subject to the "Classpath" exception as provided
+ *  by Oracle in the LICENSE file that accompanied this code.
+ *
+ *  This code is distributed in the hope that it will be useful, but WITHOUT
+ *  ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ *  FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ *  version 2 for more details (a copy is included in the LICENSE file that
+ *  accompanied this code).
+ *
+ *  You should have received a copy of the GNU General Public License version
+ *  2 along with this work; if not, write to the Free Software Foundation,
+ *  Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ *   Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ *  or visit www.oracle.com if you need additional information or have any
+ *  questions.
+ *
+ */
+package org.openjdk.jextract.impl;
+
+import org.openjdk.jextract.Declaration;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/*
+ * Runs a sequence of passes over a toplevel declaration. Consecutive passes are fused, so that the toplevel
+ * members are only walked once for all of them: each member is handed to every pass in turn (each pass
+ * visits the member subtree as it sees fit) before moving to the next member. A pass that needs the preceding
+ * passes to have seen the whole tree starts a new walk. The time spent in each pass is logged at FINE level.
+ */
+final class PassManager {
+    private static final Logger LOGGER = Logger.getLogger(PassManager.class.getSimpleName());
+
+    interface Pass {
+        /**
+         * Called once, before the members of the toplevel declaration are visited.
+         */
+        default void start(Declaration.Scoped header) { }
+
+        /**
+         * Visits a member of the toplevel declaration.
+         */
+        void visitToplevel(Declaration decl);
+
+        /**
+         * Called once, after all the members of the toplevel declaration have been visited.
+         */
+        default void end() { }
+
+        /**
+         * {@return true if this pass reads attributes set by the preceding passes on declarations other than
+         * the one being visited, in which case it cannot be fused with them}
+         */
+        default boolean requiresCompletedTree() {
+            return false;
+        }
+    }
+
+    private final List<Pass> passes = new ArrayList<>();
+
+    PassManager add(Pass pass) {
+        passes.add(pass);
+        return this;
+    }
+
+    Declaration.Scoped run(Declaration.Scoped header) {
+        boolean timed = LOGGER.isLoggable(Level.FINE);
+        long[] times = new long[passes.size()];
+        int walks = 0;
+        int first = 0;
+        while (first < passes.size()) {
+            int last = first + 1;
+            while (last < passes.size() && !passes.get(last).requiresCompletedTree()) {
+                last++;
+            }
+            List<Pass> stage = passes.subList(first, last);
+            for (int i = 0; i < stage.size(); i++) {
+                long start = timed ? System.nanoTime() : 0L;
+                stage.get(i).start(header);
+                if (timed) {
+                    times[first + i] += System.nanoTime() - start;
+                }
+            }
+            for (Declaration member : header.members()) {
+                for (int i = 0; i < stage.size(); i++) {
+                    long start = timed ? System.nanoTime() : 0L;
+                    stage.get(i).visitToplevel(member);
+                    if (timed) {
+                        times[first + i] += System.nanoTime() - start;
+                    }
+                }
+            }
+            for (int i = 0; i < stage.size(); i++) {
+                long start = timed ? System.nanoTime() : 0L;
+                stage.get(i).end();
+                if (timed) {
+                    times[first + i] += System.nanoTime() - start;
+                }
+            }
+            walks++;
+            first = last;
+        }
+        if (timed) {
+            for (int i = 0; i < passes.size(); i++) {
+                LOGGER.log(Level.FINE, "Pass {0} completed in {1} ms", new Object[] {
+                        passes.get(i).getClass().getSimpleName(), TimeUnit.NANOSECONDS.toMillis(times[i]) });
+            }
+            LOGGER.log(Level.FINE, "Ran {0} passes in {1} tree walks", new Object[] { passes.size(), walks });
+        }
+        return header;
+    }
+}
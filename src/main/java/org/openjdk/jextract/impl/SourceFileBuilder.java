@@ -105,6 +105,11 @@ final class SourceFileBuilder {
         return toFile(s -> s);
     }
 
+    // see Utils::leafFileFromString
+    public JavaFileObject toLeafFile() {
+        return Utils.leafFileFromString(packageName, className, sb.toString());
+    }
+
     public void appendLines(String s) {
         // we don't just simply use indent here, since that will also indent empty lines which adds trailing whitespace
         String indent = "    ".repeat(align);
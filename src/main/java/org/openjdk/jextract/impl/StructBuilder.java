@@ -85,7 +85,8 @@ final class StructBuilder extends ClassSourceBuilder implements OutputFactory.Bu
         }
     }
 
-    void end() {
+    @Override
+    public void end() {
         if (!inAnonymousNested()) {
             emitAsSlice();
             appendBlankLine();
@@ -155,6 +156,8 @@ final class StructBuilder extends ClassSourceBuilder implements OutputFactory.Bu
         } else if (Utils.isPointer(varTree.type()) || Utils.isPrimitive(varTree.type())) {
             emitFieldGetter(javaName, varTree, offsetField);
             emitFieldSetter(javaName, varTree, offsetField);
+            emitIndexedFieldGetter(javaName, varTree, offsetField);
+            emitIndexedFieldSetter(javaName, varTree, offsetField);
         } else {
             throw new IllegalArgumentException(STR."Type not supported: \{varTree.type()}");
         }
@@ -191,6 +194,34 @@ final class StructBuilder extends ClassSourceBuilder implements OutputFactory.Bu
             """);
     }
 
+    // indexed accessors compute the offset of the field in the array element directly, instead of slicing the array
+    private void emitIndexedFieldGetter(String javaName, Declaration.Variable varTree, String offsetField) {
+        String array = safeParameterName("array");
+        String index = safeParameterName("index");
+        Class<?> type = Utils.carrierFor(varTree.type());
+        appendBlankLine();
+        emitFieldDocComment(varTree, "Indexed getter for field:");
+        appendIndentedLines(STR."""
+            public static \{type.getSimpleName()} \{javaName}$at(MemorySegment \{array}, long \{index}) {
+                return \{array}.get(\{layoutString(varTree.type())}, \{index} * $LAYOUT().byteSize() + \{offsetField});
+            }
+            """);
+    }
+
+    private void emitIndexedFieldSetter(String javaName, Declaration.Variable varTree, String offsetField) {
+        String array = safeParameterName("array");
+        String index = safeParameterName("index");
+        String x = safeParameterName("x");
+        Class<?> type = Utils.carrierFor(varTree.type());
+        appendBlankLine();
+        emitFieldDocComment(varTree, "Indexed setter for field:");
+        appendIndentedLines(STR."""
+            public static void \{javaName}$at(MemorySegment \{array}, long \{index}, \{type.getSimpleName()} \{x}) {
+                \{array}.set(\{layoutString(varTree.type())}, \{index} * $LAYOUT().byteSize() + \{offsetField}, \{x});
+            }
+            """);
+    }
+
     private void emitSegmentGetter(String javaName, String offsetField, String sizeField) {
         String seg = safeParameterName("seg");
         appendIndentedLines(STR."""
@@ -278,7 +309,7 @@ final class StructBuilder extends ClassSourceBuilder implements OutputFactory.Bu
         };
     }
 
-    private static long recordMemberOffset(Declaration member) {
+    static long recordMemberOffset(Declaration member) {
         if (member instanceof Variable) {
             return ClangOffsetOf.get(member).orElseThrow();
         } else {
@@ -0,0 +1,412 @@
+/*
+ * Copyright (c) 2024, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package org.openjdk.jextract.impl;
+
+import org.openjdk.jextract.Declaration;
+import org.openjdk.jextract.Declaration.Scoped;
+import org.openjdk.jextract.Declaration.Variable;
+import org.openjdk.jextract.impl.DeclarationImpl.AnonymousStruct;
+import org.openjdk.jextract.impl.DeclarationImpl.ClangAlignOf;
+import org.openjdk.jextract.impl.DeclarationImpl.ClangOffsetOf;
+import org.openjdk.jextract.impl.DeclarationImpl.ClangSizeOf;
+import org.openjdk.jextract.impl.DeclarationImpl.JavaName;
+import org.openjdk.jextract.impl.DeclarationImpl.Skip;
+
+import javax.tools.JavaFileObject;
+import java.lang.classfile.ClassBuilder;
+import java.lang.classfile.ClassFile;
+import java.lang.classfile.CodeBuilder;
+import java.lang.classfile.attribute.ConstantValueAttribute;
+import java.lang.classfile.attribute.InnerClassInfo;
+import java.lang.classfile.attribute.InnerClassesAttribute;
+import java.lang.classfile.attribute.NestHostAttribute;
+import java.lang.classfile.attribute.NestMembersAttribute;
+import java.lang.constant.ClassDesc;
+import java.lang.constant.ConstantDescs;
+import java.lang.constant.MethodTypeDesc;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+/**
+ * This class generates the class files of static utilities classes for C structs, unions. The class
+ * files are equivalent to the ones obtained by compiling the sources generated by {@link StructBuilder},
+ * but for doc comments. Structs with functions, or functional interfaces, are not supported.
+ */
+final class StructClassFileBuilder extends ClassFileBuilder implements OutputFactory.Builder {
+
+    private static final int MEMBER_FLAGS = ClassFile.ACC_PUBLIC | ClassFile.ACC_STATIC;
+
+    private final Declaration.Scoped structTree;
+    private final StructClassFileBuilder enclosing;
+    private final ClassDesc classDesc;
+    // the class files generated for this struct and its nested structs
+    private final List<JavaFileObject> files;
+    private final List<Consumer<ClassBuilder>> members = new ArrayList<>();
+    private final List<StructClassFileBuilder> nestedBuilders = new ArrayList<>();
+    private final Deque<Declaration> nestedAnonDeclarations = new ArrayDeque<>();
+
+    private StructClassFileBuilder(String packageName, String runtimeHelperName, Declaration.Scoped structTree,
+                                   StructClassFileBuilder enclosing, List<JavaFileObject> files) {
+        super(packageName, runtimeHelperName);
+        this.structTree = structTree;
+        this.enclosing = enclosing;
+        this.classDesc = classDesc(JavaName.getFullNameOrThrow(structTree).replace('.', '$'));
+        this.files = files;
+        emitLayoutDecl();
+    }
+
+    /**
+     * Generates the class files of a top-level struct, and of its nested structs, from the builder calls
+     * made for it, which are replayed on the given builder by {@code replay}.
+     */
+    static List<JavaFileObject> generate(String packageName, String runtimeHelperName, Declaration.Scoped structTree,
+                                         Consumer<OutputFactory.Builder> replay) {
+        List<JavaFileObject> files = new ArrayList<>();
+        replay.accept(new StructClassFileBuilder(packageName, runtimeHelperName, structTree, null, files));
+        return files;
+    }
+
+    @Override
+    public void end() {
+        if (!inAnonymousNested()) {
+            emitAsSlice();
+            emitSizeof();
+            emitAllocatorAllocate();
+            emitAllocatorAllocateArray();
+            emitReinterpret();
+            files.add(toFile(classDesc, ClassFile.of().build(classDesc, cb -> {
+                cb.withFlags(ClassFile.ACC_PUBLIC | ClassFile.ACC_SUPER);
+                cb.withSuperclass(ConstantDescs.CD_Object);
+                emitDefaultConstructor(cb);
+                members.forEach(member -> member.accept(cb));
+                emitNestAttributes(cb);
+            })));
+        } else {
+            // we're in an anonymous struct which got merged into this one, return this very builder and keep it open
+            nestedAnonDeclarations.pop();
+        }
+    }
+
+    private boolean inAnonymousNested() {
+        return !nestedAnonDeclarations.isEmpty();
+    }
+
+    @Override
+    public StructClassFileBuilder addStruct(Declaration.Scoped tree) {
+        if (AnonymousStruct.isPresent(tree)) {
+            //nested anon struct - merge into this builder!
+            nestedAnonDeclarations.push(tree);
+            return this;
+        } else {
+            StructClassFileBuilder builder = new StructClassFileBuilder(classDesc.packageName(),
+                    runtimeHelper().displayName(), tree, this, files);
+            nestedBuilders.add(builder);
+            return builder;
+        }
+    }
+
+    @Override
+    public void addVar(Declaration.Variable varTree) {
+        String javaName = JavaName.getOrThrow(varTree);
+        long offset = emitConstantField(STR."\{varTree.name()}$OFFSET", ClangOffsetOf.getOrThrow(varTree) / 8);
+        if (Utils.isArray(varTree.type()) || Utils.isStructOrUnion(varTree.type())) {
+            long size = emitConstantField(STR."\{varTree.name()}$SIZE", ClangSizeOf.getOrThrow(varTree) / 8);
+            emitSegmentGetter(javaName, offset, size);
+        } else if (Utils.isPointer(varTree.type()) || Utils.isPrimitive(varTree.type())) {
+            ClassDesc type = desc(Utils.carrierFor(varTree.type()));
+            emitFieldGetter(javaName, varTree, type, offset);
+            emitFieldSetter(javaName, varTree, type, offset);
+            emitIndexedFieldGetter(javaName, varTree, type, offset);
+            emitIndexedFieldSetter(javaName, varTree, type, offset);
+        } else {
+            throw new IllegalArgumentException(STR."Type not supported: \{varTree.type()}");
+        }
+    }
+
+    // javac inlines the offset and size constants, so their value is returned to be inlined as well
+    private long emitConstantField(String name, long value) {
+        members.add(cb -> cb.withField(name, ConstantDescs.CD_long, field -> field
+                .withFlags(ClassFile.ACC_PRIVATE | ClassFile.ACC_STATIC | ClassFile.ACC_FINAL)
+                .with(ConstantValueAttribute.of(value))));
+        return value;
+    }
+
+    private void emitMethod(String name, MethodTypeDesc type, Consumer<CodeBuilder> body) {
+        members.add(cb -> cb.withMethodBody(name, type, MEMBER_FLAGS, body));
+    }
+
+    private void emitFieldGetter(String javaName, Declaration.Variable varTree, ClassDesc type, long offset) {
+        emitMethod(javaName, MethodTypeDesc.of(type, CD_MemorySegment), code -> {
+            code.aload(0);
+            ClassDesc layoutType = emitLayout(code, varTree.type());
+            code.constantInstruction(offset);
+            code.invokeinterface(CD_MemorySegment, "get", MethodTypeDesc.of(type, layoutType, ConstantDescs.CD_long));
+            emitReturn(code, type);
+        });
+    }
+
+    private void emitFieldSetter(String javaName, Declaration.Variable varTree, ClassDesc type, long offset) {
+        emitMethod(javaName, MethodTypeDesc.of(ConstantDescs.CD_void, CD_MemorySegment, type), code -> {
+            code.aload(0);
+            ClassDesc layoutType = emitLayout(code, varTree.type());
+            code.constantInstruction(offset);
+            emitLoad(code, type, 1);
+            code.invokeinterface(CD_MemorySegment, "set",
+                    MethodTypeDesc.of(ConstantDescs.CD_void, layoutType, ConstantDescs.CD_long, type));
+            code.return_();
+        });
+    }
+
+    // indexed accessors compute the offset of the field in the array element directly, instead of slicing the array
+    private void emitIndexedFieldGetter(String javaName, Declaration.Variable varTree, ClassDesc type, long offset) {
+        emitMethod(STR."\{javaName}$at", MethodTypeDesc.of(type, CD_MemorySegment, ConstantDescs.CD_long), code -> {
+            code.aload(0);
+            ClassDesc layoutType = emitLayout(code, varTree.type());
+            emitElementOffset(code, 1, offset);
+            code.invokeinterface(CD_MemorySegment, "get", MethodTypeDesc.of(type, layoutType, ConstantDescs.CD_long));
+            emitReturn(code, type);
+        });
+    }
+
+    private void emitIndexedFieldSetter(String javaName, Declaration.Variable varTree, ClassDesc type, long offset) {
+        emitMethod(STR."\{javaName}$at", MethodTypeDesc.of(ConstantDescs.CD_void, CD_MemorySegment, ConstantDescs.CD_long, type), code -> {
+            code.aload(0);
+            ClassDesc layoutType = emitLayout(code, varTree.type());
+            emitElementOffset(code, 1, offset);
+            emitLoad(code, type, 3);
+            code.invokeinterface(CD_MemorySegment, "set",
+                    MethodTypeDesc.of(ConstantDescs.CD_void, layoutType, ConstantDescs.CD_long, type));
+            code.return_();
+        });
+    }
+
+    // index * $LAYOUT().byteSize() + offset
+    private void emitElementOffset(CodeBuilder code, int indexSlot, long offset) {
+        code.lload(indexSlot);
+        emitByteSize(code);
+        code.lmul();
+        code.constantInstruction(offset);
+        code.ladd();
+    }
+
+    private void emitSegmentGetter(String javaName, long offset, long size) {
+        emitMethod(javaName, MethodTypeDesc.of(CD_MemorySegment, CD_MemorySegment), code -> code
+                .aload(0)
+                .constantInstruction(offset)
+                .constantInstruction(size)
+                .invokeinterface(CD_MemorySegment, "asSlice",
+                        MethodTypeDesc.of(CD_MemorySegment, ConstantDescs.CD_long, ConstantDescs.CD_long))
+                .areturn());
+    }
+
+    private void emitAsSlice() {
+        emitMethod("asSlice", MethodTypeDesc.of(CD_MemorySegment, CD_MemorySegment, ConstantDescs.CD_long), code -> {
+            code.aload(0);
+            emitByteSize(code);
+            code.lload(1);
+            code.lmul();
+            code.invokeinterface(CD_MemorySegment, "asSlice", MethodTypeDesc.of(CD_MemorySegment, ConstantDescs.CD_long));
+            code.areturn();
+        });
+    }
+
+    private void emitSizeof() {
+        emitMethod("sizeof", MethodTypeDesc.of(ConstantDescs.CD_long), code -> {
+            emitByteSize(code);
+            code.lreturn();
+        });
+    }
+
+    private void emitAllocatorAllocate() {
+        emitMethod("allocate", MethodTypeDesc.of(CD_MemorySegment, CD_SegmentAllocator), code -> {
+            code.aload(0);
+            emitLayoutGetter(code);
+            code.invokeinterface(CD_SegmentAllocator, "allocate", MethodTypeDesc.of(CD_MemorySegment, CD_MemoryLayout));
+            code.areturn();
+        });
+    }
+
+    private void emitAllocatorAllocateArray() {
+        emitMethod("allocateArray", MethodTypeDesc.of(CD_MemorySegment, ConstantDescs.CD_long, CD_SegmentAllocator), code -> {
+            code.aload(2);
+            code.lload(0);
+            emitLayoutGetter(code);
+            code.invokestatic(CD_MemoryLayout, "sequenceLayout",
+                    MethodTypeDesc.of(CD_SequenceLayout, ConstantDescs.CD_long, CD_MemoryLayout), true);
+            code.invokeinterface(CD_SegmentAllocator, "allocate", MethodTypeDesc.of(CD_MemorySegment, CD_MemoryLayout));
+            code.areturn();
+        });
+    }
+
+    private void emitReinterpret() {
+        MethodTypeDesc reinterpretCount = MethodTypeDesc.of(CD_MemorySegment, CD_MemorySegment, ConstantDescs.CD_long,
+                CD_Arena, CD_Consumer);
+        emitMethod("reinterpret", MethodTypeDesc.of(CD_MemorySegment, CD_MemorySegment, CD_Arena, CD_Consumer), code -> code
+                .aload(0)
+                .lconst_1()
+                .aload(1)
+                .aload(2)
+                .invokestatic(classDesc, "reinterpret", reinterpretCount)
+                .areturn());
+        emitMethod("reinterpret", reinterpretCount, code -> {
+            code.aload(0);
+            emitByteSize(code);
+            code.lload(1);
+            code.lmul();
+            code.aload(3);
+            code.aload(4);
+            code.invokeinterface(CD_MemorySegment, "reinterpret",
+                    MethodTypeDesc.of(CD_MemorySegment, ConstantDescs.CD_long, CD_Arena, CD_Consumer));
+            code.areturn();
+        });
+    }
+
+    private void emitLayoutDecl() {
+        members.add(cb -> cb.withField("$LAYOUT", CD_GroupLayout,
+                ClassFile.ACC_PRIVATE | ClassFile.ACC_STATIC | ClassFile.ACC_FINAL));
+        members.add(cb -> cb.withMethodBody(ConstantDescs.CLASS_INIT_NAME, ConstantDescs.MTD_void, ClassFile.ACC_STATIC, code -> {
+            emitStructOrUnionLayout(code, 0, structTree);
+            code.putstatic(classDesc, "$LAYOUT", CD_GroupLayout);
+            code.return_();
+        }));
+        members.add(cb -> cb.withMethodBody("$LAYOUT", MethodTypeDesc.of(CD_GroupLayout),
+                MEMBER_FLAGS | ClassFile.ACC_FINAL, code -> code
+                        .getstatic(classDesc, "$LAYOUT", CD_GroupLayout)
+                        .areturn()));
+    }
+
+    private void emitLayoutGetter(CodeBuilder code) {
+        code.invokestatic(classDesc, "$LAYOUT", MethodTypeDesc.of(CD_GroupLayout));
+    }
+
+    // $LAYOUT().byteSize()
+    private void emitByteSize(CodeBuilder code) {
+        emitLayoutGetter(code);
+        code.invokeinterface(CD_GroupLayout, "byteSize", MethodTypeDesc.of(ConstantDescs.CD_long));
+    }
+
+    private void emitDefaultConstructor(ClassBuilder cb) {
+        cb.withMethodBody(ConstantDescs.INIT_NAME, ConstantDescs.MTD_void, 0, code -> code
+                .aload(0)
+                .invokespecial(ConstantDescs.CD_Object, ConstantDescs.INIT_NAME, ConstantDescs.MTD_void)
+                .return_());
+    }
+
+    /*
+     * Nested structs are nested classes of the class of their enclosing struct, as when compiled from source:
+     * javac needs the InnerClasses attribute to resolve them by their canonical name. The top-level class is
+     * the host of the nest.
+     */
+    private void emitNestAttributes(ClassBuilder cb) {
+        List<InnerClassInfo> innerClasses = new ArrayList<>();
+        for (StructClassFileBuilder builder = this; builder.enclosing != null; builder = builder.enclosing) {
+            innerClasses.add(builder.innerClassInfo());
+        }
+        nestedBuilders.forEach(nested -> innerClasses.add(nested.innerClassInfo()));
+        if (!innerClasses.isEmpty()) {
+            cb.with(InnerClassesAttribute.of(innerClasses));
+        }
+        if (enclosing != null) {
+            StructClassFileBuilder host = enclosing;
+            while (host.enclosing != null) {
+                host = host.enclosing;
+            }
+            cb.with(NestHostAttribute.of(host.classDesc));
+        } else if (!nestedBuilders.isEmpty()) {
+            List<ClassDesc> nestMembers = new ArrayList<>();
+            addNestMembers(nestMembers);
+            cb.with(NestMembersAttribute.ofSymbols(nestMembers));
+        }
+    }
+
+    private InnerClassInfo innerClassInfo() {
+        return InnerClassInfo.of(classDesc, Optional.of(enclosing.classDesc),
+                Optional.of(JavaName.getOrThrow(structTree)), MEMBER_FLAGS);
+    }
+
+    private void addNestMembers(List<ClassDesc> nestMembers) {
+        for (StructClassFileBuilder nested : nestedBuilders) {
+            nestMembers.add(nested.classDesc);
+            nested.addNestMembers(nestMembers);
+        }
+    }
+
+    // see StructBuilder::structOrUnionLayoutString
+    private void emitStructOrUnionLayout(CodeBuilder code, long base, Declaration.Scoped scoped) {
+        List<Consumer<CodeBuilder>> memberLayouts = new ArrayList<>();
+
+        boolean isStruct = scoped.kind() == Scoped.Kind.STRUCT;
+
+        long align = ClangAlignOf.getOrThrow(scoped) / 8;
+        long offset = base;
+
+        long size = 0L; // bits
+        for (Declaration member : scoped.members()) {
+            if (!Skip.isPresent(member)) {
+                long nextOffset = StructBuilder.recordMemberOffset(member);
+                long delta = nextOffset - offset;
+                if (delta > 0) {
+                    long padding = delta / 8;
+                    memberLayouts.add(c -> emitPaddingLayout(c, padding));
+                    offset += delta;
+                    if (isStruct) {
+                        size += delta;
+                    }
+                }
+                if (member instanceof Variable var) {
+                    memberLayouts.add(c -> emitWithName(c, emitLayout(c, var.type(), align), member.name()));
+                } else {
+                    // anon struct
+                    long anonBase = offset;
+                    memberLayouts.add(c -> emitStructOrUnionLayout(c, anonBase, (Scoped) member));
+                }
+                // update offset and size
+                long fieldSize = ClangSizeOf.getOrThrow(member);
+                if (isStruct) {
+                    offset += fieldSize;
+                    size += fieldSize;
+                } else {
+                    size = Math.max(size, ClangSizeOf.getOrThrow(member));
+                }
+            }
+        }
+        long expectedSize = ClangSizeOf.getOrThrow(scoped);
+        if (size != expectedSize) {
+            long trailPadding = isStruct ?
+                    (expectedSize - size) / 8 :
+                    expectedSize / 8;
+            memberLayouts.add(c -> emitPaddingLayout(c, trailPadding));
+        }
+
+        // the name is only useful for clients accessing the layout, jextract doesn't care about it
+        String name = scoped.name().isEmpty() ?
+                AnonymousStruct.anonName(scoped) : scoped.name();
+        emitGroupLayout(code, isStruct, memberLayouts, (c, memberLayout) -> memberLayout.accept(c), name);
+    }
+}
@@ -0,0 +1,53 @@
+/*
+ *  Copyright (c) 2024, Oracle and/or its affiliates. All rights reserved.
+ *  DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ *  This code is free software; you can redistribute it and/or modify it
+ *  under the terms of the GNU General Public License version 2 only, as
+ *  published by the Free Software Foundation.  Oracle designates this
+ *  particular file as subject to the "Classpath" exception as provided
+ *  by Oracle in the LICENSE file that accompanied this code.
+ *
+ *  This code is distributed in the hope that it will be useful, but WITHOUT
+ *  ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ *  FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ *  version 2 for more details (a copy is included in the LICENSE file that
+ *  accompanied this code).
+ *
+ *  You should have received a copy of the GNU General Public License version
+ *  2 along with this work; if not, write to the Free Software Foundation,
+ *  Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ *   Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ *  or visit www.oracle.com if you need additional information or have any
+ *  questions.
+ *
+ */
+package org.openjdk.jextract.impl;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.openjdk.jextract.Declaration;
+
+/**
+ * A symbol table that is shared by the tree makers of a parallel parse. Each input header is parsed
+ * in its own translation unit, so the same record or enum definition (e.g. one coming from a system
+ * header included by more than one input) is seen by more than one tree maker. This table maps the
+ * clang USR of such definitions to the first jextract declaration created for it, so that all
+ * translation units end up sharing a single declaration.
+ */
+final class SymbolTable {
+    private final Map<String, Declaration> declarations = new ConcurrentHashMap<>();
+
+    /**
+     * {@return the declaration associated with the given USR}. If no declaration is associated with
+     * the given USR yet, the given declaration is registered and returned.
+     * @param usr the clang USR of the declaration.
+     * @param decl a fully constructed declaration; it must not be modified after this call.
+     */
+    Declaration lookupOrAdd(String usr, Declaration decl) {
+        Declaration prev = declarations.putIfAbsent(usr, decl);
+        return prev != null ? prev : decl;
+    }
+}
@@ -31,33 +31,56 @@ import org.openjdk.jextract.impl.DeclarationImpl.JavaName;
 
 import javax.tools.JavaFileObject;
 import java.lang.constant.ClassDesc;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Deque;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
 
 /**
  * A helper class to generate header interface class in source form.
  * After aggregating various constituents of a .java source, build
  * method is called to get overall generated source string.
+ * <p>
+ * Header classes are generated as declarations are added. Struct, typedef and functional interface
+ * classes live in their own source files, which do not depend on one another: they are generated
+ * in parallel when {@link #toFiles()} is called, and returned in the order they were added.
+ * <p>
+ * When class files are requested, the classes which need not go through javac are generated as class
+ * files instead: struct classes (unless they declare functions or functional interfaces), typedef
+ * classes of structs, and the classes holding the descriptors, method handles, layouts and segments
+ * used by the wrappers of header classes.
  */
 class ToplevelBuilder implements OutputFactory.Builder {
     private static final int DECLS_PER_HEADER_CLASS = Integer.getInteger("jextract.decls.per.header", 1000);
 
     private int declCount;
     private final List<SourceFileBuilder> headerBuilders = new ArrayList<>();
-    private final List<SourceFileBuilder> otherBuilders = new ArrayList<>();
+    private final List<Supplier<List<JavaFileObject>>> otherBuilders = new ArrayList<>();
     private HeaderFileBuilder lastHeader;
     private final ClassDesc headerDesc;
+    // whether classes that are simple enough should be emitted as class files
+    private final boolean classFiles;
+    // null if holder classes are local classes of the wrappers
+    private final HeaderFileBuilder.HolderClassFiles holders;
+    private int holderCount;
 
-    ToplevelBuilder(String packageName, String headerClassName, List<String> libraries) {
+    ToplevelBuilder(String packageName, String headerClassName, List<String> libraries, boolean classFiles) {
         this.headerDesc = ClassDesc.of(packageName, headerClassName);
+        this.classFiles = classFiles;
+        this.holders = classFiles ? this::addHolderClassFile : null;
         SourceFileBuilder sfb = SourceFileBuilder.newSourceFile(packageName, headerClassName);
         headerBuilders.add(sfb);
-        lastHeader = createFirstHeader(sfb, libraries);
+        lastHeader = createFirstHeader(sfb, libraries, holders);
     }
 
-    private static HeaderFileBuilder createFirstHeader(SourceFileBuilder sfb, List<String> libraries) {
-        HeaderFileBuilder first = new HeaderFileBuilder(sfb, STR."\{sfb.className()}#{SUFFIX}", null, sfb.className());
+    private static HeaderFileBuilder createFirstHeader(SourceFileBuilder sfb, List<String> libraries,
+                                                       HeaderFileBuilder.HolderClassFiles holders) {
+        HeaderFileBuilder first = new HeaderFileBuilder(sfb, STR."\{sfb.className()}#{SUFFIX}", null, sfb.className(),
+                holders);
         first.appendBlankLine();
         first.classBegin();
         first.emitFirstHeaderPreamble(libraries);
@@ -86,6 +109,15 @@ class ToplevelBuilder implements OutputFactory.Builder {
     }
 
     public List<JavaFileObject> toFiles() {
+        return toFiles(null);
+    }
+
+    /**
+     * Generates the source files. If a sink is provided, the files that do not hold header classes are
+     * passed to it as soon as they are generated, possibly concurrently, and are not returned. Header
+     * classes are always returned, as their names are only known once all of them are generated.
+     */
+    public List<JavaFileObject> toFiles(Consumer<JavaFileObject> sink) {
         lastHeader.classEnd();
 
         List<JavaFileObject> files = new ArrayList<>();
@@ -107,9 +139,17 @@ class ToplevelBuilder implements OutputFactory.Builder {
                 suffix--;
             }
         }
-        // add remaining builders
-        files.addAll(otherBuilders.stream()
-                .map(SourceFileBuilder::toFile).toList());
+        // generate remaining source files
+        if (sink != null) {
+            otherBuilders.parallelStream()
+                    .map(Supplier::get)
+                    .flatMap(List::stream)
+                    .forEach(sink);
+        } else {
+            files.addAll(otherBuilders.parallelStream()
+                    .map(Supplier::get)
+                    .flatMap(List::stream).toList());
+        }
         return files;
     }
 
@@ -145,27 +185,128 @@ class ToplevelBuilder implements OutputFactory.Builder {
         } else if (((TypeImpl)type).isPointer()) {
             // pointer typedef
             nextHeader().emitPointerTypedef(typedefTree, javaName);
+        } else if (classFiles && superClass != null) {
+            // typedef classes are empty, and need not go through javac
+            String packageName = packageName();
+            String superBinaryName = superClass.replace('.', '$');
+            otherBuilders.add(() -> List.of(TypedefBuilder.generateClassFile(packageName, javaName, superBinaryName)));
         } else {
-            SourceFileBuilder sfb = SourceFileBuilder.newSourceFile(packageName(), javaName);
-            TypedefBuilder.generate(sfb, sfb.className(), superClass, mainHeaderClassName(), typedefTree);
-            otherBuilders.add(sfb);
+            addSourceFile(javaName, true, sfb ->
+                    TypedefBuilder.generate(sfb, sfb.className(), superClass, mainHeaderClassName(), typedefTree));
         }
     }
 
     @Override
-    public StructBuilder addStruct(Declaration.Scoped tree) {
-        SourceFileBuilder sfb = SourceFileBuilder.newSourceFile(packageName(), JavaName.getOrThrow(tree));
-        otherBuilders.add(sfb);
-        StructBuilder structBuilder = new StructBuilder(sfb, "public", sfb.className(), null, mainHeaderClassName(), tree);
-        structBuilder.begin();
+    public OutputFactory.Builder addStruct(Declaration.Scoped tree) {
+        DeferredStructBuilder structBuilder = new DeferredStructBuilder();
+        String className = JavaName.getOrThrow(tree);
+        Consumer<SourceFileBuilder> generator = sfb -> {
+            StructBuilder builder = new StructBuilder(sfb, "public", sfb.className(), null, mainHeaderClassName(), tree);
+            builder.begin();
+            structBuilder.replay(builder);
+        };
+        if (classFiles) {
+            String packageName = packageName();
+            otherBuilders.add(() -> {
+                if (!structBuilder.hasFunctions()) {
+                    try {
+                        return StructClassFileBuilder.generate(packageName, mainHeaderClassName(), tree,
+                                structBuilder::replay);
+                    } catch (RuntimeException ex) {
+                        // fall back to the source file, whose generation reports the error
+                    }
+                }
+                return List.of(generateSourceFile(packageName, className, false, generator));
+            });
+        } else {
+            addSourceFile(className, false, generator);
+        }
         return structBuilder;
     }
 
     @Override
     public void addFunctionalInterface(Declaration parentDecl, Type.Function funcType) {
-        SourceFileBuilder sfb = SourceFileBuilder.newSourceFile(packageName(), JavaFunctionalInterfaceName.getOrThrow(parentDecl));
-        otherBuilders.add(sfb);
-        FunctionalInterfaceBuilder.generate(sfb, sfb.className(), null, mainHeaderClassName(), parentDecl, funcType);
+        addSourceFile(JavaFunctionalInterfaceName.getOrThrow(parentDecl), true, sfb ->
+                FunctionalInterfaceBuilder.generate(sfb, sfb.className(), null, mainHeaderClassName(), parentDecl, funcType));
+    }
+
+    // leaf files hold classes which are not referred to by other generated classes
+    private void addSourceFile(String className, boolean leaf, Consumer<SourceFileBuilder> generator) {
+        String packageName = packageName();
+        otherBuilders.add(() -> List.of(generateSourceFile(packageName, className, leaf, generator)));
+    }
+
+    private static JavaFileObject generateSourceFile(String packageName, String className, boolean leaf,
+                                                     Consumer<SourceFileBuilder> generator) {
+        SourceFileBuilder sfb = SourceFileBuilder.newSourceFile(packageName, className);
+        try {
+            generator.accept(sfb);
+        } catch (Exception ex) {
+            ex.printStackTrace();
+        }
+        return leaf ? sfb.toLeafFile() : sfb.toFile();
+    }
+
+    /*
+     * Holder classes are top-level classes, named after the main header class, which is known upfront. They
+     * are numbered, as the names of wrappers might only differ by case, and their class files would clash on
+     * case-insensitive file systems. Class files are generated right away, so that errors are reported along
+     * with the wrapper, as when holder classes are local classes.
+     */
+    private String addHolderClassFile(String memberName, Function<ClassDesc, JavaFileObject> generator) {
+        String className = STR."\{mainHeaderClassName()}$\{holderCount++}$\{memberName}";
+        JavaFileObject file = generator.apply(ClassDesc.of(packageName(), className));
+        otherBuilders.add(() -> List.of(file));
+        return className;
+    }
+
+    /*
+     * Records the calls made while visiting a top-level struct, so that its source file can be generated
+     * later. Nested structs are recorded in the same builder: they are replayed on the builder returned
+     * by the enclosing struct builder, which keeps track of nesting.
+     */
+    private static final class DeferredStructBuilder implements OutputFactory.Builder {
+        private final List<Consumer<Deque<OutputFactory.Builder>>> calls = new ArrayList<>();
+        // struct class files do not support functions and functional interfaces
+        private boolean hasFunctions;
+
+        @Override
+        public void addVar(Declaration.Variable varTree) {
+            calls.add(builders -> builders.peek().addVar(varTree));
+        }
+
+        @Override
+        public void addFunction(Declaration.Function funcTree) {
+            hasFunctions = true;
+            calls.add(builders -> builders.peek().addFunction(funcTree));
+        }
+
+        @Override
+        public void addFunctionalInterface(Declaration parentDecl, Type.Function funcType) {
+            hasFunctions = true;
+            calls.add(builders -> builders.peek().addFunctionalInterface(parentDecl, funcType));
+        }
+
+        @Override
+        public OutputFactory.Builder addStruct(Declaration.Scoped structTree) {
+            calls.add(builders -> builders.push(builders.peek().addStruct(structTree)));
+            return this;
+        }
+
+        @Override
+        public void end() {
+            calls.add(builders -> builders.pop().end());
+        }
+
+        boolean hasFunctions() {
+            return hasFunctions;
+        }
+
+        void replay(OutputFactory.Builder builder) {
+            Deque<OutputFactory.Builder> builders = new ArrayDeque<>();
+            builders.push(builder);
+            calls.forEach(call -> call.accept(builders));
+        }
     }
 
     private HeaderFileBuilder nextHeader() {
@@ -173,7 +314,7 @@ class ToplevelBuilder implements OutputFactory.Builder {
             SourceFileBuilder sfb = SourceFileBuilder.newSourceFile(packageName(), mainHeaderClassName());
             String className = mainHeaderClassName() + "#{SUFFIX}";
             HeaderFileBuilder headerFileBuilder = new HeaderFileBuilder(sfb, className,
-                    mainHeaderClassName() + "#{PREV_SUFFIX}", mainHeaderClassName());
+                    mainHeaderClassName() + "#{PREV_SUFFIX}", mainHeaderClassName(), holders);
             lastHeader.classEnd();
             headerFileBuilder.appendBlankLine();
             headerFileBuilder.classBegin();
@@ -30,11 +30,13 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.OptionalLong;
+import java.util.Set;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.logging.Level;
 import java.util.logging.Logger;
@@ -52,10 +54,11 @@ import org.openjdk.jextract.Type.Primitive;
 import org.openjdk.jextract.clang.Cursor;
 import org.openjdk.jextract.clang.CursorKind;
 import org.openjdk.jextract.clang.CursorLanguage;
+import org.openjdk.jextract.clang.CursorMap;
+import org.openjdk.jextract.clang.FileLocation;
 import org.openjdk.jextract.clang.LinkageKind;
 import org.openjdk.jextract.clang.PrintingPolicy;
 import org.openjdk.jextract.clang.PrintingPolicyProperty;
-import org.openjdk.jextract.clang.SourceLocation;
 import org.openjdk.jextract.clang.TypeKind;
 import org.openjdk.jextract.impl.DeclarationImpl.AnonymousStruct;
 import org.openjdk.jextract.impl.DeclarationImpl.ClangAlignOf;
@@ -72,9 +75,19 @@ import org.openjdk.jextract.impl.DeclarationImpl.DeclarationString;
 class TreeMaker {
     private static final Logger LOGGER = Logger.getLogger(TreeMaker.class.getSimpleName());
 
-    private final Map<Cursor.Key, Declaration> declarationCache = new HashMap<>();
+    private final CursorMap<Declaration> declarationCache = new CursorMap<>();
+    // null, unless this tree maker is part of a parallel parse
+    private final SymbolTable symbolTable;
+    // declarations published in (or obtained from) the shared symbol table, these must not be modified
+    private final Set<Declaration> sharedDeclarations = Collections.newSetFromMap(new IdentityHashMap<>());
 
-    public TreeMaker() { }
+    public TreeMaker() {
+        this(null);
+    }
+
+    TreeMaker(SymbolTable symbolTable) {
+        this.symbolTable = symbolTable;
+    }
 
     Type.Declared parent;
 
@@ -83,12 +96,15 @@ class TreeMaker {
         
         Map<String, List<String>> attributes = new HashMap<>();
         LOGGER.log(Level.FINER, "Collecting attributes for [{0}]", ClangUtils.toString(c));
-        c.forEach(child -> {
-            if (child.isAttribute()) {
-                List<String> attrs = attributes.computeIfAbsent(child.kind().name(), _unused -> new ArrayList<>());
-                attrs.add(child.spelling());
+        try (Cursor.Children children = c.children()) {
+            for (int i = 0; i < children.size(); i++) {
+                if (Cursor.isAttribute(children.kind(i))) {
+                    Cursor child = children.get(i);
+                    List<String> attrs = attributes.computeIfAbsent(child.kind().name(), _unused -> new ArrayList<>());
+                    attrs.add(child.spelling());
+                }
             }
-        });
+        }
         if (!attributes.isEmpty()) {
             if (!c.getMangling().equals(c.spelling())) {
                 attributes.put("LINK", List.of(c.getMangling()));
@@ -131,7 +147,36 @@ class TreeMaker {
             return null;
         }
         var rv = (DeclarationImpl) createTreeInternal(c);
-        return addAttributes(rv, c);
+        if (sharedDeclarations.contains(rv)) {
+            // attributes have already been collected
+            return rv;
+        }
+        Declaration decl = addAttributes(rv, c);
+        return symbolTable != null ? share(decl, c) : decl;
+    }
+
+    /*
+     * Record and enum definitions are the only declarations that can be referred to from other
+     * declarations (via a declared type), so these are the only declarations that need to be shared
+     * with the other translation units of a parallel parse. If another tree maker got there first,
+     * its declaration replaces ours in the declaration cache.
+     */
+    private Declaration share(Declaration decl, Cursor c) {
+        if (decl == null) return null;
+        boolean shareable = switch (c.kind()) {
+            case StructDecl, UnionDecl, ClassDecl, EnumDecl -> c.isDefinition();
+            default -> false;
+        };
+        String usr = shareable ? c.USR() : "";
+        if (usr.isEmpty()) {
+            return decl;
+        }
+        Declaration shared = symbolTable.lookupOrAdd(usr, decl);
+        if (shared != decl) {
+            declarationCache.put(c, shared);
+        }
+        sharedDeclarations.add(shared);
+        return shared;
     }
 
     private Declaration createTreeInternal(Cursor c) {
@@ -139,10 +184,9 @@ class TreeMaker {
         Position pos = CursorPosition.of(c);
         if (pos == Position.NO_POSITION) return null; // intrinsic, skip
         // dedup multiple declarations that point to the same source location
-        Cursor.Key key = c.toKey();
-        Optional<Declaration> cachedDecl = lookup(key);
-        if (cachedDecl.isPresent()) {
-            return cachedDecl.get();
+        Declaration cachedDecl = declarationCache.get(c);
+        if (cachedDecl != null) {
+            return cachedDecl;
         }
         Declaration decl = switch (c.kind()) {
             case EnumDecl -> createEnum(c);
@@ -160,35 +204,33 @@ class TreeMaker {
         };
         LOGGER.log(Level.FINE, "Tree created");
         if (decl != null) {
-            declarationCache.put(key, withDeclarationString(decl, c));
+            declarationCache.put(c, withDeclarationString(decl, c));
         }
         return decl;
     }
 
     static class CursorPosition implements Position {
-        private final Cursor cursor;
         private final Path path;
         private final int line;
         private final int column;
 
-        private CursorPosition(Cursor cursor) {
-            this.cursor = cursor;
-            SourceLocation.Location loc = cursor.getSourceLocation().getFileLocation();
-            this.path = loc.path().toAbsolutePath();
-            this.line = loc.line();
-            this.column = loc.column();
+        private CursorPosition(Path path, int line, int column) {
+            this.path = path;
+            this.line = line;
+            this.column = column;
         }
 
         static Position of(Cursor cursor) {
-            SourceLocation loc = cursor.getSourceLocation();
+            FileLocation loc = cursor.fileLocation();
             if (loc == null) {
                 return NO_POSITION;
             }
-            SourceLocation.Location sloc = loc.getFileLocation();
-            if (sloc == null) {
-                return NO_POSITION;
-            }
-            return new CursorPosition(cursor);
+            return new CursorPosition(loc.path().toAbsolutePath(), loc.line(), loc.column());
+        }
+
+        // used for positions which are not obtained from a cursor (e.g. when loading a saved tree)
+        static Position of(Path path, int line, int column) {
+            return new CursorPosition(path, line, column);
         }
 
 
@@ -207,10 +249,6 @@ class TreeMaker {
             return column;
         }
 
-        public Cursor cursor() {
-            return cursor;
-        }
-
         @Override
         public boolean equals(Object obj) {
             if (this == obj) return true;
@@ -0,0 +1,585 @@
+/*
+ *  Copyright (c) 2024, Oracle and/or its affiliates. All rights reserved.
+ *  DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ *  This code is free software; you can redistribute it and/or modify it
+ *  under the terms of the GNU General Public License version 2 only, as
+ *  published by the Free Software Foundation.  Oracle designates this
+ *  particular file as subject to the "Classpath" exception as provided
+ *  by Oracle in the LICENSE file that accompanied this code.
+ *
+ *  This code is distributed in the hope that it will be useful, but WITHOUT
+ *  ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ *  FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ *  version 2 for more details (a copy is included in the LICENSE file that
+ *  accompanied this code).
+ *
+ *  You should have received a copy of the GNU General Public License version
+ *  2 along with this work; if not, write to the Free Software Foundation,
+ *  Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ *   Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ *  or visit www.oracle.com if you need additional information or have any
+ *  questions.
+ *
+ */
+package org.openjdk.jextract.impl;
+
+import org.openjdk.jextract.Declaration;
+import org.openjdk.jextract.Position;
+import org.openjdk.jextract.Type;
+import org.openjdk.jextract.impl.DeclarationImpl.AnonymousStruct;
+import org.openjdk.jextract.impl.DeclarationImpl.ClangAlignOf;
+import org.openjdk.jextract.impl.DeclarationImpl.ClangOffsetOf;
+import org.openjdk.jextract.impl.DeclarationImpl.ClangSizeOf;
+import org.openjdk.jextract.impl.DeclarationImpl.DeclarationString;
+import org.openjdk.jextract.impl.DeclarationImpl.EnumConstant;
+import org.openjdk.jextract.impl.DeclarationImpl.NestedDeclarations;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.OptionalLong;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Saves a parsed declaration tree (along with the attributes set by the parser) to a compressed binary file,
+ * and loads it back, so that code can be generated more than once (e.g. with different filters or target
+ * packages) without parsing the headers again. Strings are stored once, in a string table built on the
+ * fly; declarations are also stored once, and subsequent uses refer to them by index. Pointer types can
+ * refer to a struct which is still being read, which is why members of scoped declarations are added
+ * after the declaration has been created.
+ * <p>
+ * A saved tree is only valid for the platform it was created on, as layouts depend on it. Only the
+ * attributes set by the parser are supported; attributes set by code generation passes cannot be saved.
+ */
+public final class TreeSerializer {
+    private static final int MAGIC = 0x4A585452; // "JXTR"
+    private static final int VERSION = 1;
+
+    // declaration tags
+    private static final int DECL_REF = 0;
+    private static final int DECL_CONSTANT = 1;
+    private static final int DECL_VARIABLE = 2;
+    private static final int DECL_BITFIELD = 3;
+    private static final int DECL_FUNCTION = 4;
+    private static final int DECL_SCOPED = 5;
+    private static final int DECL_TYPEDEF = 6;
+
+    // type tags
+    private static final int TYPE_PRIMITIVE = 0;
+    private static final int TYPE_QUALIFIED = 1;
+    private static final int TYPE_POINTER = 2;
+    private static final int TYPE_DECLARED = 3;
+    private static final int TYPE_FUNCTION = 4;
+    private static final int TYPE_ARRAY = 5;
+    private static final int TYPE_ERROR = 6;
+
+    // attribute tags (0 ends the attribute list)
+    private static final int ATTR_END = 0;
+    private static final int ATTR_ANONYMOUS_STRUCT = 1;
+    private static final int ATTR_ENUM_CONSTANT = 2;
+    private static final int ATTR_ALIGN_OF = 3;
+    private static final int ATTR_SIZE_OF = 4;
+    private static final int ATTR_OFFSET_OF = 5;
+    private static final int ATTR_NESTED = 6;
+    private static final int ATTR_DECLARATION_STRING = 7;
+    private static final int ATTR_CLANG_ATTRIBUTES = 8;
+
+    // constant value tags
+    private static final int VALUE_LONG = 0;
+    private static final int VALUE_DOUBLE = 1;
+    private static final int VALUE_STRING = 2;
+
+    private TreeSerializer() {}
+
+    /**
+     * A saved tree, along with the name of the header it was obtained from.
+     */
+    public record Tree(String headerName, Declaration.Scoped toplevel) { }
+
+    public static void save(Path file, Tree tree) throws IOException {
+        try (OutputStream out = Files.newOutputStream(file);
+             DataOutputStream data = new DataOutputStream(new BufferedOutputStream(new GZIPOutputStream(out)))) {
+            data.writeInt(MAGIC);
+            data.writeInt(VERSION);
+            data.writeBoolean(TypeImpl.IS_WINDOWS);
+            Writer writer = new Writer(data);
+            writer.writeString(tree.headerName());
+            writer.writeDeclaration(tree.toplevel());
+        }
+    }
+
+    public static Tree load(Path file) throws IOException {
+        try (InputStream in = Files.newInputStream(file);
+             DataInputStream data = new DataInputStream(new BufferedInputStream(new GZIPInputStream(in)))) {
+            if (data.readInt() != MAGIC) {
+                throw new IOException("Not a saved declaration tree: " + file);
+            }
+            int version = data.readInt();
+            if (version != VERSION) {
+                throw new IOException("Unsupported declaration tree version " + version + ": " + file);
+            }
+            if (data.readBoolean() != TypeImpl.IS_WINDOWS) {
+                throw new IOException("Declaration tree saved on a different platform: " + file);
+            }
+            Reader reader = new Reader(data);
+            String headerName = reader.readString();
+            if (!(reader.readDeclaration() instanceof Declaration.Scoped toplevel)) {
+                throw new IOException("Malformed declaration tree: " + file);
+            }
+            return new Tree(headerName, toplevel);
+        }
+    }
+
+    private static final class Writer {
+        private final DataOutputStream out;
+        private final Map<String, Integer> strings = new HashMap<>();
+        private final Map<Declaration, Integer> declarations = new IdentityHashMap<>();
+
+        Writer(DataOutputStream out) {
+            this.out = out;
+        }
+
+        void writeDeclaration(Declaration decl) throws IOException {
+            Integer id = declarations.get(decl);
+            if (id != null) {
+                writeInt(DECL_REF);
+                writeInt(id);
+                return;
+            }
+            declarations.put(decl, declarations.size());
+            switch (decl) {
+                case Declaration.Constant constant -> {
+                    writeHeader(DECL_CONSTANT, decl);
+                    writeType(constant.type());
+                    writeValue(constant.value());
+                }
+                case Declaration.Bitfield bitfield -> {
+                    writeHeader(DECL_BITFIELD, decl);
+                    writeType(bitfield.type());
+                    writeLong(bitfield.width());
+                }
+                case Declaration.Variable variable -> {
+                    writeHeader(DECL_VARIABLE, decl);
+                    writeInt(variable.kind().ordinal());
+                    writeType(variable.type());
+                }
+                case Declaration.Function function -> {
+                    writeHeader(DECL_FUNCTION, decl);
+                    writeType(function.type());
+                    writeDeclarations(function.parameters());
+                }
+                case Declaration.Scoped scoped -> {
+                    writeHeader(DECL_SCOPED, decl);
+                    writeInt(scoped.kind().ordinal());
+                    writeDeclarations(scoped.members());
+                }
+                case Declaration.Typedef typedef -> {
+                    writeHeader(DECL_TYPEDEF, decl);
+                    writeType(typedef.type());
+                }
+                default -> throw new IllegalStateException("Cannot save declaration: " + decl.name());
+            }
+            writeAttributes(decl);
+        }
+
+        private void writeHeader(int tag, Declaration decl) throws IOException {
+            writeInt(tag);
+            writeString(decl.name());
+            Position pos = decl.pos();
+            writeString(pos.path() != null ? pos.path().toString() : null);
+            writeInt(pos.line());
+            writeInt(pos.col());
+        }
+
+        private void writeDeclarations(List<? extends Declaration> decls) throws IOException {
+            writeInt(decls.size());
+            for (Declaration decl : decls) {
+                writeDeclaration(decl);
+            }
+        }
+
+        private void writeAttributes(Declaration decl) throws IOException {
+            for (Record attr : decl.attributes()) {
+                switch (attr) {
+                    case AnonymousStruct(OptionalLong offset) -> {
+                        writeInt(ATTR_ANONYMOUS_STRUCT);
+                        out.writeBoolean(offset.isPresent());
+                        if (offset.isPresent()) {
+                            writeLong(offset.getAsLong());
+                        }
+                    }
+                    case EnumConstant(String enumName) -> {
+                        writeInt(ATTR_ENUM_CONSTANT);
+                        writeString(enumName);
+                    }
+                    case ClangAlignOf(long align) -> {
+                        writeInt(ATTR_ALIGN_OF);
+                        writeLong(align);
+                    }
+                    case ClangSizeOf(long size) -> {
+                        writeInt(ATTR_SIZE_OF);
+                        writeLong(size);
+                    }
+                    case ClangOffsetOf(long offset) -> {
+                        writeInt(ATTR_OFFSET_OF);
+                        writeLong(offset);
+                    }
+                    case NestedDeclarations(List<Declaration.Scoped> nested) -> {
+                        writeInt(ATTR_NESTED);
+                        writeDeclarations(nested);
+                    }
+                    case DeclarationString(String declString) -> {
+                        writeInt(ATTR_DECLARATION_STRING);
+                        writeString(declString);
+                    }
+                    case Declaration.ClangAttributes(Map<String, List<String>> attributes) -> {
+                        writeInt(ATTR_CLANG_ATTRIBUTES);
+                        writeInt(attributes.size());
+                        for (Map.Entry<String, List<String>> entry : attributes.entrySet()) {
+                            writeString(entry.getKey());
+                            writeInt(entry.getValue().size());
+                            for (String value : entry.getValue()) {
+                                writeString(value);
+                            }
+                        }
+                    }
+                    default -> throw new IllegalStateException("Cannot save attribute: " + attr);
+                }
+            }
+            writeInt(ATTR_END);
+        }
+
+        private void writeType(Type type) throws IOException {
+            switch (type) {
+                case Type.Primitive primitive -> {
+                    writeInt(TYPE_PRIMITIVE);
+                    writeInt(primitive.kind().ordinal());
+                }
+                case Type.Delegated delegated when delegated.kind() == Type.Delegated.Kind.POINTER -> {
+                    writeInt(TYPE_POINTER);
+                    writeType(delegated.type());
+                }
+                case Type.Delegated delegated -> {
+                    writeInt(TYPE_QUALIFIED);
+                    writeInt(delegated.kind().ordinal());
+                    writeString(delegated.name().orElse(null));
+                    writeType(delegated.type());
+                }
+                case Type.Declared declared -> {
+                    writeInt(TYPE_DECLARED);
+                    writeDeclaration(declared.tree());
+                }
+                case Type.Function function -> {
+                    writeInt(TYPE_FUNCTION);
+                    out.writeBoolean(function.varargs());
+                    writeInt(function.argumentTypes().size());
+                    for (Type arg : function.argumentTypes()) {
+                        writeType(arg);
+                    }
+                    writeType(function.returnType());
+                    List<String> paramNames = function.parameterNames().orElse(null);
+                    out.writeBoolean(paramNames != null);
+                    if (paramNames != null) {
+                        writeInt(paramNames.size());
+                        for (String name : paramNames) {
+                            writeString(name);
+                        }
+                    }
+                }
+                case Type.Array array -> {
+                    writeInt(TYPE_ARRAY);
+                    writeInt(array.kind().ordinal());
+                    out.writeBoolean(array.elementCount().isPresent());
+                    if (array.elementCount().isPresent()) {
+                        writeLong(array.elementCount().getAsLong());
+                    }
+                    writeType(array.elementType());
+                }
+                case TypeImpl.ErronrousTypeImpl error -> {
+                    writeInt(TYPE_ERROR);
+                    writeString(error.erroneousName);
+                }
+                default -> throw new IllegalStateException("Cannot save type: " + type);
+            }
+        }
+
+        private void writeValue(Object value) throws IOException {
+            switch (value) {
+                case Long l -> {
+                    writeInt(VALUE_LONG);
+                    out.writeLong(l);
+                }
+                case Double d -> {
+                    writeInt(VALUE_DOUBLE);
+                    out.writeDouble(d);
+                }
+                case String s -> {
+                    writeInt(VALUE_STRING);
+                    writeString(s);
+                }
+                default -> throw new IllegalStateException("Cannot save constant value: " + value);
+            }
+        }
+
+        // strings are stored the first time they are seen, and then referred to by index (0 is null)
+        void writeString(String str) throws IOException {
+            if (str == null) {
+                writeInt(0);
+                return;
+            }
+            Integer id = strings.get(str);
+            if (id != null) {
+                writeInt(id);
+            } else {
+                id = strings.size() + 1;
+                strings.put(str, id);
+                writeInt(id);
+                byte[] bytes = str.getBytes(StandardCharsets.UTF_8);
+                writeInt(bytes.length);
+                out.write(bytes);
+            }
+        }
+
+        // variable-length encoding of non-negative values
+        private void writeLong(long value) throws IOException {
+            while ((value & ~0x7FL) != 0) {
+                out.writeByte((int)((value & 0x7F) | 0x80));
+                value >>>= 7;
+            }
+            out.writeByte((int)value);
+        }
+
+        private void writeInt(int value) throws IOException {
+            writeLong(value & 0xFFFFFFFFL);
+        }
+    }
+
+    private static final class Reader {
+        private final DataInputStream in;
+        private final List<String> strings = new ArrayList<>();
+        private final List<Declaration> declarations = new ArrayList<>();
+        private final Map<String, Path> paths = new HashMap<>();
+
+        Reader(DataInputStream in) {
+            this.in = in;
+        }
+
+        Declaration readDeclaration() throws IOException {
+            int tag = readInt();
+            if (tag == DECL_REF) {
+                Declaration decl = declarations.get(readInt());
+                if (decl == null) {
+                    throw new IOException("Malformed declaration tree: reference to incomplete declaration");
+                }
+                return decl;
+            }
+            // reserve the index, as the declaration can only be created once its children have been read
+            int id = declarations.size();
+            declarations.add(null);
+            String name = readString();
+            Position pos = readPosition();
+            Declaration decl = switch (tag) {
+                case DECL_CONSTANT -> {
+                    Type type = readType();
+                    yield Declaration.constant(pos, name, readValue(), type);
+                }
+                case DECL_BITFIELD -> {
+                    Type type = readType();
+                    yield Declaration.bitfield(pos, name, readLong(), type);
+                }
+                case DECL_VARIABLE -> {
+                    Declaration.Variable.Kind kind = Declaration.Variable.Kind.values()[readInt()];
+                    yield Declaration.var(kind, pos, name, readType());
+                }
+                case DECL_FUNCTION -> {
+                    if (!(readType() instanceof Type.Function type)) {
+                        throw new IOException("Malformed declaration tree: function without function type");
+                    }
+                    List<Declaration> params = readDeclarations();
+                    yield Declaration.function(pos, name, type,
+                            params.toArray(new Declaration.Variable[0]));
+                }
+                case DECL_SCOPED -> {
+                    Declaration.Scoped.Kind kind = Declaration.Scoped.Kind.values()[readInt()];
+                    // members might refer back to this declaration (through pointers), so add them afterwards
+                    List<Declaration> members = new ArrayList<>();
+                    Declaration.Scoped scoped = new DeclarationImpl.ScopedImpl(kind,
+                            Collections.unmodifiableList(members), name, pos);
+                    declarations.set(id, scoped);
+                    members.addAll(readDeclarations());
+                    yield scoped;
+                }
+                case DECL_TYPEDEF -> Declaration.typedef(pos, name, readType());
+                default -> throw new IOException("Malformed declaration tree: unknown declaration tag " + tag);
+            };
+            declarations.set(id, decl);
+            readAttributes(decl);
+            return decl;
+        }
+
+        private Position readPosition() throws IOException {
+            String pathName = readString();
+            int line = readInt();
+            int col = readInt();
+            return pathName == null ?
+                    Position.NO_POSITION :
+                    TreeMaker.CursorPosition.of(paths.computeIfAbsent(pathName, Path::of), line, col);
+        }
+
+        private List<Declaration> readDeclarations() throws IOException {
+            int size = readInt();
+            List<Declaration> decls = new ArrayList<>(size);
+            for (int i = 0; i < size; i++) {
+                decls.add(readDeclaration());
+            }
+            return decls;
+        }
+
+        private void readAttributes(Declaration decl) throws IOException {
+            for (int tag = readInt(); tag != ATTR_END; tag = readInt()) {
+                Record attr = switch (tag) {
+                    case ATTR_ANONYMOUS_STRUCT -> new AnonymousStruct(in.readBoolean() ?
+                            OptionalLong.of(readLong()) : OptionalLong.empty());
+                    case ATTR_ENUM_CONSTANT -> new EnumConstant(readString());
+                    case ATTR_ALIGN_OF -> new ClangAlignOf(readLong());
+                    case ATTR_SIZE_OF -> new ClangSizeOf(readLong());
+                    case ATTR_OFFSET_OF -> new ClangOffsetOf(readLong());
+                    case ATTR_NESTED -> {
+                        List<Declaration.Scoped> nested = new ArrayList<>();
+                        for (Declaration d : readDeclarations()) {
+                            nested.add((Declaration.Scoped)d);
+                        }
+                        yield new NestedDeclarations(nested);
+                    }
+                    case ATTR_DECLARATION_STRING -> new DeclarationString(readString());
+                    case ATTR_CLANG_ATTRIBUTES -> {
+                        int size = readInt();
+                        Map<String, List<String>> attributes = new LinkedHashMap<>();
+                        for (int i = 0; i < size; i++) {
+                            String key = readString();
+                            int count = readInt();
+                            List<String> values = new ArrayList<>(count);
+                            for (int j = 0; j < count; j++) {
+                                values.add(readString());
+                            }
+                            attributes.put(key, values);
+                        }
+                        yield new Declaration.ClangAttributes(Collections.unmodifiableMap(attributes));
+                    }
+                    default -> throw new IOException("Malformed declaration tree: unknown attribute tag " + tag);
+                };
+                decl.addAttribute(attr);
+            }
+        }
+
+        private Type readType() throws IOException {
+            int tag = readInt();
+            return switch (tag) {
+                case TYPE_PRIMITIVE -> Type.primitive(Type.Primitive.Kind.values()[readInt()]);
+                case TYPE_POINTER -> Type.pointer(readType());
+                case TYPE_QUALIFIED -> {
+                    Type.Delegated.Kind kind = Type.Delegated.Kind.values()[readInt()];
+                    String name = readString();
+                    Type type = readType();
+                    yield name != null ?
+                            new TypeImpl.QualifiedImpl(kind, name, type) :
+                            Type.qualified(kind, type);
+                }
+                case TYPE_DECLARED -> {
+                    if (!(readDeclaration() instanceof Declaration.Scoped scoped)) {
+                        throw new IOException("Malformed declaration tree: declared type without scoped declaration");
+                    }
+                    yield Type.declared(scoped);
+                }
+                case TYPE_FUNCTION -> {
+                    boolean varargs = in.readBoolean();
+                    int size = readInt();
+                    List<Type> args = new ArrayList<>(size);
+                    for (int i = 0; i < size; i++) {
+                        args.add(readType());
+                    }
+                    Type returnType = readType();
+                    List<String> paramNames = null;
+                    if (in.readBoolean()) {
+                        int count = readInt();
+                        paramNames = new ArrayList<>(count);
+                        for (int i = 0; i < count; i++) {
+                            paramNames.add(readString());
+                        }
+                    }
+                    yield new TypeImpl.FunctionImpl(varargs, args, returnType, paramNames);
+                }
+                case TYPE_ARRAY -> {
+                    Type.Array.Kind kind = Type.Array.Kind.values()[readInt()];
+                    OptionalLong count = in.readBoolean() ? OptionalLong.of(readLong()) : OptionalLong.empty();
+                    Type elementType = readType();
+                    yield count.isPresent() ?
+                            new TypeImpl.ArrayImpl(kind, count.getAsLong(), elementType) :
+                            new TypeImpl.ArrayImpl(kind, elementType);
+                }
+                case TYPE_ERROR -> Type.error(readString());
+                default -> throw new IOException("Malformed declaration tree: unknown type tag " + tag);
+            };
+        }
+
+        private Object readValue() throws IOException {
+            int tag = readInt();
+            return switch (tag) {
+                case VALUE_LONG -> in.readLong();
+                case VALUE_DOUBLE -> in.readDouble();
+                case VALUE_STRING -> readString();
+                default -> throw new IOException("Malformed declaration tree: unknown value tag " + tag);
+            };
+        }
+
+        String readString() throws IOException {
+            int id = readInt();
+            if (id == 0) {
+                return null;
+            } else if (id <= strings.size()) {
+                return strings.get(id - 1);
+            } else if (id == strings.size() + 1) {
+                byte[] bytes = new byte[readInt()];
+                in.readFully(bytes);
+                String str = new String(bytes, StandardCharsets.UTF_8);
+                strings.add(str);
+                return str;
+            } else {
+                throw new IOException("Malformed declaration tree: unknown string " + id);
+            }
+        }
+
+        private long readLong() throws IOException {
+            long value = 0;
+            for (int shift = 0; shift < 64; shift += 7) {
+                int b = in.readUnsignedByte();
+                value |= (long)(b & 0x7F) << shift;
+                if ((b & 0x80) == 0) {
+                    return value;
+                }
+            }
+            throw new IOException("Malformed declaration tree: bad varint");
+        }
+
+        private int readInt() throws IOException {
+            return (int)readLong();
+        }
+    }
+}
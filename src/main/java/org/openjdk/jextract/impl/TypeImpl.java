@@ -31,6 +31,7 @@ import java.util.Objects;
 import java.util.Optional;
 import java.util.OptionalLong;
 import java.util.function.Supplier;
+import java.util.stream.Stream;
 
 import java.lang.foreign.AddressLayout;
 import java.lang.foreign.MemoryLayout;
@@ -76,12 +77,21 @@ public abstract class TypeImpl implements Type {
 
     public static final class PrimitiveImpl extends TypeImpl implements Type.Primitive {
 
+        // primitive types are interned, there is one instance per kind
+        private static final PrimitiveImpl[] INSTANCES = Stream.of(Kind.values())
+                .map(PrimitiveImpl::new)
+                .toArray(PrimitiveImpl[]::new);
+
         private final Primitive.Kind kind;
 
-        public PrimitiveImpl(Kind kind) {
+        private PrimitiveImpl(Kind kind) {
             this.kind = Objects.requireNonNull(kind);
         }
 
+        public static PrimitiveImpl of(Kind kind) {
+            return INSTANCES[kind.ordinal()];
+        }
+
         @Override
         public <R, D> R accept(Visitor<R, D> visitor, D data) {
             return visitor.visitPrimitive(this, data);
@@ -103,7 +113,7 @@ public abstract class TypeImpl implements Type {
 
         @Override
         public int hashCode() {
-            return Objects.hash(kind);
+            return kind.hashCode();
         }
     }
 
@@ -148,7 +158,12 @@ public abstract class TypeImpl implements Type {
     }
 
     public static final class QualifiedImpl extends DelegatedBase {
+        // signed and unsigned primitive types are interned, like the primitive types they qualify
+        private static final QualifiedImpl[] SIGNED = qualifiedPrimitives(Kind.SIGNED);
+        private static final QualifiedImpl[] UNSIGNED = qualifiedPrimitives(Kind.UNSIGNED);
+
         private final Type type;
+        private int hash;
 
         public QualifiedImpl(Kind kind, Type type) {
             this(kind, Optional.empty(), type);
@@ -163,6 +178,23 @@ public abstract class TypeImpl implements Type {
             this.type = type;
         }
 
+        public static QualifiedImpl of(Kind kind, Type type) {
+            if (type instanceof PrimitiveImpl primitive) {
+                if (kind == Kind.SIGNED) {
+                    return SIGNED[primitive.kind().ordinal()];
+                } else if (kind == Kind.UNSIGNED) {
+                    return UNSIGNED[primitive.kind().ordinal()];
+                }
+            }
+            return new QualifiedImpl(kind, type);
+        }
+
+        private static QualifiedImpl[] qualifiedPrimitives(Kind kind) {
+            return Stream.of(Primitive.Kind.values())
+                    .map(primitiveKind -> new QualifiedImpl(kind, PrimitiveImpl.of(primitiveKind)))
+                    .toArray(QualifiedImpl[]::new);
+        }
+
         @Override
         public Type type() {
             return type;
@@ -180,7 +212,11 @@ public abstract class TypeImpl implements Type {
 
         @Override
         public int hashCode() {
-            return (kind() == Kind.TYPEDEF)? type().hashCode() : Objects.hash(super.hashCode(), type);
+            int h = hash;
+            if (h == 0) {
+                h = hash = (kind() == Kind.TYPEDEF)? type().hashCode() : Objects.hash(super.hashCode(), type);
+            }
+            return h;
         }
     }
 
@@ -188,6 +224,11 @@ public abstract class TypeImpl implements Type {
         public static final AddressLayout POINTER_LAYOUT = ADDRESS
                 .withTargetLayout(MemoryLayout.sequenceLayout(Long.MAX_VALUE, ValueLayout.JAVA_BYTE));
 
+        // pointers to primitive types are interned
+        private static final PointerImpl[] PRIMITIVE_POINTERS = Stream.of(Primitive.Kind.values())
+                .map(kind -> new PointerImpl(PrimitiveImpl.of(kind)))
+                .toArray(PointerImpl[]::new);
+
         private final Supplier<Type> pointeeFactory;
 
         public PointerImpl(Supplier<Type> pointeeFactory) {
@@ -199,6 +240,12 @@ public abstract class TypeImpl implements Type {
             this(() -> pointee);
         }
 
+        public static PointerImpl of(Type pointee) {
+            return pointee instanceof PrimitiveImpl primitive ?
+                    PRIMITIVE_POINTERS[primitive.kind().ordinal()] :
+                    new PointerImpl(pointee);
+        }
+
         @Override
         public Type type() {
             return pointeeFactory.get();
@@ -235,7 +282,7 @@ public abstract class TypeImpl implements Type {
 
         @Override
         public int hashCode() {
-            return Objects.hash(declaration);
+            return declaration.hashCode();
         }
     }
 
@@ -245,6 +292,7 @@ public abstract class TypeImpl implements Type {
         private final List<Type> argtypes;
         private final Type restype;
         private final Optional<List<String>> paramNames;
+        private int hash;
 
         public FunctionImpl(boolean varargs, List<Type> argtypes, Type restype, List<String> paramNames) {
             super();
@@ -302,7 +350,11 @@ public abstract class TypeImpl implements Type {
 
         @Override
         public int hashCode() {
-            return Objects.hash(varargs, argtypes, restype);
+            int h = hash;
+            if (h == 0) {
+                h = hash = Objects.hash(varargs, argtypes, restype);
+            }
+            return h;
         }
     }
 
@@ -311,6 +363,7 @@ public abstract class TypeImpl implements Type {
         private final Kind kind;
         private final OptionalLong elemCount;
         private final Type elemType;
+        private int hash;
 
         public ArrayImpl(Kind kind, long count, Type elemType) {
             this(kind, elemType, OptionalLong.of(count));
@@ -359,7 +412,11 @@ public abstract class TypeImpl implements Type {
 
         @Override
         public int hashCode() {
-            return Objects.hash(kind, elemType);
+            int h = hash;
+            if (h == 0) {
+                h = hash = Objects.hash(kind, elemType);
+            }
+            return h;
         }
     }
 
@@ -47,7 +47,8 @@ import org.openjdk.jextract.clang.Index;
 import org.openjdk.jextract.clang.TypeKind;
 
 /**
- * This class turns a clang type into a jextract type. Unlike declarations, jextract types are not
+ * This class turns a clang type into a jextract type. Primitive types (possibly signed or unsigned), pointers
+ * to primitive types and types referring to a given declaration are interned, but other jextract types are not
  * de-duplicated, so relying on the identity of a jextract type is wrong. Since pointer types can
  * point back to declarations, we create special pointer types backed by a supplier which fetches
  * the correct declaration from the tree maker cache. This makes sure that situations with
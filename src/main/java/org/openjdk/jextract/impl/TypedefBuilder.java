@@ -27,6 +27,11 @@ package org.openjdk.jextract.impl;
 
 import org.openjdk.jextract.Declaration;
 
+import javax.tools.JavaFileObject;
+import java.lang.classfile.ClassFile;
+import java.lang.constant.ClassDesc;
+import java.lang.constant.ConstantDescs;
+
 final class TypedefBuilder extends ClassSourceBuilder {
     private TypedefBuilder(SourceFileBuilder builder, String className, String superClass, String runtimeHelperName) {
         super(builder, "public", Kind.CLASS, className, superClass, null, runtimeHelperName);
@@ -41,4 +46,22 @@ final class TypedefBuilder extends ClassSourceBuilder {
         tdb.emitDefaultConstructor();
         tdb.classEnd();
     }
+
+    /**
+     * Emits the class file of a typedef class extending the given struct class. The class file is equivalent
+     * to the one obtained by compiling the source generated by {@link #generate}: a public class with a
+     * package-private, empty constructor.
+     * @param superClass the binary name (without package) of the struct class.
+     */
+    public static JavaFileObject generateClassFile(String packageName, String className, String superClass) {
+        ClassDesc superDesc = ClassDesc.of(packageName, superClass);
+        byte[] bytes = ClassFile.of().build(ClassDesc.of(packageName, className), cb -> cb
+                .withFlags(ClassFile.ACC_PUBLIC | ClassFile.ACC_SUPER)
+                .withSuperclass(superDesc)
+                .withMethodBody(ConstantDescs.INIT_NAME, ConstantDescs.MTD_void, 0, code -> code
+                        .aload(0)
+                        .invokespecial(superDesc, ConstantDescs.INIT_NAME, ConstantDescs.MTD_void)
+                        .return_()));
+        return Utils.fileFromBytes(packageName, className, bytes);
+    }
 }
@@ -50,16 +50,16 @@ import java.util.logging.Logger;
  * - bitfields struct members
  * - anonymous struct whose first (possibly nested) member has unknown offset
  */
-public class UnsupportedFilter implements Declaration.Visitor<Void, Declaration> {
+public class UnsupportedFilter implements Declaration.Visitor<Void, Declaration>, PassManager.Pass {
 
     private static final Logger LOGGER = Logger.getLogger(UnsupportedFilter.class.getSimpleName());
     static Type firstUnsupportedType(Type type, boolean allowVoid) {
         return type.accept(UNSUPPORTED_VISITOR, allowVoid);
     }
 
-    public Declaration.Scoped scan(Declaration.Scoped header) {
-        header.members().forEach(fieldTree -> fieldTree.accept(this, null));
-        return header;
+    @Override
+    public void visitToplevel(Declaration decl) {
+        decl.accept(this, null);
     }
 
     @Override
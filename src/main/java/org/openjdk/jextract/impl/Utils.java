@@ -41,7 +41,9 @@ import org.openjdk.jextract.clang.SourceLocation.Location;
 import javax.tools.JavaFileObject;
 import javax.tools.SimpleJavaFileObject;
 import java.lang.foreign.AddressLayout;
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.lang.foreign.GroupLayout;
 import java.lang.foreign.MemorySegment;
 import java.lang.foreign.SequenceLayout;
@@ -63,10 +65,42 @@ class Utils {
     }
 
     static JavaFileObject fileFromString(String pkgName, String clsName, String contents) {
-        return new SimpleJavaFileObject(fileName(pkgName, clsName, ".java"), JavaFileObject.Kind.SOURCE) {
+        return new SourceFile(fileName(pkgName, clsName, ".java"), contents, false);
+    }
+
+    /**
+     * Creates a source file for a class no other generated class refers to, such as a functional
+     * interface or a typedef class. Such classes can be compiled after all the other classes.
+     */
+    static JavaFileObject leafFileFromString(String pkgName, String clsName, String contents) {
+        return new SourceFile(fileName(pkgName, clsName, ".java"), contents, true);
+    }
+
+    static boolean isLeaf(JavaFileObject file) {
+        return file instanceof SourceFile sourceFile && sourceFile.leaf;
+    }
+
+    private static final class SourceFile extends SimpleJavaFileObject {
+        private final String contents;
+        private final boolean leaf;
+
+        SourceFile(URI uri, String contents, boolean leaf) {
+            super(uri, JavaFileObject.Kind.SOURCE);
+            this.contents = contents;
+            this.leaf = leaf;
+        }
+
+        @Override
+        public CharSequence getCharContent(boolean ignoreEncodingErrors) throws IOException {
+            return contents;
+        }
+    }
+
+    static JavaFileObject fileFromBytes(String pkgName, String clsName, byte[] contents) {
+        return new SimpleJavaFileObject(fileName(pkgName, clsName, ".class"), JavaFileObject.Kind.CLASS) {
             @Override
-            public CharSequence getCharContent(boolean ignoreEncodingErrors) throws IOException {
-                return contents;
+            public InputStream openInputStream() {
+                return new ByteArrayInputStream(contents);
             }
         };
     }
@@ -29,31 +29,120 @@ package org.openjdk.jextract.impl;
 import javax.tools.JavaFileObject;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.FileAlreadyExistsException;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.stream.Collectors;
 
 public final class Writer {
-    private final List<? extends JavaFileObject> files;
+    private static final int COMPILE_THREADS = Integer.getInteger("jextract.compile.threads",
+            Runtime.getRuntime().availableProcessors());
+    // below this, setting up a javac task costs more than what compiling the shard in parallel saves
+    private static final int MIN_SOURCES_PER_SHARD = 64;
+
+    // lists the files written by the last incremental write, relative to the output directory
+    static final String MANIFEST_FILE = ".jextract-manifest";
+
+    private final List<JavaFileObject> files;
     private final Path dest;
+    private final boolean incremental;
+    // the files written (or found up to date) by an incremental write, relative to the output directory
+    private final Set<String> written = ConcurrentHashMap.newKeySet();
 
     public Writer(Path dest, List<? extends JavaFileObject> files) {
-        this.files = files;
+        this(dest, files, false);
+    }
+
+    /**
+     * Creates a writer for the given files. An incremental writer does not overwrite the output files
+     * whose contents did not change, so that their modification time is preserved, and build tools
+     * do not consider them as changed. It also records the files it writes in a manifest file, in the
+     * output directory; the files recorded by the previous incremental write which are no longer
+     * generated are deleted. Files not recorded in the manifest are never deleted.
+     */
+    public Writer(Path dest, List<? extends JavaFileObject> files, boolean incremental) {
+        this.files = new ArrayList<>(files);
         this.dest = dest;
+        this.incremental = incremental;
     }
 
-    private List<JavaFileObject> ensureSourcesCompiled() {
+    /*
+     * Header and struct classes refer to each other, so they are compiled together. Leaf classes
+     * (functional interfaces and typedef classes) only refer to these, so once they are compiled,
+     * leaf classes are split in shards, which are compiled in parallel against the class files
+     * written by the first step.
+     */
+    private void compileSources() throws IOException {
         List<JavaFileObject> sources = sources();
         if (sources.isEmpty()) {
-            return List.of();
-        } else {
-            return InMemoryJavaCompiler.compile(sources,
-                "--enable-preview",
-                "--source", "22",
-                "-d", dest.toAbsolutePath().toString(),
-                "-cp", dest.toAbsolutePath().toString());
+            return;
+        }
+        List<JavaFileObject> leaves = sources.stream()
+                .filter(Utils::isLeaf)
+                .toList();
+        int shards = Math.min(COMPILE_THREADS, leaves.size() / MIN_SOURCES_PER_SHARD);
+        if (shards < 2) {
+            writeClassFiles(compile(sources));
+            return;
+        }
+        writeClassFiles(compile(sources.stream()
+                .filter(jfo -> !Utils.isLeaf(jfo))
+                .toList()));
+        int shardSize = (leaves.size() + shards - 1) / shards;
+        ExecutorService executor = Executors.newFixedThreadPool(shards);
+        try {
+            List<Future<List<JavaFileObject>>> futures = new ArrayList<>();
+            for (int i = 0; i < leaves.size(); i += shardSize) {
+                List<JavaFileObject> shard = leaves.subList(i, Math.min(i + shardSize, leaves.size()));
+                futures.add(executor.submit(() -> compile(shard)));
+            }
+            // shards are compiled against the output directory, so wait for all of them before writing
+            List<JavaFileObject> compiled = new ArrayList<>();
+            for (Future<List<JavaFileObject>> future : futures) {
+                compiled.addAll(Parser.join(future));
+            }
+            writeClassFiles(compiled);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private List<JavaFileObject> compile(List<JavaFileObject> sources) {
+        return InMemoryJavaCompiler.compile(sources,
+            "--enable-preview",
+            "--source", "22",
+            "-proc:none",
+            "-d", dest.toAbsolutePath().toString(),
+            "-cp", dest.toAbsolutePath().toString());
+    }
+
+    /**
+     * Adds files to be written by {@link #writeAll(boolean)}.
+     */
+    public void addFiles(List<? extends JavaFileObject> files) {
+        this.files.addAll(files);
+    }
+
+    /**
+     * Writes the given source file right away, so that generated files can be streamed to the output
+     * directory, rather than being kept in memory until all of them are generated. This method can be
+     * called concurrently, but not concurrently with {@link #writeAll(boolean)}.
+     */
+    public void writeSourceFile(JavaFileObject file) {
+        try {
+            writeSourceFile(createOutputDir(), file);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
         }
     }
 
@@ -61,10 +150,13 @@ public final class Writer {
         writeClassFiles(resources());
         writeClassFiles(classes());
         if (compileSources) {
-            writeClassFiles(ensureSourcesCompiled());
+            compileSources();
         } else {
             writeSourceFiles();
         }
+        if (incremental) {
+            updateManifest();
+        }
     }
 
     void writeClassFiles(List<JavaFileObject> files) throws IOException {
@@ -74,7 +166,7 @@ public final class Writer {
             Path fullPath = destDir.resolve(path).normalize();
             Files.createDirectories(fullPath.getParent());
             try (InputStream is = entry.openInputStream()) {
-                Files.write(fullPath, is.readAllBytes());
+                writeFile(destDir, fullPath, is.readAllBytes());
             }
         }
     }
@@ -82,19 +174,53 @@ public final class Writer {
     void writeSourceFiles() throws IOException {
         Path destDir = createOutputDir();
         for (var entry : sources()) {
-            String srcPath = entry.getName();
-            Path fullPath = destDir.resolve(srcPath).normalize();
-            Path dir = fullPath.getParent();
-            // In case the folder exist and is a link to a folder, this should be OK
-            // Case in point, /tmp on MacOS link to /private/tmp
-            if (Files.exists(dir)) {
-                if (!Files.isDirectory(dir)) {
-                    throw new FileAlreadyExistsException(dir.toAbsolutePath().toString());
-                }
-            } else {
-                Files.createDirectories(fullPath.getParent());
+            writeSourceFile(destDir, entry);
+        }
+    }
+
+    private void writeSourceFile(Path destDir, JavaFileObject entry) throws IOException {
+        String srcPath = entry.getName();
+        Path fullPath = destDir.resolve(srcPath).normalize();
+        Path dir = fullPath.getParent();
+        // In case the folder exist and is a link to a folder, this should be OK
+        // Case in point, /tmp on MacOS link to /private/tmp
+        if (Files.exists(dir)) {
+            if (!Files.isDirectory(dir)) {
+                throw new FileAlreadyExistsException(dir.toAbsolutePath().toString());
+            }
+        } else {
+            Files.createDirectories(fullPath.getParent());
+        }
+        writeFile(destDir, fullPath,
+                (entry.getCharContent(false) + System.lineSeparator()).getBytes(StandardCharsets.UTF_8));
+    }
+
+    private void writeFile(Path destDir, Path fullPath, byte[] contents) throws IOException {
+        if (incremental) {
+            written.add(destDir.relativize(fullPath).toString());
+            if (Files.isRegularFile(fullPath) && Files.size(fullPath) == contents.length &&
+                    Arrays.equals(Files.readAllBytes(fullPath), contents)) {
+                // up to date, keep the modification time
+                return;
+            }
+        }
+        Files.write(fullPath, contents);
+    }
+
+    private void updateManifest() throws IOException {
+        Path destDir = createOutputDir();
+        Path manifest = destDir.resolve(MANIFEST_FILE);
+        List<String> previous = Files.isRegularFile(manifest) ?
+                Files.readAllLines(manifest) : List.of();
+        for (String path : previous) {
+            Path stale = destDir.resolve(path).normalize();
+            if (!written.contains(path) && stale.startsWith(destDir)) {
+                Files.deleteIfExists(stale);
             }
-            Files.write(fullPath, List.of(entry.getCharContent(false)));
+        }
+        List<String> current = written.stream().sorted().toList();
+        if (!current.equals(previous)) {
+            Files.write(manifest, current);
         }
     }
 
@@ -117,7 +243,7 @@ public final class Writer {
     }
 
     private Path createOutputDir() throws IOException {
-        Path absDest = dest.toAbsolutePath();
+        Path absDest = dest.toAbsolutePath().normalize();
         if (!Files.exists(absDest)) {
             Files.createDirectories(absDest);
         }
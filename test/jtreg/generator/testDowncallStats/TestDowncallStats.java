@@ -0,0 +1,72 @@
+/*
+ * Copyright (c) 2024, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+
+import org.testng.annotations.Test;
+
+import java.util.LongSummaryStatistics;
+import java.util.Map;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+import static test.jextract.stats.downcallStats_h.*;
+
+/*
+ * @test id=classes
+ *
+ * @library /lib
+ * @run main/othervm JtregJextract -t test.jextract.stats -l DowncallStats downcallStats.h
+ * @build TestDowncallStats
+ * @run testng/othervm --enable-native-access=ALL-UNNAMED -Djextract.stats.downcalls=true TestDowncallStats
+ */
+/*
+ * @test id=sources
+ *
+ * @library /lib
+ * @run main/othervm JtregJextractSources -t test.jextract.stats -l DowncallStats downcallStats.h
+ * @build TestDowncallStats
+ * @run testng/othervm --enable-native-access=ALL-UNNAMED -Djextract.stats.downcalls=true TestDowncallStats
+ */
+public class TestDowncallStats {
+    @Test
+    public void testStats() {
+        for (int i = 0; i < 10; i++) {
+            assertEquals(add(i, 1), i + 1);
+        }
+        assertEquals(sum(3, 1, 2, 3), 6);
+        assertEquals(sum(2, 4, 5), 9);
+
+        Map<String, LongSummaryStatistics> stats = downcallStats();
+        checkStats(stats.get("add"), 10);
+        checkStats(stats.get("sum"), 2);
+        // functions which have not been called have no statistics
+        assertFalse(stats.containsKey("unused"));
+    }
+
+    private static void checkStats(LongSummaryStatistics stats, long count) {
+        assertEquals(stats.getCount(), count);
+        assertTrue(stats.getMin() >= 0);
+        assertTrue(stats.getMin() <= stats.getMax());
+        assertTrue(stats.getSum() >= stats.getMax());
+    }
+}
@@ -25,6 +25,8 @@ import java.lang.foreign.Arena;
 import org.testng.annotations.Test;
 
 import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNotEquals;
+import static org.testng.Assert.assertThrows;
 import static test.jextract.fp.funcPtr_h.*;
 import test.jextract.fp.*;
 
@@ -50,4 +52,39 @@ public class LibFuncPtrTest {
             assertEquals(func(handle, 35), 35 * 35 + 35);
         }
     }
+
+    @Test
+    public void testCached() {
+        func$f square = x -> x * x;
+        func$f cube = x -> x * x * x;
+        try (Arena arena = Arena.ofConfined()) {
+            var handle = func$f.allocateCached(square, arena);
+            // the same instance reuses the same stub
+            assertEquals(func$f.allocateCached(square, arena), handle);
+            assertNotEquals(func$f.allocateCached(cube, arena), handle);
+            assertEquals(func(handle, 35), 35 * 35 + 35);
+            assertEquals(func(func$f.allocateCached(cube, arena), 5), 5 * 5 * 5 + 5);
+        }
+        try (Arena arena = Arena.ofConfined()) {
+            // a new arena gets new stubs
+            assertEquals(func(func$f.allocateCached(square, arena), 35), 35 * 35 + 35);
+        }
+    }
+
+    @Test
+    public void testPool() {
+        try (var pool = func$f.stubPool()) {
+            var handle = pool.acquire(x -> x * x);
+            assertEquals(func(handle, 35), 35 * 35 + 35);
+            pool.release(handle);
+            assertThrows(IllegalArgumentException.class, () -> pool.release(handle));
+            // released stubs are reused, and call the new instance
+            var handle2 = pool.acquire(x -> x * x * x);
+            assertEquals(handle2, handle);
+            assertEquals(func(handle2, 5), 5 * 5 * 5 + 5);
+            var handle3 = pool.acquire(x -> -x);
+            assertNotEquals(handle3, handle2);
+            assertEquals(func(handle3, 5), 0);
+        }
+    }
 }
@@ -80,6 +80,22 @@ public class TestPrintf {
         }
     }
 
+    @Test
+    public void testsPrintfInvokerRepeated() {
+        // invokers for the same variadic layouts share a cached handle, which must not be mixed up with others
+        try (Arena arena = Arena.ofConfined()) {
+            MemorySegment s = arena.allocate(1024);
+            for (int i = 0 ; i < 3 ; i++) {
+                my_sprintf$makeInvoker(C_INT, C_DOUBLE)
+                    .my_sprintf(s, arena.allocateFrom("%d %.2f"), 2, i, 1.5d);
+                assertEquals(s.getString(0), i + " 1.50");
+                my_sprintf$makeInvoker(C_DOUBLE, C_INT)
+                    .my_sprintf(s, arena.allocateFrom("%.2f %d"), 2, 2.5d, i);
+                assertEquals(s.getString(0), "2.50 " + i);
+            }
+        }
+    }
+
     // linker does not except unpromoted layouts
     @Test(dataProvider = "illegalLinkCases", expectedExceptions = IllegalArgumentException.class)
     public void testsPrintfInvokerWrongArgs(MemoryLayout[] layouts) {
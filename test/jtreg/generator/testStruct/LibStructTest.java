@@ -30,6 +30,7 @@ import java.lang.foreign.MemorySegment;
 import org.testng.annotations.Test;
 
 import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertThrows;
 import static test.jextract.struct.struct_h.*;
 import test.jextract.struct.*;
 
@@ -88,6 +89,31 @@ public class LibStructTest {
         }
     }
 
+    @Test
+    public void testIndexedAccessors() {
+        try (Arena arena = Arena.ofConfined()) {
+            var seg = Point.allocateArray(3, arena);
+            for (int i = 0; i < 3; i++) {
+                Point.x$at(seg, i, 56 + i);
+                Point.y$at(seg, i, 65 + i);
+            }
+            for (int i = 0; i < 3; i++) {
+                MemorySegment point = Point.asSlice(seg, i);
+                assertEquals(Point.x(point), 56 + i);
+                assertEquals(Point.y(point), 65 + i);
+                assertEquals(Point.x$at(seg, i), 56 + i);
+                assertEquals(Point.y$at(seg, i), 65 + i);
+            }
+            var all = AllTypes.allocateArray(2, arena);
+            AllTypes.ll$at(all, 1, Long.MAX_VALUE);
+            AllTypes.d$at(all, 1, 42.5d);
+            assertEquals(AllTypes.ll(AllTypes.asSlice(all, 1)), Long.MAX_VALUE);
+            assertEquals(AllTypes.d(AllTypes.asSlice(all, 1)), 42.5d);
+            assertEquals(AllTypes.ll$at(all, 0), 0L);
+            assertThrows(IndexOutOfBoundsException.class, () -> Point.x$at(seg, 3));
+        }
+    }
+
     private static void checkField(GroupLayout group, String fieldName, MemoryLayout expected) {
         assertEquals(group.select(PathElement.groupElement(fieldName)), expected.withName(fieldName));
     }
@@ -31,8 +31,10 @@ import java.lang.reflect.Field;
 import java.lang.reflect.Method;
 import java.net.URL;
 import java.net.URLClassLoader;
+import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
 import java.util.Arrays;
 import java.util.Objects;
 import java.util.spi.ToolProvider;
@@ -102,6 +104,12 @@ public class JextractToolRunner {
         return outputDir.resolve(fileName).toAbsolutePath();
     }
 
+    // copies an input file to the given path (replacing any existing file), for tests which modify their headers
+    protected Path copyInputFile(String fileName, Path target) throws IOException {
+        Files.createDirectories(target.toAbsolutePath().getParent());
+        return Files.copy(getInputFilePath(fileName), target, StandardCopyOption.REPLACE_EXISTING);
+    }
+
     protected static class JextractResult {
         private int exitCode;
         private String output;
@@ -23,10 +23,14 @@
 package org.openjdk.jextract.test.api;
 
 import org.openjdk.jextract.Declaration;
+import org.openjdk.jextract.Position;
 import org.openjdk.jextract.Type;
 import org.testng.annotations.Test;
 import testlib.JextractApiTestBase;
 
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertSame;
+
 public class SmokeTest extends JextractApiTestBase {
 
     @Test
@@ -40,4 +44,31 @@ public class SmokeTest extends JextractApiTestBase {
         checkFunction(d, "pointers", ch_ptr_ptr.type(), ch_ptr_ptr.type(), ch_ptr_ptr.type());
         checkConstant(d, "ZERO", intType, 0L);
     }
+
+    @Test
+    public void testPositions() {
+        Declaration.Scoped d = parse("smoke.h");
+        checkPosition(findDecl(d, "Point", Declaration.Scoped.class), 25, 8);
+        checkPosition(findDecl(d, "p", Declaration.Variable.class), 31, 14);
+        checkPosition(findDecl(d, "distance", Declaration.Function.class), 34, 5);
+    }
+
+    @Test
+    public void testInternedTypes() {
+        Declaration.Scoped d = parse("smoke.h");
+        Declaration.Scoped pointDecl = findDecl(d, "Point", Declaration.Scoped.class);
+        Type intType = ((Declaration.Variable)pointDecl.members().get(0)).type();
+        assertSame(intType, Type.primitive(Type.Primitive.Kind.Int));
+        assertSame(findDecl(d, "p", Declaration.Variable.class).type(), Type.declared(pointDecl));
+        Declaration.Function distance = findDecl(d, "distance", Declaration.Function.class);
+        assertSame(distance.type().returnType(), intType);
+        assertSame(distance.type().argumentTypes().get(0), distance.type().argumentTypes().get(1));
+    }
+
+    private static void checkPosition(Declaration decl, int line, int col) {
+        Position pos = decl.pos();
+        assertEquals(pos.path().getFileName().toString(), "smoke.h");
+        assertEquals(pos.line(), line);
+        assertEquals(pos.col(), col);
+    }
 }
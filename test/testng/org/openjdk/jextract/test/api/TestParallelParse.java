@@ -0,0 +1,78 @@
+/*
+ * Copyright (c) 2024, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+
+package org.openjdk.jextract.test.api;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.openjdk.jextract.Declaration;
+import org.openjdk.jextract.JextractTool;
+import org.openjdk.jextract.Type;
+import org.testng.annotations.Test;
+import testlib.JextractApiTestBase;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertSame;
+
+public class TestParallelParse extends JextractApiTestBase {
+    private final static Type C_INT = Type.primitive(Type.Primitive.Kind.Int);
+
+    private static List<Path> headers(String... names) {
+        Path dir = Paths.get(System.getProperty("test.file")).getParent();
+        return Stream.of(names).map(dir::resolve).toList();
+    }
+
+    @Test
+    public void testSharedDeclarations() {
+        Declaration.Scoped d = JextractTool.parse(headers("parallel1.h", "parallel2.h"), 2);
+        // struct Point is seen by both translation units, but only one declaration is created
+        assertEquals(d.members().stream().filter(byNameAndType("Point", Declaration.Scoped.class)).count(), 1L);
+        Declaration.Scoped point = checkStruct(d, "Point", "x", "y");
+        Declaration.Function translate = checkFunction(d, "translate", Type.declared(point),
+                Type.declared(point), C_INT, C_INT);
+        assertSame(((Type.Declared)translate.type().returnType()).tree(), point);
+        Declaration.Function distance = findDecl(d, "distance", Declaration.Function.class);
+        Type pointType = unwrapDelegatedType(distance.type().argumentTypes().get(0), Type.Delegated.Kind.TYPEDEF);
+        assertSame(((Type.Declared)pointType).tree(), point);
+        // the definition provided by the second header replaces the opaque declaration in the first
+        assertEquals(d.members().stream().filter(byNameAndType("Opaque", Declaration.Scoped.class)).count(), 1L);
+        checkStruct(d, "Opaque", "origin");
+    }
+
+    @Test
+    public void testSameOrderAsSerialParse() {
+        List<Path> headers = headers("parallel1.h", "parallel2.h");
+        Declaration.Scoped serial = JextractTool.parse(headers, 1);
+        Declaration.Scoped parallel = JextractTool.parse(headers, 2);
+        assertEquals(names(parallel), names(serial));
+    }
+
+    private static List<String> names(Declaration.Scoped scoped) {
+        return scoped.members().stream()
+                .map(Declaration::name)
+                .toList();
+    }
+}
@@ -100,6 +100,19 @@ public class ConstantsTest extends JextractToolRunner {
                 { "QUOTE", MemorySegment.class, equalsToJavaStr("QUOTE") },
                 { "ZERO_PTR", MemorySegment.class, equalsPtrContents(0) },
                 { "F_PTR", MemorySegment.class, equalsPtrContents(0xFFFFFFFFFFFFFFFFL) },
+                // evaluated in Java
+                { "SHIFTED", int.class, equalsTo(19) },
+                { "UNSIGNED_HEX", int.class, equalsTo(-1) },
+                { "LONG_LONG_PRODUCT", long.class, equalsTo(30L) },
+                { "MIXED", double.class, equalsTo(10.0) },
+                { "CHAR_SUM", int.class, equalsTo(98) },
+                { "NEG_FLOAT", float.class, equalsTo(-2.5f) },
+                { "TERNARY", int.class, equalsTo(100) },
+                { "SIZEOF_INT", long.class, equalsTo(4L) },
+                { "CONCAT_STR", MemorySegment.class, equalsToJavaStr("Hello World") },
+                { "NOT_ZERO", int.class, equalsTo(1) },
+                { "UCHAR_CAST", byte.class, equalsTo((byte)-1) },
+                { "INT_PTR", MemorySegment.class, equalsPtrContents(16) },
         };
     }
 
@@ -125,6 +138,7 @@ public class ConstantsTest extends JextractToolRunner {
                 { "INTEGER_MAX_VALUE" },
                 { "CYCLIC_1" },
                 { "CYCLIC_2" },
+                { "UNDEFINED_REF" },
                 // array
                 { "ARRAY" }
         };
@@ -0,0 +1,88 @@
+/*
+ * Copyright (c) 2024, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+
+
+package org.openjdk.jextract.test.toolprovider;
+
+import java.io.IOException;
+import java.lang.foreign.MemorySegment;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.stream.Stream;
+
+import testlib.TestUtils;
+import org.testng.annotations.Test;
+import testlib.JextractToolRunner;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNotNull;
+import static org.testng.Assert.assertTrue;
+
+public class TestCriticalFunctions extends JextractToolRunner {
+    @Test
+    public void testCriticalFunctions() throws IOException {
+        Path dir = getOutputFilePath("criticalfunctions");
+        TestUtils.deleteDirIfExists(dir);
+        Path header = getInputFilePath("critical.h");
+        try {
+            Path src = dir.resolve("src");
+            run("--output", src.toString(), "--source",
+                    "--critical-function", "add",
+                    "--critical-function-heap", "sum",
+                    "--critical-function", "print",
+                    header.toString()).checkSuccess();
+            String source = readSources(src);
+            assertTrue(source.contains("findOrThrow(\"add\"), DESC, Linker.Option.critical(false));"), source);
+            assertTrue(source.contains("findOrThrow(\"sum\"), DESC, Linker.Option.critical(true));"), source);
+            assertTrue(source.contains("findOrThrow(\"other\"), DESC);"), source);
+            // variadic functions are linked as usual
+            assertEquals(source.split("Linker.Option.critical", -1).length - 1, 2);
+
+            Path out = dir.resolve("out");
+            run("--output", out.toString(),
+                    "--critical-function", "add",
+                    "--critical-function-heap", "sum",
+                    header.toString()).checkSuccess();
+            try (TestUtils.Loader loader = TestUtils.classLoader(out)) {
+                Class<?> cls = loader.loadClass("critical_h");
+                assertNotNull(cls);
+                assertNotNull(findMethod(cls, "add", int.class, int.class));
+                assertNotNull(findMethod(cls, "sum", MemorySegment.class, int.class));
+                assertNotNull(findMethod(cls, "other", int.class));
+            }
+        } finally {
+            TestUtils.deleteDir(dir);
+        }
+    }
+
+    private static String readSources(Path dir) throws IOException {
+        StringBuilder buf = new StringBuilder();
+        try (Stream<Path> files = Files.walk(dir)) {
+            for (Path file : files.filter(f -> f.toString().endsWith(".java")).sorted().toList()) {
+                // normalize whitespace, so that the checks do not depend on how the code is formatted
+                buf.append(Files.readString(file).replaceAll("\\s+", " "));
+            }
+        }
+        return buf.toString();
+    }
+}
@@ -28,6 +28,8 @@ import org.testng.annotations.Test;
 import testlib.JextractToolRunner;
 
 import java.io.IOException;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.SegmentAllocator;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.Iterator;
@@ -60,6 +62,69 @@ public class TestFilters extends JextractToolRunner {
         }
     }
 
+    @Test
+    public void testFilterDependencies() {
+        Path filterOutput = getOutputFilePath("filters_dependencies");
+        Path filterH = getInputFilePath("filterDependencies.h");
+        run("--output", filterOutput.toString(),
+                "--include-constant", "_derived",
+                "--include-function", "_deref",
+                filterH.toString()).checkSuccess();
+        try (TestUtils.Loader loader = TestUtils.classLoader(filterOutput)) {
+            Class<?> cls = loader.loadClass("filterDependencies_h");
+            // macros that are not included can still be used by included macros
+            checkIntGetter(cls, "_derived", 42);
+            assertNull(findMethod(cls, "_base"));
+            assertNotNull(findMethod(cls, "_deref", MemorySegment.class));
+            assertNull(loader.loadClass("_pointee"));
+        } finally {
+            TestUtils.deleteDir(filterOutput);
+        }
+    }
+
+    @Test
+    public void testFilterValueDependencies() {
+        Path filterOutput = getOutputFilePath("filters_value_dependencies");
+        Path filterH = getInputFilePath("filterDependencies.h");
+        run("--output", filterOutput.toString(),
+                "--include-function", "_make",
+                "--include-function", "_register",
+                filterH.toString()).checkSuccess();
+        try (TestUtils.Loader loader = TestUtils.classLoader(filterOutput)) {
+            Class<?> cls = loader.loadClass("filterDependencies_h");
+            assertNotNull(findMethod(cls, "_make", SegmentAllocator.class, int.class, int.class));
+            assertNotNull(findMethod(cls, "_register", MemorySegment.class));
+            assertNull(findMethod(cls, "_deref", MemorySegment.class));
+            // structs used by value, even through a function pointer, are generated
+            assertNotNull(loader.loadClass("_value"));
+            assertNotNull(loader.loadClass("_arg"));
+            // structs used through pointers are not
+            assertNull(loader.loadClass("_pointee"));
+        } finally {
+            TestUtils.deleteDir(filterOutput);
+        }
+    }
+
+    @Test
+    public void testFilterNames() {
+        Path filterOutput = getOutputFilePath("filters_names");
+        Path filterH = getInputFilePath("filterDependencies.h");
+        run("--output", filterOutput.toString(),
+                "--include-struct", "_named_impl",
+                "--include-typedef", "_named",
+                filterH.toString()).checkSuccess();
+        try (TestUtils.Loader loader = TestUtils.classLoader(filterOutput)) {
+            // class names do not depend on the include filters: the typedef class name
+            // clashes with the (excluded) struct _Named, as in the unfiltered bindings
+            assertNotNull(loader.loadClass("_named_impl"));
+            assertNotNull(loader.loadClass("_named$0"));
+            assertNull(loader.loadClass("_named"));
+            assertNull(loader.loadClass("_Named"));
+        } finally {
+            TestUtils.deleteDir(filterOutput);
+        }
+    }
+
     @Test
     public void testDumpIncludes() throws IOException {
         Path filterOutput = getOutputFilePath("filters_dump");
@@ -0,0 +1,91 @@
+/*
+ * Copyright (c) 2024, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+
+
+package org.openjdk.jextract.test.toolprovider;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.List;
+import java.util.stream.Stream;
+
+import testlib.TestUtils;
+import org.testng.annotations.Test;
+import testlib.JextractToolRunner;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNotEquals;
+import static org.testng.Assert.assertTrue;
+
+public class TestIncrementalOutput extends JextractToolRunner {
+    private static final FileTime OLD_TIME = FileTime.fromMillis(1_000_000_000_000L);
+
+    @Test
+    public void testUnchangedFilesAreKept() throws IOException {
+        Path dir = getOutputFilePath("incremental");
+        TestUtils.deleteDirIfExists(dir);
+        Path header = copyInputFile("incremental.h", dir.resolve("incremental.h"));
+        Path output = dir.resolve("out");
+        Files.createDirectories(output);
+        Path userFile = output.resolve("notes.txt");
+        Files.writeString(userFile, "not generated by jextract");
+        try {
+            run("--output", output.toString(), "--incremental", header.toString()).checkSuccess();
+            assertTrue(Files.isRegularFile(output.resolve("Foo.class")));
+            assertTrue(Files.isRegularFile(output.resolve("Bar.class")));
+            setOldTime(output);
+
+            // nothing changed, no file is written
+            run("--output", output.toString(), "--incremental", header.toString()).checkSuccess();
+            for (Path file : files(output)) {
+                assertEquals(Files.getLastModifiedTime(file), OLD_TIME, file.toString());
+            }
+
+            // Bar is no longer generated, and the header class changed
+            copyInputFile("incremental_changed.h", header);
+            run("--output", output.toString(), "--incremental", header.toString()).checkSuccess();
+            assertEquals(Files.getLastModifiedTime(output.resolve("Foo.class")), OLD_TIME);
+            assertNotEquals(Files.getLastModifiedTime(output.resolve("incremental_h.class")), OLD_TIME);
+            assertFalse(Files.exists(output.resolve("Bar.class")));
+            // files not generated by jextract are left alone
+            assertTrue(Files.isRegularFile(userFile));
+        } finally {
+            TestUtils.deleteDir(dir);
+        }
+    }
+
+    private static void setOldTime(Path dir) throws IOException {
+        for (Path file : files(dir)) {
+            Files.setLastModifiedTime(file, OLD_TIME);
+        }
+    }
+
+    private static List<Path> files(Path dir) throws IOException {
+        try (Stream<Path> files = Files.walk(dir)) {
+            return files.filter(Files::isRegularFile).toList();
+        }
+    }
+}
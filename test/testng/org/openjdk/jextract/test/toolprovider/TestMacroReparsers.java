@@ -0,0 +1,53 @@
+/*
+ * Copyright (c) 2024, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+
+
+package org.openjdk.jextract.test.toolprovider;
+
+import java.nio.file.Path;
+
+import testlib.TestUtils;
+import org.testng.annotations.Test;
+import testlib.JextractToolRunner;
+
+import static org.testng.Assert.assertNotNull;
+
+public class TestMacroReparsers extends JextractToolRunner {
+    // enough macros for them to be split across several reparsers (see manymacros.h)
+    private static final int MACROS = 1024;
+
+    @Test
+    public void testManyReparsedMacros() {
+        Path output = getOutputFilePath("macroreparsers");
+        run("--output", output.toString(), getInputFilePath("manymacros.h").toString()).checkSuccess();
+        try (TestUtils.Loader loader = TestUtils.classLoader(output)) {
+            Class<?> cls = loader.loadClass("manymacros_h");
+            assertNotNull(cls);
+            for (int i = 0; i < MACROS; i++) {
+                checkIntGetter(cls, "M" + i, 8 * i);
+            }
+        } finally {
+            TestUtils.deleteDir(output);
+        }
+    }
+}
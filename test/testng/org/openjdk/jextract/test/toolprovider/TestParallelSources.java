@@ -0,0 +1,92 @@
+/*
+ * Copyright (c) 2024, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+
+
+package org.openjdk.jextract.test.toolprovider;
+
+import java.io.IOException;
+import java.lang.foreign.MemorySegment;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Stream;
+
+import testlib.TestUtils;
+import org.testng.annotations.Test;
+import testlib.JextractToolRunner;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNotNull;
+
+public class TestParallelSources extends JextractToolRunner {
+    // see structs.h
+    private static final int STRUCTS = 256;
+
+    @Test
+    public void testDeterministicOutput() throws Throwable {
+        Path dir = getOutputFilePath("parallelsources");
+        TestUtils.deleteDirIfExists(dir);
+        Path header = getInputFilePath("structs.h");
+        try {
+            Path out1 = dir.resolve("out1");
+            Path out2 = dir.resolve("out2");
+            run("--output", out1.toString(), "--source", header.toString()).checkSuccess();
+            run("--output", out2.toString(), "--source", header.toString()).checkSuccess();
+            // sources generated in parallel are the same from one run to another
+            List<Path> files = sourceFiles(out1);
+            assertEquals(files, sourceFiles(out2));
+            for (Path file : files) {
+                assertEquals(Files.readString(out1.resolve(file)), Files.readString(out2.resolve(file)), file.toString());
+            }
+
+            Path out3 = dir.resolve("out3");
+            run("--output", out3.toString(), header.toString()).checkSuccess();
+            try (TestUtils.Loader loader = TestUtils.classLoader(out3)) {
+                for (int i = 0; i < STRUCTS; i++) {
+                    String suffix = suffix(i);
+                    Class<?> cls = loader.loadClass("S" + suffix);
+                    assertNotNull(cls);
+                    assertEquals(cls.getMethod("sizeof").invoke(null), 24L);
+                    assertNotNull(findMethod(cls, "b", MemorySegment.class));
+                    assertNotNull(findMethod(cls, "callback", MemorySegment.class));
+                    assertNotNull(loader.loadClass("T" + suffix));
+                    assertNotNull(loader.loadClass("cb" + suffix));
+                }
+            }
+        } finally {
+            TestUtils.deleteDir(dir);
+        }
+    }
+
+    // the suffix of the i-th declaration of structs.h: an underscore, followed by i as a 4-digit base 4 number
+    private static String suffix(int i) {
+        String digits = Integer.toString(i, 4);
+        return "_" + "0".repeat(4 - digits.length()) + digits;
+    }
+
+    private static List<Path> sourceFiles(Path dir) throws IOException {
+        try (Stream<Path> files = Files.walk(dir)) {
+            return files.filter(Files::isRegularFile).map(dir::relativize).sorted().toList();
+        }
+    }
+}
@@ -0,0 +1,103 @@
+/*
+ * Copyright (c) 2024, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+
+package org.openjdk.jextract.test.toolprovider;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import testlib.TestUtils;
+import org.testng.annotations.Test;
+import testlib.JextractToolRunner;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNotNull;
+
+public class TestParseCache extends JextractToolRunner {
+    @Test
+    public void testCacheReuseAndInvalidation() throws IOException {
+        Path dir = getOutputFilePath("parsecache");
+        TestUtils.deleteDirIfExists(dir);
+        Path cacheDir = dir.resolve("cache");
+        Path header = copyInputFile("cached.h", dir.resolve("cached.h"));
+        Path auxHeader = copyInputFile("cached_aux.h", dir.resolve("cached_aux.h"));
+        try {
+            // first run populates the cache
+            checkDerived(dir.resolve("out1"), cacheDir, header, 42);
+            assertEquals(cacheEntries(cacheDir, ".ast"), 1);
+            // second run uses the cached translation unit
+            checkDerived(dir.resolve("out2"), cacheDir, header, 42);
+            assertEquals(cacheEntries(cacheDir, ".ast"), 1);
+            // changing an included header invalidates the cached translation unit
+            copyInputFile("cached_aux_changed.h", auxHeader);
+            checkDerived(dir.resolve("out3"), cacheDir, header, 2);
+            assertEquals(cacheEntries(cacheDir, ".ast"), 1);
+        } finally {
+            TestUtils.deleteDir(dir);
+        }
+    }
+
+    @Test
+    public void testCacheInvalidationByShadowingHeader() throws IOException {
+        Path dir = getOutputFilePath("parsecache_shadow");
+        TestUtils.deleteDirIfExists(dir);
+        Path cacheDir = dir.resolve("cache");
+        Path header = copyInputFile("cached.h", dir.resolve("cached.h"));
+        Path firstDir = dir.resolve("inc1");
+        Path secondDir = dir.resolve("inc2");
+        Files.createDirectories(firstDir);
+        copyInputFile("cached_aux.h", secondDir.resolve("cached_aux.h"));
+        try {
+            checkDerived(dir.resolve("out1"), cacheDir, header, 42,
+                    "-I", firstDir.toString(), "-I", secondDir.toString());
+            // a header which shadows an included header on the search path invalidates the cached translation unit
+            copyInputFile("cached_aux_changed.h", firstDir.resolve("cached_aux.h"));
+            checkDerived(dir.resolve("out2"), cacheDir, header, 2,
+                    "-I", firstDir.toString(), "-I", secondDir.toString());
+        } finally {
+            TestUtils.deleteDir(dir);
+        }
+    }
+
+    private void checkDerived(Path output, Path cacheDir, Path header, int expected, String... extraArgs) {
+        List<String> args = new ArrayList<>(List.of(extraArgs));
+        args.addAll(List.of("--output", output.toString(), "--parse-cache", cacheDir.toString(), header.toString()));
+        run(args.toArray(new String[0])).checkSuccess();
+        try (TestUtils.Loader loader = TestUtils.classLoader(output)) {
+            Class<?> cls = loader.loadClass("cached_h");
+            assertNotNull(cls);
+            checkIntGetter(cls, "DERIVED", expected);
+            assertNotNull(findMethod(cls, "func", int.class));
+        }
+    }
+
+    private static long cacheEntries(Path cacheDir, String suffix) throws IOException {
+        try (Stream<Path> files = Files.list(cacheDir)) {
+            return files.filter(f -> f.getFileName().toString().endsWith(suffix)).count();
+        }
+    }
+}
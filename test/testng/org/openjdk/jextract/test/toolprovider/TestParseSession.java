@@ -0,0 +1,90 @@
+/*
+ * Copyright (c) 2024, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+
+package org.openjdk.jextract.test.toolprovider;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.nio.file.Path;
+
+import org.openjdk.jextract.JextractTool;
+import testlib.TestUtils;
+import org.testng.annotations.Test;
+import testlib.JextractToolRunner;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNotNull;
+import static org.testng.Assert.assertNull;
+
+public class TestParseSession extends JextractToolRunner {
+    @Test
+    public void testReparseOnChange() throws IOException {
+        Path dir = getOutputFilePath("parsesession");
+        TestUtils.deleteDirIfExists(dir);
+        Path header = copyInputFile("session.h", dir.resolve("session.h"));
+        Path auxHeader = copyInputFile("session_aux.h", dir.resolve("session_aux.h"));
+        try (JextractTool.JextractToolProvider tool = new JextractTool.JextractToolProvider(true)) {
+            checkSession(tool, dir.resolve("out1"), header, 42, false);
+            // nothing changed, the translation unit is reused
+            checkSession(tool, dir.resolve("out2"), header, 42, false);
+            // an included header changed
+            copyInputFile("session_aux_changed.h", auxHeader);
+            checkSession(tool, dir.resolve("out3"), header, 2, false);
+            // the main header changed
+            copyInputFile("session_changed.h", header);
+            checkSession(tool, dir.resolve("out4"), header, 3, true);
+            // errors are reported, and do not leave a stale translation unit behind
+            copyInputFile("session_aux_error.h", auxHeader);
+            assertEquals(run(tool, "--output", dir.resolve("out5").toString(), header.toString()), CLANG_ERROR);
+            copyInputFile("session_aux_changed.h", auxHeader);
+            checkSession(tool, dir.resolve("out6"), header, 3, true);
+        } finally {
+            TestUtils.deleteDir(dir);
+        }
+    }
+
+    private void checkSession(JextractTool.JextractToolProvider tool, Path output, Path header,
+                              int expected, boolean hasFunc2) {
+        assertEquals(run(tool, "--output", output.toString(), header.toString()), SUCCESS);
+        try (TestUtils.Loader loader = TestUtils.classLoader(output)) {
+            Class<?> cls = loader.loadClass("session_h");
+            assertNotNull(cls);
+            checkIntGetter(cls, "DERIVED", expected);
+            assertNotNull(findMethod(cls, "func", int.class));
+            if (hasFunc2) {
+                assertNotNull(findMethod(cls, "func2", int.class));
+            } else {
+                assertNull(findMethod(cls, "func2", int.class));
+            }
+        }
+    }
+
+    private static int run(JextractTool.JextractToolProvider tool, String... options) {
+        StringWriter writer = new StringWriter();
+        PrintWriter pw = new PrintWriter(writer);
+        int result = tool.run(pw, pw, options);
+        System.err.println(writer);
+        return result;
+    }
+}
@@ -0,0 +1,91 @@
+/*
+ * Copyright (c) 2024, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+
+
+package org.openjdk.jextract.test.toolprovider;
+
+import java.io.IOException;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.SegmentAllocator;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import testlib.TestUtils;
+import org.testng.annotations.Test;
+import testlib.JextractToolRunner;
+
+import static org.testng.Assert.assertNotNull;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
+
+public class TestSavedTree extends JextractToolRunner {
+    @Test
+    public void testSaveAndLoad() throws IOException {
+        Path dir = getOutputFilePath("savedtree");
+        TestUtils.deleteDirIfExists(dir);
+        Path treeFile = dir.resolve("filterDependencies.tree");
+        Path header = getInputFilePath("filterDependencies.h");
+        try {
+            // saving the tree does not affect the code generated for the header
+            run("--output", dir.resolve("out1").toString(), "--save-tree", treeFile.toString(),
+                    "--include-function", "_deref", header.toString()).checkSuccess();
+            try (TestUtils.Loader loader = TestUtils.classLoader(dir.resolve("out1"))) {
+                Class<?> cls = loader.loadClass("filterDependencies_h");
+                assertNotNull(cls);
+                assertNotNull(findMethod(cls, "_deref", MemorySegment.class));
+                assertNull(findMethod(cls, "_make", SegmentAllocator.class, int.class, int.class));
+            }
+            assertTrue(Files.isRegularFile(treeFile));
+
+            // the saved tree contains all the declarations, and can be used with different options
+            run("--output", dir.resolve("out2").toString(), "--load-tree", treeFile.toString(),
+                    "-t", "saved", "--include-function", "_make", "--include-constant", "_derived").checkSuccess();
+            try (TestUtils.Loader loader = TestUtils.classLoader(dir.resolve("out2"))) {
+                Class<?> cls = loader.loadClass("saved.filterDependencies_h");
+                assertNotNull(cls);
+                checkIntGetter(cls, "_derived", 42);
+                assertNotNull(findMethod(cls, "_make", SegmentAllocator.class, int.class, int.class));
+                assertNull(findMethod(cls, "_deref", MemorySegment.class));
+                assertNotNull(loader.loadClass("saved._value"));
+                assertNull(loader.loadClass("saved._pointee"));
+            }
+
+            // a header file cannot be specified along with a saved tree
+            run("--output", dir.resolve("out3").toString(), "--load-tree", treeFile.toString(),
+                    header.toString()).checkFailure(OPTION_ERROR)
+                    .checkContainsOutput("a header file cannot be specified with --load-tree");
+            // neither can the options which only affect parsing
+            run("--output", dir.resolve("out3").toString(), "--load-tree", treeFile.toString(),
+                    "-D", "FOO=1").checkFailure(OPTION_ERROR)
+                    .checkContainsOutput("option -D cannot be used with --load-tree");
+            run("--output", dir.resolve("out3").toString(), "--load-tree", treeFile.toString(),
+                    "--save-tree", dir.resolve("copy.tree").toString()).checkFailure(OPTION_ERROR)
+                    .checkContainsOutput("option --save-tree cannot be used with --load-tree");
+            // the saved tree must exist
+            run("--output", dir.resolve("out4").toString(), "--load-tree",
+                    dir.resolve("missing.tree").toString()).checkFailure(INPUT_ERROR);
+        } finally {
+            TestUtils.deleteDir(dir);
+        }
+    }
+}
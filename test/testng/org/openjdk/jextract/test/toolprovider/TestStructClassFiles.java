@@ -0,0 +1,79 @@
+/*
+ * Copyright (c) 2024, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+
+
+package org.openjdk.jextract.test.toolprovider;
+
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.SegmentAllocator;
+import java.lang.invoke.MethodHandle;
+import java.lang.reflect.Field;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import testlib.TestUtils;
+import org.testng.annotations.Test;
+import testlib.JextractToolRunner;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNotNull;
+import static org.testng.Assert.assertTrue;
+
+public class TestStructClassFiles extends JextractToolRunner {
+    @Test
+    public void testStructAndHolderClasses() throws Throwable {
+        Path dir = getOutputFilePath("structclassfiles");
+        TestUtils.deleteDirIfExists(dir);
+        Path header = getInputFilePath("structClassFiles.h");
+        try {
+            run("--output", dir.toString(), "-t", "structs", header.toString()).checkSuccess();
+            try (TestUtils.Loader loader = TestUtils.classLoader(dir);
+                 Arena arena = Arena.ofConfined()) {
+                Class<?> point = loader.loadClass("structs.Point");
+                assertEquals(point.getMethod("sizeof").invoke(null), 8L);
+                MemorySegment seg = (MemorySegment) point.getMethod("allocate", SegmentAllocator.class).invoke(null, arena);
+                point.getMethod("y", MemorySegment.class, int.class).invoke(null, seg, 42);
+                assertEquals(point.getMethod("y", MemorySegment.class).invoke(null, seg), 42);
+
+                // structs with callbacks are still compiled from source
+                Class<?> callback = loader.loadClass("structs.Callback");
+                assertEquals(callback.getMethod("sizeof").invoke(null), 16L);
+                assertNotNull(loader.loadClass("structs.Callback$fn"));
+
+                // wrapper holders are emitted as numbered top-level classes
+                Class<?> absHolder = loader.loadClass("structs.structClassFiles_h$0$abs");
+                Field mhField = absHolder.getDeclaredField("MH");
+                mhField.setAccessible(true);
+                MethodHandle mh = (MethodHandle) mhField.get(null);
+                assertEquals((int) mh.invokeExact(-5), 5);
+                Class<?> headerClass = loader.loadClass("structs.structClassFiles_h");
+                assertEquals(headerClass.getMethod("abs", int.class).invoke(null, -5), 5);
+                assertNotNull(loader.loadClass("structs.structClassFiles_h$1$printf").getDeclaredField("BASE_DESC"));
+            }
+            assertTrue(Files.isRegularFile(dir.resolve("structs").resolve("structClassFiles_h$0$abs.class")));
+        } finally {
+            TestUtils.deleteDir(dir);
+        }
+    }
+}
@@ -0,0 +1,67 @@
+/*
+ * Copyright (c) 2024, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+
+
+package org.openjdk.jextract.test.toolprovider;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import testlib.TestUtils;
+import org.testng.annotations.Test;
+import testlib.JextractToolRunner;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNotNull;
+import static org.testng.Assert.assertTrue;
+
+public class TestTypedefClassFiles extends JextractToolRunner {
+    @Test
+    public void testTypedefClasses() throws Throwable {
+        Path dir = getOutputFilePath("typedefclassfiles");
+        TestUtils.deleteDirIfExists(dir);
+        Path header = getInputFilePath("typedefClassFiles.h");
+        try {
+            Path output = dir.resolve("out");
+            run("--output", output.toString(), "-t", "typedefs", header.toString()).checkSuccess();
+            try (TestUtils.Loader loader = TestUtils.classLoader(output)) {
+                Class<?> fooT = loader.loadClass("typedefs.FooT");
+                assertNotNull(fooT);
+                assertEquals(fooT.getSuperclass(), loader.loadClass("typedefs.Foo"));
+                assertEquals(fooT.getMethod("sizeof").invoke(null), 8L);
+                Class<?> barT = loader.loadClass("typedefs.BarT");
+                assertNotNull(barT);
+                assertEquals(barT.getSuperclass(), loader.loadClass("typedefs.Foo$Bar"));
+                assertEquals(barT.getMethod("sizeof").invoke(null), 4L);
+            }
+
+            // typedef classes are still generated as sources when requested
+            Path sources = dir.resolve("src");
+            run("--output", sources.toString(), "-t", "typedefs", "--source", header.toString()).checkSuccess();
+            assertTrue(Files.isRegularFile(sources.resolve("typedefs").resolve("FooT.java")));
+            assertTrue(Files.isRegularFile(sources.resolve("typedefs").resolve("BarT.java")));
+        } finally {
+            TestUtils.deleteDir(dir);
+        }
+    }
+}
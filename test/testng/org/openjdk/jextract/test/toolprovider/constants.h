@@ -72,3 +72,22 @@ enum AnEnum {
     #define SEVEN SEVEN
     #define EIGHT SEVEN + 1
 };
+
+// evaluated in Java, without reparsing
+#define SHIFTED (1 << 4) | 3
+#define UNSIGNED_HEX 0xFFFFFFFF
+#define LONG_LONG_PRODUCT 10LL * 3
+#define MIXED (FOUR) * 2.5
+#define CHAR_SUM ('a' + 1)
+#define NEG_FLOAT -2.5f
+#define TERNARY (TWO > ONE ? 100 : 200)
+#define SIZEOF_INT sizeof(int)
+#define CONCAT_STR "Hello" " World"
+#define NOT_ZERO !ZERO
+#define UCHAR_CAST (unsigned char)255
+#define INT_PTR (int*)16
+
+// refers to a macro which is no longer defined at the end of the header
+#define UNDEFINED_BASE 1
+#undef UNDEFINED_BASE
+#define UNDEFINED_REF (UNDEFINED_BASE + 1)
@@ -0,0 +1,1050 @@
+/*
+ * Copyright (c) 2024, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+
+struct Foo { int a; int b; };
+
+// sizeof of a struct cannot be evaluated in Java, so these macros are all reparsed by clang
+#define M0 ((int)sizeof(struct Foo) * 0)
+#define M1 ((int)sizeof(struct Foo) * 1)
+#define M2 ((int)sizeof(struct Foo) * 2)
+#define M3 ((int)sizeof(struct Foo) * 3)
+#define M4 ((int)sizeof(struct Foo) * 4)
+#define M5 ((int)sizeof(struct Foo) * 5)
+#define M6 ((int)sizeof(struct Foo) * 6)
+#define M7 ((int)sizeof(struct Foo) * 7)
+#define M8 ((int)sizeof(struct Foo) * 8)
+#define M9 ((int)sizeof(struct Foo) * 9)
+#define M10 ((int)sizeof(struct Foo) * 10)
+#define M11 ((int)sizeof(struct Foo) * 11)
+#define M12 ((int)sizeof(struct Foo) * 12)
+#define M13 ((int)sizeof(struct Foo) * 13)
+#define M14 ((int)sizeof(struct Foo) * 14)
+#define M15 ((int)sizeof(struct Foo) * 15)
+#define M16 ((int)sizeof(struct Foo) * 16)
+#define M17 ((int)sizeof(struct Foo) * 17)
+#define M18 ((int)sizeof(struct Foo) * 18)
+#define M19 ((int)sizeof(struct Foo) * 19)
+#define M20 ((int)sizeof(struct Foo) * 20)
+#define M21 ((int)sizeof(struct Foo) * 21)
+#define M22 ((int)sizeof(struct Foo) * 22)
+#define M23 ((int)sizeof(struct Foo) * 23)
+#define M24 ((int)sizeof(struct Foo) * 24)
+#define M25 ((int)sizeof(struct Foo) * 25)
+#define M26 ((int)sizeof(struct Foo) * 26)
+#define M27 ((int)sizeof(struct Foo) * 27)
+#define M28 ((int)sizeof(struct Foo) * 28)
+#define M29 ((int)sizeof(struct Foo) * 29)
+#define M30 ((int)sizeof(struct Foo) * 30)
+#define M31 ((int)sizeof(struct Foo) * 31)
+#define M32 ((int)sizeof(struct Foo) * 32)
+#define M33 ((int)sizeof(struct Foo) * 33)
+#define M34 ((int)sizeof(struct Foo) * 34)
+#define M35 ((int)sizeof(struct Foo) * 35)
+#define M36 ((int)sizeof(struct Foo) * 36)
+#define M37 ((int)sizeof(struct Foo) * 37)
+#define M38 ((int)sizeof(struct Foo) * 38)
+#define M39 ((int)sizeof(struct Foo) * 39)
+#define M40 ((int)sizeof(struct Foo) * 40)
+#define M41 ((int)sizeof(struct Foo) * 41)
+#define M42 ((int)sizeof(struct Foo) * 42)
+#define M43 ((int)sizeof(struct Foo) * 43)
+#define M44 ((int)sizeof(struct Foo) * 44)
+#define M45 ((int)sizeof(struct Foo) * 45)
+#define M46 ((int)sizeof(struct Foo) * 46)
+#define M47 ((int)sizeof(struct Foo) * 47)
+#define M48 ((int)sizeof(struct Foo) * 48)
+#define M49 ((int)sizeof(struct Foo) * 49)
+#define M50 ((int)sizeof(struct Foo) * 50)
+#define M51 ((int)sizeof(struct Foo) * 51)
+#define M52 ((int)sizeof(struct Foo) * 52)
+#define M53 ((int)sizeof(struct Foo) * 53)
+#define M54 ((int)sizeof(struct Foo) * 54)
+#define M55 ((int)sizeof(struct Foo) * 55)
+#define M56 ((int)sizeof(struct Foo) * 56)
+#define M57 ((int)sizeof(struct Foo) * 57)
+#define M58 ((int)sizeof(struct Foo) * 58)
+#define M59 ((int)sizeof(struct Foo) * 59)
+#define M60 ((int)sizeof(struct Foo) * 60)
+#define M61 ((int)sizeof(struct Foo) * 61)
+#define M62 ((int)sizeof(struct Foo) * 62)
+#define M63 ((int)sizeof(struct Foo) * 63)
+#define M64 ((int)sizeof(struct Foo) * 64)
+#define M65 ((int)sizeof(struct Foo) * 65)
+#define M66 ((int)sizeof(struct Foo) * 66)
+#define M67 ((int)sizeof(struct Foo) * 67)
+#define M68 ((int)sizeof(struct Foo) * 68)
+#define M69 ((int)sizeof(struct Foo) * 69)
+#define M70 ((int)sizeof(struct Foo) * 70)
+#define M71 ((int)sizeof(struct Foo) * 71)
+#define M72 ((int)sizeof(struct Foo) * 72)
+#define M73 ((int)sizeof(struct Foo) * 73)
+#define M74 ((int)sizeof(struct Foo) * 74)
+#define M75 ((int)sizeof(struct Foo) * 75)
+#define M76 ((int)sizeof(struct Foo) * 76)
+#define M77 ((int)sizeof(struct Foo) * 77)
+#define M78 ((int)sizeof(struct Foo) * 78)
+#define M79 ((int)sizeof(struct Foo) * 79)
+#define M80 ((int)sizeof(struct Foo) * 80)
+#define M81 ((int)sizeof(struct Foo) * 81)
+#define M82 ((int)sizeof(struct Foo) * 82)
+#define M83 ((int)sizeof(struct Foo) * 83)
+#define M84 ((int)sizeof(struct Foo) * 84)
+#define M85 ((int)sizeof(struct Foo) * 85)
+#define M86 ((int)sizeof(struct Foo) * 86)
+#define M87 ((int)sizeof(struct Foo) * 87)
+#define M88 ((int)sizeof(struct Foo) * 88)
+#define M89 ((int)sizeof(struct Foo) * 89)
+#define M90 ((int)sizeof(struct Foo) * 90)
+#define M91 ((int)sizeof(struct Foo) * 91)
+#define M92 ((int)sizeof(struct Foo) * 92)
+#define M93 ((int)sizeof(struct Foo) * 93)
+#define M94 ((int)sizeof(struct Foo) * 94)
+#define M95 ((int)sizeof(struct Foo) * 95)
+#define M96 ((int)sizeof(struct Foo) * 96)
+#define M97 ((int)sizeof(struct Foo) * 97)
+#define M98 ((int)sizeof(struct Foo) * 98)
+#define M99 ((int)sizeof(struct Foo) * 99)
+#define M100 ((int)sizeof(struct Foo) * 100)
+#define M101 ((int)sizeof(struct Foo) * 101)
+#define M102 ((int)sizeof(struct Foo) * 102)
+#define M103 ((int)sizeof(struct Foo) * 103)
+#define M104 ((int)sizeof(struct Foo) * 104)
+#define M105 ((int)sizeof(struct Foo) * 105)
+#define M106 ((int)sizeof(struct Foo) * 106)
+#define M107 ((int)sizeof(struct Foo) * 107)
+#define M108 ((int)sizeof(struct Foo) * 108)
+#define M109 ((int)sizeof(struct Foo) * 109)
+#define M110 ((int)sizeof(struct Foo) * 110)
+#define M111 ((int)sizeof(struct Foo) * 111)
+#define M112 ((int)sizeof(struct Foo) * 112)
+#define M113 ((int)sizeof(struct Foo) * 113)
+#define M114 ((int)sizeof(struct Foo) * 114)
+#define M115 ((int)sizeof(struct Foo) * 115)
+#define M116 ((int)sizeof(struct Foo) * 116)
+#define M117 ((int)sizeof(struct Foo) * 117)
+#define M118 ((int)sizeof(struct Foo) * 118)
+#define M119 ((int)sizeof(struct Foo) * 119)
+#define M120 ((int)sizeof(struct Foo) * 120)
+#define M121 ((int)sizeof(struct Foo) * 121)
+#define M122 ((int)sizeof(struct Foo) * 122)
+#define M123 ((int)sizeof(struct Foo) * 123)
+#define M124 ((int)sizeof(struct Foo) * 124)
+#define M125 ((int)sizeof(struct Foo) * 125)
+#define M126 ((int)sizeof(struct Foo) * 126)
+#define M127 ((int)sizeof(struct Foo) * 127)
+#define M128 ((int)sizeof(struct Foo) * 128)
+#define M129 ((int)sizeof(struct Foo) * 129)
+#define M130 ((int)sizeof(struct Foo) * 130)
+#define M131 ((int)sizeof(struct Foo) * 131)
+#define M132 ((int)sizeof(struct Foo) * 132)
+#define M133 ((int)sizeof(struct Foo) * 133)
+#define M134 ((int)sizeof(struct Foo) * 134)
+#define M135 ((int)sizeof(struct Foo) * 135)
+#define M136 ((int)sizeof(struct Foo) * 136)
+#define M137 ((int)sizeof(struct Foo) * 137)
+#define M138 ((int)sizeof(struct Foo) * 138)
+#define M139 ((int)sizeof(struct Foo) * 139)
+#define M140 ((int)sizeof(struct Foo) * 140)
+#define M141 ((int)sizeof(struct Foo) * 141)
+#define M142 ((int)sizeof(struct Foo) * 142)
+#define M143 ((int)sizeof(struct Foo) * 143)
+#define M144 ((int)sizeof(struct Foo) * 144)
+#define M145 ((int)sizeof(struct Foo) * 145)
+#define M146 ((int)sizeof(struct Foo) * 146)
+#define M147 ((int)sizeof(struct Foo) * 147)
+#define M148 ((int)sizeof(struct Foo) * 148)
+#define M149 ((int)sizeof(struct Foo) * 149)
+#define M150 ((int)sizeof(struct Foo) * 150)
+#define M151 ((int)sizeof(struct Foo) * 151)
+#define M152 ((int)sizeof(struct Foo) * 152)
+#define M153 ((int)sizeof(struct Foo) * 153)
+#define M154 ((int)sizeof(struct Foo) * 154)
+#define M155 ((int)sizeof(struct Foo) * 155)
+#define M156 ((int)sizeof(struct Foo) * 156)
+#define M157 ((int)sizeof(struct Foo) * 157)
+#define M158 ((int)sizeof(struct Foo) * 158)
+#define M159 ((int)sizeof(struct Foo) * 159)
+#define M160 ((int)sizeof(struct Foo) * 160)
+#define M161 ((int)sizeof(struct Foo) * 161)
+#define M162 ((int)sizeof(struct Foo) * 162)
+#define M163 ((int)sizeof(struct Foo) * 163)
+#define M164 ((int)sizeof(struct Foo) * 164)
+#define M165 ((int)sizeof(struct Foo) * 165)
+#define M166 ((int)sizeof(struct Foo) * 166)
+#define M167 ((int)sizeof(struct Foo) * 167)
+#define M168 ((int)sizeof(struct Foo) * 168)
+#define M169 ((int)sizeof(struct Foo) * 169)
+#define M170 ((int)sizeof(struct Foo) * 170)
+#define M171 ((int)sizeof(struct Foo) * 171)
+#define M172 ((int)sizeof(struct Foo) * 172)
+#define M173 ((int)sizeof(struct Foo) * 173)
+#define M174 ((int)sizeof(struct Foo) * 174)
+#define M175 ((int)sizeof(struct Foo) * 175)
+#define M176 ((int)sizeof(struct Foo) * 176)
+#define M177 ((int)sizeof(struct Foo) * 177)
+#define M178 ((int)sizeof(struct Foo) * 178)
+#define M179 ((int)sizeof(struct Foo) * 179)
+#define M180 ((int)sizeof(struct Foo) * 180)
+#define M181 ((int)sizeof(struct Foo) * 181)
+#define M182 ((int)sizeof(struct Foo) * 182)
+#define M183 ((int)sizeof(struct Foo) * 183)
+#define M184 ((int)sizeof(struct Foo) * 184)
+#define M185 ((int)sizeof(struct Foo) * 185)
+#define M186 ((int)sizeof(struct Foo) * 186)
+#define M187 ((int)sizeof(struct Foo) * 187)
+#define M188 ((int)sizeof(struct Foo) * 188)
+#define M189 ((int)sizeof(struct Foo) * 189)
+#define M190 ((int)sizeof(struct Foo) * 190)
+#define M191 ((int)sizeof(struct Foo) * 191)
+#define M192 ((int)sizeof(struct Foo) * 192)
+#define M193 ((int)sizeof(struct Foo) * 193)
+#define M194 ((int)sizeof(struct Foo) * 194)
+#define M195 ((int)sizeof(struct Foo) * 195)
+#define M196 ((int)sizeof(struct Foo) * 196)
+#define M197 ((int)sizeof(struct Foo) * 197)
+#define M198 ((int)sizeof(struct Foo) * 198)
+#define M199 ((int)sizeof(struct Foo) * 199)
+#define M200 ((int)sizeof(struct Foo) * 200)
+#define M201 ((int)sizeof(struct Foo) * 201)
+#define M202 ((int)sizeof(struct Foo) * 202)
+#define M203 ((int)sizeof(struct Foo) * 203)
+#define M204 ((int)sizeof(struct Foo) * 204)
+#define M205 ((int)sizeof(struct Foo) * 205)
+#define M206 ((int)sizeof(struct Foo) * 206)
+#define M207 ((int)sizeof(struct Foo) * 207)
+#define M208 ((int)sizeof(struct Foo) * 208)
+#define M209 ((int)sizeof(struct Foo) * 209)
+#define M210 ((int)sizeof(struct Foo) * 210)
+#define M211 ((int)sizeof(struct Foo) * 211)
+#define M212 ((int)sizeof(struct Foo) * 212)
+#define M213 ((int)sizeof(struct Foo) * 213)
+#define M214 ((int)sizeof(struct Foo) * 214)
+#define M215 ((int)sizeof(struct Foo) * 215)
+#define M216 ((int)sizeof(struct Foo) * 216)
+#define M217 ((int)sizeof(struct Foo) * 217)
+#define M218 ((int)sizeof(struct Foo) * 218)
+#define M219 ((int)sizeof(struct Foo) * 219)
+#define M220 ((int)sizeof(struct Foo) * 220)
+#define M221 ((int)sizeof(struct Foo) * 221)
+#define M222 ((int)sizeof(struct Foo) * 222)
+#define M223 ((int)sizeof(struct Foo) * 223)
+#define M224 ((int)sizeof(struct Foo) * 224)
+#define M225 ((int)sizeof(struct Foo) * 225)
+#define M226 ((int)sizeof(struct Foo) * 226)
+#define M227 ((int)sizeof(struct Foo) * 227)
+#define M228 ((int)sizeof(struct Foo) * 228)
+#define M229 ((int)sizeof(struct Foo) * 229)
+#define M230 ((int)sizeof(struct Foo) * 230)
+#define M231 ((int)sizeof(struct Foo) * 231)
+#define M232 ((int)sizeof(struct Foo) * 232)
+#define M233 ((int)sizeof(struct Foo) * 233)
+#define M234 ((int)sizeof(struct Foo) * 234)
+#define M235 ((int)sizeof(struct Foo) * 235)
+#define M236 ((int)sizeof(struct Foo) * 236)
+#define M237 ((int)sizeof(struct Foo) * 237)
+#define M238 ((int)sizeof(struct Foo) * 238)
+#define M239 ((int)sizeof(struct Foo) * 239)
+#define M240 ((int)sizeof(struct Foo) * 240)
+#define M241 ((int)sizeof(struct Foo) * 241)
+#define M242 ((int)sizeof(struct Foo) * 242)
+#define M243 ((int)sizeof(struct Foo) * 243)
+#define M244 ((int)sizeof(struct Foo) * 244)
+#define M245 ((int)sizeof(struct Foo) * 245)
+#define M246 ((int)sizeof(struct Foo) * 246)
+#define M247 ((int)sizeof(struct Foo) * 247)
+#define M248 ((int)sizeof(struct Foo) * 248)
+#define M249 ((int)sizeof(struct Foo) * 249)
+#define M250 ((int)sizeof(struct Foo) * 250)
+#define M251 ((int)sizeof(struct Foo) * 251)
+#define M252 ((int)sizeof(struct Foo) * 252)
+#define M253 ((int)sizeof(struct Foo) * 253)
+#define M254 ((int)sizeof(struct Foo) * 254)
+#define M255 ((int)sizeof(struct Foo) * 255)
+#define M256 ((int)sizeof(struct Foo) * 256)
+#define M257 ((int)sizeof(struct Foo) * 257)
+#define M258 ((int)sizeof(struct Foo) * 258)
+#define M259 ((int)sizeof(struct Foo) * 259)
+#define M260 ((int)sizeof(struct Foo) * 260)
+#define M261 ((int)sizeof(struct Foo) * 261)
+#define M262 ((int)sizeof(struct Foo) * 262)
+#define M263 ((int)sizeof(struct Foo) * 263)
+#define M264 ((int)sizeof(struct Foo) * 264)
+#define M265 ((int)sizeof(struct Foo) * 265)
+#define M266 ((int)sizeof(struct Foo) * 266)
+#define M267 ((int)sizeof(struct Foo) * 267)
+#define M268 ((int)sizeof(struct Foo) * 268)
+#define M269 ((int)sizeof(struct Foo) * 269)
+#define M270 ((int)sizeof(struct Foo) * 270)
+#define M271 ((int)sizeof(struct Foo) * 271)
+#define M272 ((int)sizeof(struct Foo) * 272)
+#define M273 ((int)sizeof(struct Foo) * 273)
+#define M274 ((int)sizeof(struct Foo) * 274)
+#define M275 ((int)sizeof(struct Foo) * 275)
+#define M276 ((int)sizeof(struct Foo) * 276)
+#define M277 ((int)sizeof(struct Foo) * 277)
+#define M278 ((int)sizeof(struct Foo) * 278)
+#define M279 ((int)sizeof(struct Foo) * 279)
+#define M280 ((int)sizeof(struct Foo) * 280)
+#define M281 ((int)sizeof(struct Foo) * 281)
+#define M282 ((int)sizeof(struct Foo) * 282)
+#define M283 ((int)sizeof(struct Foo) * 283)
+#define M284 ((int)sizeof(struct Foo) * 284)
+#define M285 ((int)sizeof(struct Foo) * 285)
+#define M286 ((int)sizeof(struct Foo) * 286)
+#define M287 ((int)sizeof(struct Foo) * 287)
+#define M288 ((int)sizeof(struct Foo) * 288)
+#define M289 ((int)sizeof(struct Foo) * 289)
+#define M290 ((int)sizeof(struct Foo) * 290)
+#define M291 ((int)sizeof(struct Foo) * 291)
+#define M292 ((int)sizeof(struct Foo) * 292)
+#define M293 ((int)sizeof(struct Foo) * 293)
+#define M294 ((int)sizeof(struct Foo) * 294)
+#define M295 ((int)sizeof(struct Foo) * 295)
+#define M296 ((int)sizeof(struct Foo) * 296)
+#define M297 ((int)sizeof(struct Foo) * 297)
+#define M298 ((int)sizeof(struct Foo) * 298)
+#define M299 ((int)sizeof(struct Foo) * 299)
+#define M300 ((int)sizeof(struct Foo) * 300)
+#define M301 ((int)sizeof(struct Foo) * 301)
+#define M302 ((int)sizeof(struct Foo) * 302)
+#define M303 ((int)sizeof(struct Foo) * 303)
+#define M304 ((int)sizeof(struct Foo) * 304)
+#define M305 ((int)sizeof(struct Foo) * 305)
+#define M306 ((int)sizeof(struct Foo) * 306)
+#define M307 ((int)sizeof(struct Foo) * 307)
+#define M308 ((int)sizeof(struct Foo) * 308)
+#define M309 ((int)sizeof(struct Foo) * 309)
+#define M310 ((int)sizeof(struct Foo) * 310)
+#define M311 ((int)sizeof(struct Foo) * 311)
+#define M312 ((int)sizeof(struct Foo) * 312)
+#define M313 ((int)sizeof(struct Foo) * 313)
+#define M314 ((int)sizeof(struct Foo) * 314)
+#define M315 ((int)sizeof(struct Foo) * 315)
+#define M316 ((int)sizeof(struct Foo) * 316)
+#define M317 ((int)sizeof(struct Foo) * 317)
+#define M318 ((int)sizeof(struct Foo) * 318)
+#define M319 ((int)sizeof(struct Foo) * 319)
+#define M320 ((int)sizeof(struct Foo) * 320)
+#define M321 ((int)sizeof(struct Foo) * 321)
+#define M322 ((int)sizeof(struct Foo) * 322)
+#define M323 ((int)sizeof(struct Foo) * 323)
+#define M324 ((int)sizeof(struct Foo) * 324)
+#define M325 ((int)sizeof(struct Foo) * 325)
+#define M326 ((int)sizeof(struct Foo) * 326)
+#define M327 ((int)sizeof(struct Foo) * 327)
+#define M328 ((int)sizeof(struct Foo) * 328)
+#define M329 ((int)sizeof(struct Foo) * 329)
+#define M330 ((int)sizeof(struct Foo) * 330)
+#define M331 ((int)sizeof(struct Foo) * 331)
+#define M332 ((int)sizeof(struct Foo) * 332)
+#define M333 ((int)sizeof(struct Foo) * 333)
+#define M334 ((int)sizeof(struct Foo) * 334)
+#define M335 ((int)sizeof(struct Foo) * 335)
+#define M336 ((int)sizeof(struct Foo) * 336)
+#define M337 ((int)sizeof(struct Foo) * 337)
+#define M338 ((int)sizeof(struct Foo) * 338)
+#define M339 ((int)sizeof(struct Foo) * 339)
+#define M340 ((int)sizeof(struct Foo) * 340)
+#define M341 ((int)sizeof(struct Foo) * 341)
+#define M342 ((int)sizeof(struct Foo) * 342)
+#define M343 ((int)sizeof(struct Foo) * 343)
+#define M344 ((int)sizeof(struct Foo) * 344)
+#define M345 ((int)sizeof(struct Foo) * 345)
+#define M346 ((int)sizeof(struct Foo) * 346)
+#define M347 ((int)sizeof(struct Foo) * 347)
+#define M348 ((int)sizeof(struct Foo) * 348)
+#define M349 ((int)sizeof(struct Foo) * 349)
+#define M350 ((int)sizeof(struct Foo) * 350)
+#define M351 ((int)sizeof(struct Foo) * 351)
+#define M352 ((int)sizeof(struct Foo) * 352)
+#define M353 ((int)sizeof(struct Foo) * 353)
+#define M354 ((int)sizeof(struct Foo) * 354)
+#define M355 ((int)sizeof(struct Foo) * 355)
+#define M356 ((int)sizeof(struct Foo) * 356)
+#define M357 ((int)sizeof(struct Foo) * 357)
+#define M358 ((int)sizeof(struct Foo) * 358)
+#define M359 ((int)sizeof(struct Foo) * 359)
+#define M360 ((int)sizeof(struct Foo) * 360)
+#define M361 ((int)sizeof(struct Foo) * 361)
+#define M362 ((int)sizeof(struct Foo) * 362)
+#define M363 ((int)sizeof(struct Foo) * 363)
+#define M364 ((int)sizeof(struct Foo) * 364)
+#define M365 ((int)sizeof(struct Foo) * 365)
+#define M366 ((int)sizeof(struct Foo) * 366)
+#define M367 ((int)sizeof(struct Foo) * 367)
+#define M368 ((int)sizeof(struct Foo) * 368)
+#define M369 ((int)sizeof(struct Foo) * 369)
+#define M370 ((int)sizeof(struct Foo) * 370)
+#define M371 ((int)sizeof(struct Foo) * 371)
+#define M372 ((int)sizeof(struct Foo) * 372)
+#define M373 ((int)sizeof(struct Foo) * 373)
+#define M374 ((int)sizeof(struct Foo) * 374)
+#define M375 ((int)sizeof(struct Foo) * 375)
+#define M376 ((int)sizeof(struct Foo) * 376)
+#define M377 ((int)sizeof(struct Foo) * 377)
+#define M378 ((int)sizeof(struct Foo) * 378)
+#define M379 ((int)sizeof(struct Foo) * 379)
+#define M380 ((int)sizeof(struct Foo) * 380)
+#define M381 ((int)sizeof(struct Foo) * 381)
+#define M382 ((int)sizeof(struct Foo) * 382)
+#define M383 ((int)sizeof(struct Foo) * 383)
+#define M384 ((int)sizeof(struct Foo) * 384)
+#define M385 ((int)sizeof(struct Foo) * 385)
+#define M386 ((int)sizeof(struct Foo) * 386)
+#define M387 ((int)sizeof(struct Foo) * 387)
+#define M388 ((int)sizeof(struct Foo) * 388)
+#define M389 ((int)sizeof(struct Foo) * 389)
+#define M390 ((int)sizeof(struct Foo) * 390)
+#define M391 ((int)sizeof(struct Foo) * 391)
+#define M392 ((int)sizeof(struct Foo) * 392)
+#define M393 ((int)sizeof(struct Foo) * 393)
+#define M394 ((int)sizeof(struct Foo) * 394)
+#define M395 ((int)sizeof(struct Foo) * 395)
+#define M396 ((int)sizeof(struct Foo) * 396)
+#define M397 ((int)sizeof(struct Foo) * 397)
+#define M398 ((int)sizeof(struct Foo) * 398)
+#define M399 ((int)sizeof(struct Foo) * 399)
+#define M400 ((int)sizeof(struct Foo) * 400)
+#define M401 ((int)sizeof(struct Foo) * 401)
+#define M402 ((int)sizeof(struct Foo) * 402)
+#define M403 ((int)sizeof(struct Foo) * 403)
+#define M404 ((int)sizeof(struct Foo) * 404)
+#define M405 ((int)sizeof(struct Foo) * 405)
+#define M406 ((int)sizeof(struct Foo) * 406)
+#define M407 ((int)sizeof(struct Foo) * 407)
+#define M408 ((int)sizeof(struct Foo) * 408)
+#define M409 ((int)sizeof(struct Foo) * 409)
+#define M410 ((int)sizeof(struct Foo) * 410)
+#define M411 ((int)sizeof(struct Foo) * 411)
+#define M412 ((int)sizeof(struct Foo) * 412)
+#define M413 ((int)sizeof(struct Foo) * 413)
+#define M414 ((int)sizeof(struct Foo) * 414)
+#define M415 ((int)sizeof(struct Foo) * 415)
+#define M416 ((int)sizeof(struct Foo) * 416)
+#define M417 ((int)sizeof(struct Foo) * 417)
+#define M418 ((int)sizeof(struct Foo) * 418)
+#define M419 ((int)sizeof(struct Foo) * 419)
+#define M420 ((int)sizeof(struct Foo) * 420)
+#define M421 ((int)sizeof(struct Foo) * 421)
+#define M422 ((int)sizeof(struct Foo) * 422)
+#define M423 ((int)sizeof(struct Foo) * 423)
+#define M424 ((int)sizeof(struct Foo) * 424)
+#define M425 ((int)sizeof(struct Foo) * 425)
+#define M426 ((int)sizeof(struct Foo) * 426)
+#define M427 ((int)sizeof(struct Foo) * 427)
+#define M428 ((int)sizeof(struct Foo) * 428)
+#define M429 ((int)sizeof(struct Foo) * 429)
+#define M430 ((int)sizeof(struct Foo) * 430)
+#define M431 ((int)sizeof(struct Foo) * 431)
+#define M432 ((int)sizeof(struct Foo) * 432)
+#define M433 ((int)sizeof(struct Foo) * 433)
+#define M434 ((int)sizeof(struct Foo) * 434)
+#define M435 ((int)sizeof(struct Foo) * 435)
+#define M436 ((int)sizeof(struct Foo) * 436)
+#define M437 ((int)sizeof(struct Foo) * 437)
+#define M438 ((int)sizeof(struct Foo) * 438)
+#define M439 ((int)sizeof(struct Foo) * 439)
+#define M440 ((int)sizeof(struct Foo) * 440)
+#define M441 ((int)sizeof(struct Foo) * 441)
+#define M442 ((int)sizeof(struct Foo) * 442)
+#define M443 ((int)sizeof(struct Foo) * 443)
+#define M444 ((int)sizeof(struct Foo) * 444)
+#define M445 ((int)sizeof(struct Foo) * 445)
+#define M446 ((int)sizeof(struct Foo) * 446)
+#define M447 ((int)sizeof(struct Foo) * 447)
+#define M448 ((int)sizeof(struct Foo) * 448)
+#define M449 ((int)sizeof(struct Foo) * 449)
+#define M450 ((int)sizeof(struct Foo) * 450)
+#define M451 ((int)sizeof(struct Foo) * 451)
+#define M452 ((int)sizeof(struct Foo) * 452)
+#define M453 ((int)sizeof(struct Foo) * 453)
+#define M454 ((int)sizeof(struct Foo) * 454)
+#define M455 ((int)sizeof(struct Foo) * 455)
+#define M456 ((int)sizeof(struct Foo) * 456)
+#define M457 ((int)sizeof(struct Foo) * 457)
+#define M458 ((int)sizeof(struct Foo) * 458)
+#define M459 ((int)sizeof(struct Foo) * 459)
+#define M460 ((int)sizeof(struct Foo) * 460)
+#define M461 ((int)sizeof(struct Foo) * 461)
+#define M462 ((int)sizeof(struct Foo) * 462)
+#define M463 ((int)sizeof(struct Foo) * 463)
+#define M464 ((int)sizeof(struct Foo) * 464)
+#define M465 ((int)sizeof(struct Foo) * 465)
+#define M466 ((int)sizeof(struct Foo) * 466)
+#define M467 ((int)sizeof(struct Foo) * 467)
+#define M468 ((int)sizeof(struct Foo) * 468)
+#define M469 ((int)sizeof(struct Foo) * 469)
+#define M470 ((int)sizeof(struct Foo) * 470)
+#define M471 ((int)sizeof(struct Foo) * 471)
+#define M472 ((int)sizeof(struct Foo) * 472)
+#define M473 ((int)sizeof(struct Foo) * 473)
+#define M474 ((int)sizeof(struct Foo) * 474)
+#define M475 ((int)sizeof(struct Foo) * 475)
+#define M476 ((int)sizeof(struct Foo) * 476)
+#define M477 ((int)sizeof(struct Foo) * 477)
+#define M478 ((int)sizeof(struct Foo) * 478)
+#define M479 ((int)sizeof(struct Foo) * 479)
+#define M480 ((int)sizeof(struct Foo) * 480)
+#define M481 ((int)sizeof(struct Foo) * 481)
+#define M482 ((int)sizeof(struct Foo) * 482)
+#define M483 ((int)sizeof(struct Foo) * 483)
+#define M484 ((int)sizeof(struct Foo) * 484)
+#define M485 ((int)sizeof(struct Foo) * 485)
+#define M486 ((int)sizeof(struct Foo) * 486)
+#define M487 ((int)sizeof(struct Foo) * 487)
+#define M488 ((int)sizeof(struct Foo) * 488)
+#define M489 ((int)sizeof(struct Foo) * 489)
+#define M490 ((int)sizeof(struct Foo) * 490)
+#define M491 ((int)sizeof(struct Foo) * 491)
+#define M492 ((int)sizeof(struct Foo) * 492)
+#define M493 ((int)sizeof(struct Foo) * 493)
+#define M494 ((int)sizeof(struct Foo) * 494)
+#define M495 ((int)sizeof(struct Foo) * 495)
+#define M496 ((int)sizeof(struct Foo) * 496)
+#define M497 ((int)sizeof(struct Foo) * 497)
+#define M498 ((int)sizeof(struct Foo) * 498)
+#define M499 ((int)sizeof(struct Foo) * 499)
+#define M500 ((int)sizeof(struct Foo) * 500)
+#define M501 ((int)sizeof(struct Foo) * 501)
+#define M502 ((int)sizeof(struct Foo) * 502)
+#define M503 ((int)sizeof(struct Foo) * 503)
+#define M504 ((int)sizeof(struct Foo) * 504)
+#define M505 ((int)sizeof(struct Foo) * 505)
+#define M506 ((int)sizeof(struct Foo) * 506)
+#define M507 ((int)sizeof(struct Foo) * 507)
+#define M508 ((int)sizeof(struct Foo) * 508)
+#define M509 ((int)sizeof(struct Foo) * 509)
+#define M510 ((int)sizeof(struct Foo) * 510)
+#define M511 ((int)sizeof(struct Foo) * 511)
+#define M512 ((int)sizeof(struct Foo) * 512)
+#define M513 ((int)sizeof(struct Foo) * 513)
+#define M514 ((int)sizeof(struct Foo) * 514)
+#define M515 ((int)sizeof(struct Foo) * 515)
+#define M516 ((int)sizeof(struct Foo) * 516)
+#define M517 ((int)sizeof(struct Foo) * 517)
+#define M518 ((int)sizeof(struct Foo) * 518)
+#define M519 ((int)sizeof(struct Foo) * 519)
+#define M520 ((int)sizeof(struct Foo) * 520)
+#define M521 ((int)sizeof(struct Foo) * 521)
+#define M522 ((int)sizeof(struct Foo) * 522)
+#define M523 ((int)sizeof(struct Foo) * 523)
+#define M524 ((int)sizeof(struct Foo) * 524)
+#define M525 ((int)sizeof(struct Foo) * 525)
+#define M526 ((int)sizeof(struct Foo) * 526)
+#define M527 ((int)sizeof(struct Foo) * 527)
+#define M528 ((int)sizeof(struct Foo) * 528)
+#define M529 ((int)sizeof(struct Foo) * 529)
+#define M530 ((int)sizeof(struct Foo) * 530)
+#define M531 ((int)sizeof(struct Foo) * 531)
+#define M532 ((int)sizeof(struct Foo) * 532)
+#define M533 ((int)sizeof(struct Foo) * 533)
+#define M534 ((int)sizeof(struct Foo) * 534)
+#define M535 ((int)sizeof(struct Foo) * 535)
+#define M536 ((int)sizeof(struct Foo) * 536)
+#define M537 ((int)sizeof(struct Foo) * 537)
+#define M538 ((int)sizeof(struct Foo) * 538)
+#define M539 ((int)sizeof(struct Foo) * 539)
+#define M540 ((int)sizeof(struct Foo) * 540)
+#define M541 ((int)sizeof(struct Foo) * 541)
+#define M542 ((int)sizeof(struct Foo) * 542)
+#define M543 ((int)sizeof(struct Foo) * 543)
+#define M544 ((int)sizeof(struct Foo) * 544)
+#define M545 ((int)sizeof(struct Foo) * 545)
+#define M546 ((int)sizeof(struct Foo) * 546)
+#define M547 ((int)sizeof(struct Foo) * 547)
+#define M548 ((int)sizeof(struct Foo) * 548)
+#define M549 ((int)sizeof(struct Foo) * 549)
+#define M550 ((int)sizeof(struct Foo) * 550)
+#define M551 ((int)sizeof(struct Foo) * 551)
+#define M552 ((int)sizeof(struct Foo) * 552)
+#define M553 ((int)sizeof(struct Foo) * 553)
+#define M554 ((int)sizeof(struct Foo) * 554)
+#define M555 ((int)sizeof(struct Foo) * 555)
+#define M556 ((int)sizeof(struct Foo) * 556)
+#define M557 ((int)sizeof(struct Foo) * 557)
+#define M558 ((int)sizeof(struct Foo) * 558)
+#define M559 ((int)sizeof(struct Foo) * 559)
+#define M560 ((int)sizeof(struct Foo) * 560)
+#define M561 ((int)sizeof(struct Foo) * 561)
+#define M562 ((int)sizeof(struct Foo) * 562)
+#define M563 ((int)sizeof(struct Foo) * 563)
+#define M564 ((int)sizeof(struct Foo) * 564)
+#define M565 ((int)sizeof(struct Foo) * 565)
+#define M566 ((int)sizeof(struct Foo) * 566)
+#define M567 ((int)sizeof(struct Foo) * 567)
+#define M568 ((int)sizeof(struct Foo) * 568)
+#define M569 ((int)sizeof(struct Foo) * 569)
+#define M570 ((int)sizeof(struct Foo) * 570)
+#define M571 ((int)sizeof(struct Foo) * 571)
+#define M572 ((int)sizeof(struct Foo) * 572)
+#define M573 ((int)sizeof(struct Foo) * 573)
+#define M574 ((int)sizeof(struct Foo) * 574)
+#define M575 ((int)sizeof(struct Foo) * 575)
+#define M576 ((int)sizeof(struct Foo) * 576)
+#define M577 ((int)sizeof(struct Foo) * 577)
+#define M578 ((int)sizeof(struct Foo) * 578)
+#define M579 ((int)sizeof(struct Foo) * 579)
+#define M580 ((int)sizeof(struct Foo) * 580)
+#define M581 ((int)sizeof(struct Foo) * 581)
+#define M582 ((int)sizeof(struct Foo) * 582)
+#define M583 ((int)sizeof(struct Foo) * 583)
+#define M584 ((int)sizeof(struct Foo) * 584)
+#define M585 ((int)sizeof(struct Foo) * 585)
+#define M586 ((int)sizeof(struct Foo) * 586)
+#define M587 ((int)sizeof(struct Foo) * 587)
+#define M588 ((int)sizeof(struct Foo) * 588)
+#define M589 ((int)sizeof(struct Foo) * 589)
+#define M590 ((int)sizeof(struct Foo) * 590)
+#define M591 ((int)sizeof(struct Foo) * 591)
+#define M592 ((int)sizeof(struct Foo) * 592)
+#define M593 ((int)sizeof(struct Foo) * 593)
+#define M594 ((int)sizeof(struct Foo) * 594)
+#define M595 ((int)sizeof(struct Foo) * 595)
+#define M596 ((int)sizeof(struct Foo) * 596)
+#define M597 ((int)sizeof(struct Foo) * 597)
+#define M598 ((int)sizeof(struct Foo) * 598)
+#define M599 ((int)sizeof(struct Foo) * 599)
+#define M600 ((int)sizeof(struct Foo) * 600)
+#define M601 ((int)sizeof(struct Foo) * 601)
+#define M602 ((int)sizeof(struct Foo) * 602)
+#define M603 ((int)sizeof(struct Foo) * 603)
+#define M604 ((int)sizeof(struct Foo) * 604)
+#define M605 ((int)sizeof(struct Foo) * 605)
+#define M606 ((int)sizeof(struct Foo) * 606)
+#define M607 ((int)sizeof(struct Foo) * 607)
+#define M608 ((int)sizeof(struct Foo) * 608)
+#define M609 ((int)sizeof(struct Foo) * 609)
+#define M610 ((int)sizeof(struct Foo) * 610)
+#define M611 ((int)sizeof(struct Foo) * 611)
+#define M612 ((int)sizeof(struct Foo) * 612)
+#define M613 ((int)sizeof(struct Foo) * 613)
+#define M614 ((int)sizeof(struct Foo) * 614)
+#define M615 ((int)sizeof(struct Foo) * 615)
+#define M616 ((int)sizeof(struct Foo) * 616)
+#define M617 ((int)sizeof(struct Foo) * 617)
+#define M618 ((int)sizeof(struct Foo) * 618)
+#define M619 ((int)sizeof(struct Foo) * 619)
+#define M620 ((int)sizeof(struct Foo) * 620)
+#define M621 ((int)sizeof(struct Foo) * 621)
+#define M622 ((int)sizeof(struct Foo) * 622)
+#define M623 ((int)sizeof(struct Foo) * 623)
+#define M624 ((int)sizeof(struct Foo) * 624)
+#define M625 ((int)sizeof(struct Foo) * 625)
+#define M626 ((int)sizeof(struct Foo) * 626)
+#define M627 ((int)sizeof(struct Foo) * 627)
+#define M628 ((int)sizeof(struct Foo) * 628)
+#define M629 ((int)sizeof(struct Foo) * 629)
+#define M630 ((int)sizeof(struct Foo) * 630)
+#define M631 ((int)sizeof(struct Foo) * 631)
+#define M632 ((int)sizeof(struct Foo) * 632)
+#define M633 ((int)sizeof(struct Foo) * 633)
+#define M634 ((int)sizeof(struct Foo) * 634)
+#define M635 ((int)sizeof(struct Foo) * 635)
+#define M636 ((int)sizeof(struct Foo) * 636)
+#define M637 ((int)sizeof(struct Foo) * 637)
+#define M638 ((int)sizeof(struct Foo) * 638)
+#define M639 ((int)sizeof(struct Foo) * 639)
+#define M640 ((int)sizeof(struct Foo) * 640)
+#define M641 ((int)sizeof(struct Foo) * 641)
+#define M642 ((int)sizeof(struct Foo) * 642)
+#define M643 ((int)sizeof(struct Foo) * 643)
+#define M644 ((int)sizeof(struct Foo) * 644)
+#define M645 ((int)sizeof(struct Foo) * 645)
+#define M646 ((int)sizeof(struct Foo) * 646)
+#define M647 ((int)sizeof(struct Foo) * 647)
+#define M648 ((int)sizeof(struct Foo) * 648)
+#define M649 ((int)sizeof(struct Foo) * 649)
+#define M650 ((int)sizeof(struct Foo) * 650)
+#define M651 ((int)sizeof(struct Foo) * 651)
+#define M652 ((int)sizeof(struct Foo) * 652)
+#define M653 ((int)sizeof(struct Foo) * 653)
+#define M654 ((int)sizeof(struct Foo) * 654)
+#define M655 ((int)sizeof(struct Foo) * 655)
+#define M656 ((int)sizeof(struct Foo) * 656)
+#define M657 ((int)sizeof(struct Foo) * 657)
+#define M658 ((int)sizeof(struct Foo) * 658)
+#define M659 ((int)sizeof(struct Foo) * 659)
+#define M660 ((int)sizeof(struct Foo) * 660)
+#define M661 ((int)sizeof(struct Foo) * 661)
+#define M662 ((int)sizeof(struct Foo) * 662)
+#define M663 ((int)sizeof(struct Foo) * 663)
+#define M664 ((int)sizeof(struct Foo) * 664)
+#define M665 ((int)sizeof(struct Foo) * 665)
+#define M666 ((int)sizeof(struct Foo) * 666)
+#define M667 ((int)sizeof(struct Foo) * 667)
+#define M668 ((int)sizeof(struct Foo) * 668)
+#define M669 ((int)sizeof(struct Foo) * 669)
+#define M670 ((int)sizeof(struct Foo) * 670)
+#define M671 ((int)sizeof(struct Foo) * 671)
+#define M672 ((int)sizeof(struct Foo) * 672)
+#define M673 ((int)sizeof(struct Foo) * 673)
+#define M674 ((int)sizeof(struct Foo) * 674)
+#define M675 ((int)sizeof(struct Foo) * 675)
+#define M676 ((int)sizeof(struct Foo) * 676)
+#define M677 ((int)sizeof(struct Foo) * 677)
+#define M678 ((int)sizeof(struct Foo) * 678)
+#define M679 ((int)sizeof(struct Foo) * 679)
+#define M680 ((int)sizeof(struct Foo) * 680)
+#define M681 ((int)sizeof(struct Foo) * 681)
+#define M682 ((int)sizeof(struct Foo) * 682)
+#define M683 ((int)sizeof(struct Foo) * 683)
+#define M684 ((int)sizeof(struct Foo) * 684)
+#define M685 ((int)sizeof(struct Foo) * 685)
+#define M686 ((int)sizeof(struct Foo) * 686)
+#define M687 ((int)sizeof(struct Foo) * 687)
+#define M688 ((int)sizeof(struct Foo) * 688)
+#define M689 ((int)sizeof(struct Foo) * 689)
+#define M690 ((int)sizeof(struct Foo) * 690)
+#define M691 ((int)sizeof(struct Foo) * 691)
+#define M692 ((int)sizeof(struct Foo) * 692)
+#define M693 ((int)sizeof(struct Foo) * 693)
+#define M694 ((int)sizeof(struct Foo) * 694)
+#define M695 ((int)sizeof(struct Foo) * 695)
+#define M696 ((int)sizeof(struct Foo) * 696)
+#define M697 ((int)sizeof(struct Foo) * 697)
+#define M698 ((int)sizeof(struct Foo) * 698)
+#define M699 ((int)sizeof(struct Foo) * 699)
+#define M700 ((int)sizeof(struct Foo) * 700)
+#define M701 ((int)sizeof(struct Foo) * 701)
+#define M702 ((int)sizeof(struct Foo) * 702)
+#define M703 ((int)sizeof(struct Foo) * 703)
+#define M704 ((int)sizeof(struct Foo) * 704)
+#define M705 ((int)sizeof(struct Foo) * 705)
+#define M706 ((int)sizeof(struct Foo) * 706)
+#define M707 ((int)sizeof(struct Foo) * 707)
+#define M708 ((int)sizeof(struct Foo) * 708)
+#define M709 ((int)sizeof(struct Foo) * 709)
+#define M710 ((int)sizeof(struct Foo) * 710)
+#define M711 ((int)sizeof(struct Foo) * 711)
+#define M712 ((int)sizeof(struct Foo) * 712)
+#define M713 ((int)sizeof(struct Foo) * 713)
+#define M714 ((int)sizeof(struct Foo) * 714)
+#define M715 ((int)sizeof(struct Foo) * 715)
+#define M716 ((int)sizeof(struct Foo) * 716)
+#define M717 ((int)sizeof(struct Foo) * 717)
+#define M718 ((int)sizeof(struct Foo) * 718)
+#define M719 ((int)sizeof(struct Foo) * 719)
+#define M720 ((int)sizeof(struct Foo) * 720)
+#define M721 ((int)sizeof(struct Foo) * 721)
+#define M722 ((int)sizeof(struct Foo) * 722)
+#define M723 ((int)sizeof(struct Foo) * 723)
+#define M724 ((int)sizeof(struct Foo) * 724)
+#define M725 ((int)sizeof(struct Foo) * 725)
+#define M726 ((int)sizeof(struct Foo) * 726)
+#define M727 ((int)sizeof(struct Foo) * 727)
+#define M728 ((int)sizeof(struct Foo) * 728)
+#define M729 ((int)sizeof(struct Foo) * 729)
+#define M730 ((int)sizeof(struct Foo) * 730)
+#define M731 ((int)sizeof(struct Foo) * 731)
+#define M732 ((int)sizeof(struct Foo) * 732)
+#define M733 ((int)sizeof(struct Foo) * 733)
+#define M734 ((int)sizeof(struct Foo) * 734)
+#define M735 ((int)sizeof(struct Foo) * 735)
+#define M736 ((int)sizeof(struct Foo) * 736)
+#define M737 ((int)sizeof(struct Foo) * 737)
+#define M738 ((int)sizeof(struct Foo) * 738)
+#define M739 ((int)sizeof(struct Foo) * 739)
+#define M740 ((int)sizeof(struct Foo) * 740)
+#define M741 ((int)sizeof(struct Foo) * 741)
+#define M742 ((int)sizeof(struct Foo) * 742)
+#define M743 ((int)sizeof(struct Foo) * 743)
+#define M744 ((int)sizeof(struct Foo) * 744)
+#define M745 ((int)sizeof(struct Foo) * 745)
+#define M746 ((int)sizeof(struct Foo) * 746)
+#define M747 ((int)sizeof(struct Foo) * 747)
+#define M748 ((int)sizeof(struct Foo) * 748)
+#define M749 ((int)sizeof(struct Foo) * 749)
+#define M750 ((int)sizeof(struct Foo) * 750)
+#define M751 ((int)sizeof(struct Foo) * 751)
+#define M752 ((int)sizeof(struct Foo) * 752)
+#define M753 ((int)sizeof(struct Foo) * 753)
+#define M754 ((int)sizeof(struct Foo) * 754)
+#define M755 ((int)sizeof(struct Foo) * 755)
+#define M756 ((int)sizeof(struct Foo) * 756)
+#define M757 ((int)sizeof(struct Foo) * 757)
+#define M758 ((int)sizeof(struct Foo) * 758)
+#define M759 ((int)sizeof(struct Foo) * 759)
+#define M760 ((int)sizeof(struct Foo) * 760)
+#define M761 ((int)sizeof(struct Foo) * 761)
+#define M762 ((int)sizeof(struct Foo) * 762)
+#define M763 ((int)sizeof(struct Foo) * 763)
+#define M764 ((int)sizeof(struct Foo) * 764)
+#define M765 ((int)sizeof(struct Foo) * 765)
+#define M766 ((int)sizeof(struct Foo) * 766)
+#define M767 ((int)sizeof(struct Foo) * 767)
+#define M768 ((int)sizeof(struct Foo) * 768)
+#define M769 ((int)sizeof(struct Foo) * 769)
+#define M770 ((int)sizeof(struct Foo) * 770)
+#define M771 ((int)sizeof(struct Foo) * 771)
+#define M772 ((int)sizeof(struct Foo) * 772)
+#define M773 ((int)sizeof(struct Foo) * 773)
+#define M774 ((int)sizeof(struct Foo) * 774)
+#define M775 ((int)sizeof(struct Foo) * 775)
+#define M776 ((int)sizeof(struct Foo) * 776)
+#define M777 ((int)sizeof(struct Foo) * 777)
+#define M778 ((int)sizeof(struct Foo) * 778)
+#define M779 ((int)sizeof(struct Foo) * 779)
+#define M780 ((int)sizeof(struct Foo) * 780)
+#define M781 ((int)sizeof(struct Foo) * 781)
+#define M782 ((int)sizeof(struct Foo) * 782)
+#define M783 ((int)sizeof(struct Foo) * 783)
+#define M784 ((int)sizeof(struct Foo) * 784)
+#define M785 ((int)sizeof(struct Foo) * 785)
+#define M786 ((int)sizeof(struct Foo) * 786)
+#define M787 ((int)sizeof(struct Foo) * 787)
+#define M788 ((int)sizeof(struct Foo) * 788)
+#define M789 ((int)sizeof(struct Foo) * 789)
+#define M790 ((int)sizeof(struct Foo) * 790)
+#define M791 ((int)sizeof(struct Foo) * 791)
+#define M792 ((int)sizeof(struct Foo) * 792)
+#define M793 ((int)sizeof(struct Foo) * 793)
+#define M794 ((int)sizeof(struct Foo) * 794)
+#define M795 ((int)sizeof(struct Foo) * 795)
+#define M796 ((int)sizeof(struct Foo) * 796)
+#define M797 ((int)sizeof(struct Foo) * 797)
+#define M798 ((int)sizeof(struct Foo) * 798)
+#define M799 ((int)sizeof(struct Foo) * 799)
+#define M800 ((int)sizeof(struct Foo) * 800)
+#define M801 ((int)sizeof(struct Foo) * 801)
+#define M802 ((int)sizeof(struct Foo) * 802)
+#define M803 ((int)sizeof(struct Foo) * 803)
+#define M804 ((int)sizeof(struct Foo) * 804)
+#define M805 ((int)sizeof(struct Foo) * 805)
+#define M806 ((int)sizeof(struct Foo) * 806)
+#define M807 ((int)sizeof(struct Foo) * 807)
+#define M808 ((int)sizeof(struct Foo) * 808)
+#define M809 ((int)sizeof(struct Foo) * 809)
+#define M810 ((int)sizeof(struct Foo) * 810)
+#define M811 ((int)sizeof(struct Foo) * 811)
+#define M812 ((int)sizeof(struct Foo) * 812)
+#define M813 ((int)sizeof(struct Foo) * 813)
+#define M814 ((int)sizeof(struct Foo) * 814)
+#define M815 ((int)sizeof(struct Foo) * 815)
+#define M816 ((int)sizeof(struct Foo) * 816)
+#define M817 ((int)sizeof(struct Foo) * 817)
+#define M818 ((int)sizeof(struct Foo) * 818)
+#define M819 ((int)sizeof(struct Foo) * 819)
+#define M820 ((int)sizeof(struct Foo) * 820)
+#define M821 ((int)sizeof(struct Foo) * 821)
+#define M822 ((int)sizeof(struct Foo) * 822)
+#define M823 ((int)sizeof(struct Foo) * 823)
+#define M824 ((int)sizeof(struct Foo) * 824)
+#define M825 ((int)sizeof(struct Foo) * 825)
+#define M826 ((int)sizeof(struct Foo) * 826)
+#define M827 ((int)sizeof(struct Foo) * 827)
+#define M828 ((int)sizeof(struct Foo) * 828)
+#define M829 ((int)sizeof(struct Foo) * 829)
+#define M830 ((int)sizeof(struct Foo) * 830)
+#define M831 ((int)sizeof(struct Foo) * 831)
+#define M832 ((int)sizeof(struct Foo) * 832)
+#define M833 ((int)sizeof(struct Foo) * 833)
+#define M834 ((int)sizeof(struct Foo) * 834)
+#define M835 ((int)sizeof(struct Foo) * 835)
+#define M836 ((int)sizeof(struct Foo) * 836)
+#define M837 ((int)sizeof(struct Foo) * 837)
+#define M838 ((int)sizeof(struct Foo) * 838)
+#define M839 ((int)sizeof(struct Foo) * 839)
+#define M840 ((int)sizeof(struct Foo) * 840)
+#define M841 ((int)sizeof(struct Foo) * 841)
+#define M842 ((int)sizeof(struct Foo) * 842)
+#define M843 ((int)sizeof(struct Foo) * 843)
+#define M844 ((int)sizeof(struct Foo) * 844)
+#define M845 ((int)sizeof(struct Foo) * 845)
+#define M846 ((int)sizeof(struct Foo) * 846)
+#define M847 ((int)sizeof(struct Foo) * 847)
+#define M848 ((int)sizeof(struct Foo) * 848)
+#define M849 ((int)sizeof(struct Foo) * 849)
+#define M850 ((int)sizeof(struct Foo) * 850)
+#define M851 ((int)sizeof(struct Foo) * 851)
+#define M852 ((int)sizeof(struct Foo) * 852)
+#define M853 ((int)sizeof(struct Foo) * 853)
+#define M854 ((int)sizeof(struct Foo) * 854)
+#define M855 ((int)sizeof(struct Foo) * 855)
+#define M856 ((int)sizeof(struct Foo) * 856)
+#define M857 ((int)sizeof(struct Foo) * 857)
+#define M858 ((int)sizeof(struct Foo) * 858)
+#define M859 ((int)sizeof(struct Foo) * 859)
+#define M860 ((int)sizeof(struct Foo) * 860)
+#define M861 ((int)sizeof(struct Foo) * 861)
+#define M862 ((int)sizeof(struct Foo) * 862)
+#define M863 ((int)sizeof(struct Foo) * 863)
+#define M864 ((int)sizeof(struct Foo) * 864)
+#define M865 ((int)sizeof(struct Foo) * 865)
+#define M866 ((int)sizeof(struct Foo) * 866)
+#define M867 ((int)sizeof(struct Foo) * 867)
+#define M868 ((int)sizeof(struct Foo) * 868)
+#define M869 ((int)sizeof(struct Foo) * 869)
+#define M870 ((int)sizeof(struct Foo) * 870)
+#define M871 ((int)sizeof(struct Foo) * 871)
+#define M872 ((int)sizeof(struct Foo) * 872)
+#define M873 ((int)sizeof(struct Foo) * 873)
+#define M874 ((int)sizeof(struct Foo) * 874)
+#define M875 ((int)sizeof(struct Foo) * 875)
+#define M876 ((int)sizeof(struct Foo) * 876)
+#define M877 ((int)sizeof(struct Foo) * 877)
+#define M878 ((int)sizeof(struct Foo) * 878)
+#define M879 ((int)sizeof(struct Foo) * 879)
+#define M880 ((int)sizeof(struct Foo) * 880)
+#define M881 ((int)sizeof(struct Foo) * 881)
+#define M882 ((int)sizeof(struct Foo) * 882)
+#define M883 ((int)sizeof(struct Foo) * 883)
+#define M884 ((int)sizeof(struct Foo) * 884)
+#define M885 ((int)sizeof(struct Foo) * 885)
+#define M886 ((int)sizeof(struct Foo) * 886)
+#define M887 ((int)sizeof(struct Foo) * 887)
+#define M888 ((int)sizeof(struct Foo) * 888)
+#define M889 ((int)sizeof(struct Foo) * 889)
+#define M890 ((int)sizeof(struct Foo) * 890)
+#define M891 ((int)sizeof(struct Foo) * 891)
+#define M892 ((int)sizeof(struct Foo) * 892)
+#define M893 ((int)sizeof(struct Foo) * 893)
+#define M894 ((int)sizeof(struct Foo) * 894)
+#define M895 ((int)sizeof(struct Foo) * 895)
+#define M896 ((int)sizeof(struct Foo) * 896)
+#define M897 ((int)sizeof(struct Foo) * 897)
+#define M898 ((int)sizeof(struct Foo) * 898)
+#define M899 ((int)sizeof(struct Foo) * 899)
+#define M900 ((int)sizeof(struct Foo) * 900)
+#define M901 ((int)sizeof(struct Foo) * 901)
+#define M902 ((int)sizeof(struct Foo) * 902)
+#define M903 ((int)sizeof(struct Foo) * 903)
+#define M904 ((int)sizeof(struct Foo) * 904)
+#define M905 ((int)sizeof(struct Foo) * 905)
+#define M906 ((int)sizeof(struct Foo) * 906)
+#define M907 ((int)sizeof(struct Foo) * 907)
+#define M908 ((int)sizeof(struct Foo) * 908)
+#define M909 ((int)sizeof(struct Foo) * 909)
+#define M910 ((int)sizeof(struct Foo) * 910)
+#define M911 ((int)sizeof(struct Foo) * 911)
+#define M912 ((int)sizeof(struct Foo) * 912)
+#define M913 ((int)sizeof(struct Foo) * 913)
+#define M914 ((int)sizeof(struct Foo) * 914)
+#define M915 ((int)sizeof(struct Foo) * 915)
+#define M916 ((int)sizeof(struct Foo) * 916)
+#define M917 ((int)sizeof(struct Foo) * 917)
+#define M918 ((int)sizeof(struct Foo) * 918)
+#define M919 ((int)sizeof(struct Foo) * 919)
+#define M920 ((int)sizeof(struct Foo) * 920)
+#define M921 ((int)sizeof(struct Foo) * 921)
+#define M922 ((int)sizeof(struct Foo) * 922)
+#define M923 ((int)sizeof(struct Foo) * 923)
+#define M924 ((int)sizeof(struct Foo) * 924)
+#define M925 ((int)sizeof(struct Foo) * 925)
+#define M926 ((int)sizeof(struct Foo) * 926)
+#define M927 ((int)sizeof(struct Foo) * 927)
+#define M928 ((int)sizeof(struct Foo) * 928)
+#define M929 ((int)sizeof(struct Foo) * 929)
+#define M930 ((int)sizeof(struct Foo) * 930)
+#define M931 ((int)sizeof(struct Foo) * 931)
+#define M932 ((int)sizeof(struct Foo) * 932)
+#define M933 ((int)sizeof(struct Foo) * 933)
+#define M934 ((int)sizeof(struct Foo) * 934)
+#define M935 ((int)sizeof(struct Foo) * 935)
+#define M936 ((int)sizeof(struct Foo) * 936)
+#define M937 ((int)sizeof(struct Foo) * 937)
+#define M938 ((int)sizeof(struct Foo) * 938)
+#define M939 ((int)sizeof(struct Foo) * 939)
+#define M940 ((int)sizeof(struct Foo) * 940)
+#define M941 ((int)sizeof(struct Foo) * 941)
+#define M942 ((int)sizeof(struct Foo) * 942)
+#define M943 ((int)sizeof(struct Foo) * 943)
+#define M944 ((int)sizeof(struct Foo) * 944)
+#define M945 ((int)sizeof(struct Foo) * 945)
+#define M946 ((int)sizeof(struct Foo) * 946)
+#define M947 ((int)sizeof(struct Foo) * 947)
+#define M948 ((int)sizeof(struct Foo) * 948)
+#define M949 ((int)sizeof(struct Foo) * 949)
+#define M950 ((int)sizeof(struct Foo) * 950)
+#define M951 ((int)sizeof(struct Foo) * 951)
+#define M952 ((int)sizeof(struct Foo) * 952)
+#define M953 ((int)sizeof(struct Foo) * 953)
+#define M954 ((int)sizeof(struct Foo) * 954)
+#define M955 ((int)sizeof(struct Foo) * 955)
+#define M956 ((int)sizeof(struct Foo) * 956)
+#define M957 ((int)sizeof(struct Foo) * 957)
+#define M958 ((int)sizeof(struct Foo) * 958)
+#define M959 ((int)sizeof(struct Foo) * 959)
+#define M960 ((int)sizeof(struct Foo) * 960)
+#define M961 ((int)sizeof(struct Foo) * 961)
+#define M962 ((int)sizeof(struct Foo) * 962)
+#define M963 ((int)sizeof(struct Foo) * 963)
+#define M964 ((int)sizeof(struct Foo) * 964)
+#define M965 ((int)sizeof(struct Foo) * 965)
+#define M966 ((int)sizeof(struct Foo) * 966)
+#define M967 ((int)sizeof(struct Foo) * 967)
+#define M968 ((int)sizeof(struct Foo) * 968)
+#define M969 ((int)sizeof(struct Foo) * 969)
+#define M970 ((int)sizeof(struct Foo) * 970)
+#define M971 ((int)sizeof(struct Foo) * 971)
+#define M972 ((int)sizeof(struct Foo) * 972)
+#define M973 ((int)sizeof(struct Foo) * 973)
+#define M974 ((int)sizeof(struct Foo) * 974)
+#define M975 ((int)sizeof(struct Foo) * 975)
+#define M976 ((int)sizeof(struct Foo) * 976)
+#define M977 ((int)sizeof(struct Foo) * 977)
+#define M978 ((int)sizeof(struct Foo) * 978)
+#define M979 ((int)sizeof(struct Foo) * 979)
+#define M980 ((int)sizeof(struct Foo) * 980)
+#define M981 ((int)sizeof(struct Foo) * 981)
+#define M982 ((int)sizeof(struct Foo) * 982)
+#define M983 ((int)sizeof(struct Foo) * 983)
+#define M984 ((int)sizeof(struct Foo) * 984)
+#define M985 ((int)sizeof(struct Foo) * 985)
+#define M986 ((int)sizeof(struct Foo) * 986)
+#define M987 ((int)sizeof(struct Foo) * 987)
+#define M988 ((int)sizeof(struct Foo) * 988)
+#define M989 ((int)sizeof(struct Foo) * 989)
+#define M990 ((int)sizeof(struct Foo) * 990)
+#define M991 ((int)sizeof(struct Foo) * 991)
+#define M992 ((int)sizeof(struct Foo) * 992)
+#define M993 ((int)sizeof(struct Foo) * 993)
+#define M994 ((int)sizeof(struct Foo) * 994)
+#define M995 ((int)sizeof(struct Foo) * 995)
+#define M996 ((int)sizeof(struct Foo) * 996)
+#define M997 ((int)sizeof(struct Foo) * 997)
+#define M998 ((int)sizeof(struct Foo) * 998)
+#define M999 ((int)sizeof(struct Foo) * 999)
+#define M1000 ((int)sizeof(struct Foo) * 1000)
+#define M1001 ((int)sizeof(struct Foo) * 1001)
+#define M1002 ((int)sizeof(struct Foo) * 1002)
+#define M1003 ((int)sizeof(struct Foo) * 1003)
+#define M1004 ((int)sizeof(struct Foo) * 1004)
+#define M1005 ((int)sizeof(struct Foo) * 1005)
+#define M1006 ((int)sizeof(struct Foo) * 1006)
+#define M1007 ((int)sizeof(struct Foo) * 1007)
+#define M1008 ((int)sizeof(struct Foo) * 1008)
+#define M1009 ((int)sizeof(struct Foo) * 1009)
+#define M1010 ((int)sizeof(struct Foo) * 1010)
+#define M1011 ((int)sizeof(struct Foo) * 1011)
+#define M1012 ((int)sizeof(struct Foo) * 1012)
+#define M1013 ((int)sizeof(struct Foo) * 1013)
+#define M1014 ((int)sizeof(struct Foo) * 1014)
+#define M1015 ((int)sizeof(struct Foo) * 1015)
+#define M1016 ((int)sizeof(struct Foo) * 1016)
+#define M1017 ((int)sizeof(struct Foo) * 1017)
+#define M1018 ((int)sizeof(struct Foo) * 1018)
+#define M1019 ((int)sizeof(struct Foo) * 1019)
+#define M1020 ((int)sizeof(struct Foo) * 1020)
+#define M1021 ((int)sizeof(struct Foo) * 1021)
+#define M1022 ((int)sizeof(struct Foo) * 1022)
+#define M1023 ((int)sizeof(struct Foo) * 1023)
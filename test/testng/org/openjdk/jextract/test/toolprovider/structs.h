@@ -0,0 +1,40 @@
+/*
+ * Copyright (c) 2024, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+
+// declares 256 structs, named S_0000 to S_3333 (suffixes are base 4 numbers), along with a
+// typedef and a callback type for each of them
+#define DECLARE(n) \
+    typedef void (*cb##n)(int); \
+    struct S##n { \
+        int a; \
+        struct { int b; int c; }; \
+        cb##n callback; \
+    }; \
+    typedef struct S##n T##n;
+
+#define DECLARE_4(n) DECLARE(n##0) DECLARE(n##1) DECLARE(n##2) DECLARE(n##3)
+#define DECLARE_16(n) DECLARE_4(n##0) DECLARE_4(n##1) DECLARE_4(n##2) DECLARE_4(n##3)
+#define DECLARE_64(n) DECLARE_16(n##0) DECLARE_16(n##1) DECLARE_16(n##2) DECLARE_16(n##3)
+#define DECLARE_256(n) DECLARE_64(n##0) DECLARE_64(n##1) DECLARE_64(n##2) DECLARE_64(n##3)
+
+DECLARE_256(_)